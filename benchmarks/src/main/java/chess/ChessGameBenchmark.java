@@ -0,0 +1,83 @@
+package chess;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link ChessGame} calls the server makes for every move: move
+ * listing, making a move and the end-of-game checks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ChessGameBenchmark {
+    private ChessPosition[][] startSquares;
+    private ChessMove[][] legalMoves;
+
+    @Setup
+    public void findMoves(PositionCorpus corpus) {
+        startSquares = new ChessPosition[corpus.games.length][];
+        legalMoves = new ChessMove[corpus.games.length][];
+        for (int i = 0; i < corpus.games.length; i++) {
+            ChessGame game = corpus.games[i];
+            List<ChessPosition> squares = new ArrayList<>();
+            for (long own = game.getBoard().getOccupancy(game.getTeamTurn()); own != 0; own &= own - 1) {
+                squares.add(Bitboards.position(Long.numberOfTrailingZeros(own)));
+            }
+            startSquares[i] = squares.toArray(new ChessPosition[0]);
+            legalMoves[i] = game.legalMoves(game.getTeamTurn()).toArray(new ChessMove[0]);
+        }
+    }
+
+    @Benchmark
+    public void validMoves(PositionCorpus corpus, Blackhole blackhole) {
+        for (int i = 0; i < corpus.games.length; i++) {
+            for (ChessPosition square : startSquares[i]) {
+                blackhole.consume(corpus.games[i].validMoves(square));
+            }
+        }
+    }
+
+    /**
+     * Makes and takes back every legal move of each position
+     */
+    @Benchmark
+    public void makeMove(PositionCorpus corpus, Blackhole blackhole) throws InvalidMoveException {
+        for (int i = 0; i < corpus.games.length; i++) {
+            ChessGame game = corpus.games[i];
+            ChessGame.TeamColor turn = game.getTeamTurn();
+            for (ChessMove move : legalMoves[i]) {
+                game.makeMove(move);
+                blackhole.consume(game.getBoard().getOccupancy());
+                game.getBoard().undoMove();
+                game.setTeamTurn(turn);
+            }
+        }
+    }
+
+    /**
+     * Re-setting the board drops the cached mobility so each call does the full check
+     */
+    @Benchmark
+    public void isInCheckmate(PositionCorpus corpus, Blackhole blackhole) {
+        for (ChessGame game : corpus.games) {
+            game.setBoard(game.getBoard());
+            blackhole.consume(game.isInCheckmate(game.getTeamTurn()));
+        }
+    }
+
+    @Benchmark
+    public void isInStalemate(PositionCorpus corpus, Blackhole blackhole) {
+        for (ChessGame game : corpus.games) {
+            game.setBoard(game.getBoard());
+            blackhole.consume(game.isInStalemate(game.getTeamTurn()));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package chess;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ChessPiece#pieceMoves} for one piece type at a time, over
+ * every piece of that type in the corpus positions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PieceMovesBenchmark {
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    public ChessPiece.PieceType type;
+
+    private ChessBoard[] boards;
+    private ChessPosition[][] squares;
+
+    @Setup
+    public void findPieces(PositionCorpus corpus) {
+        boards = new ChessBoard[corpus.games.length];
+        squares = new ChessPosition[corpus.games.length][];
+        for (int i = 0; i < corpus.games.length; i++) {
+            boards[i] = corpus.games[i].getBoard();
+            List<ChessPosition> found = new ArrayList<>();
+            for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                for (long pieces = boards[i].getPieces(color, type); pieces != 0; pieces &= pieces - 1) {
+                    found.add(Bitboards.position(Long.numberOfTrailingZeros(pieces)));
+                }
+            }
+            squares[i] = found.toArray(new ChessPosition[0]);
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (int i = 0; i < boards.length; i++) {
+            for (ChessPosition square : squares[i]) {
+                blackhole.consume(boards[i].getPiece(square).pieceMoves(boards[i], square));
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package chess;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The positions every benchmark runs over, grouped by phase of the game. Each
+ * benchmark invocation visits every position of the selected phase, so scores
+ * are per phase rather than per position.
+ */
+@State(Scope.Thread)
+public class PositionCorpus {
+    static final Map<String, List<String>> PHASES = Map.of(
+            "opening", List.of(
+                    Fen.START,
+                    "r1bqkbnr/pppp1ppp/2n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 3 3",
+                    "rnbqkb1r/pp2pppp/3p1n2/8/3NP3/8/PPP2PPP/RNBQKB1R w KQkq - 1 5",
+                    "rnbqkb1r/ppp2ppp/4pn2/3p4/2PP4/2N5/PP2PPPP/R1BQKBNR w KQkq - 2 4"),
+            "middlegame", List.of(
+                    "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    "r2q1rk1/pp2bppp/2n1bn2/3p4/3P4/2NB1N2/PP3PPP/R1BQR1K1 w - - 4 11",
+                    "2rq1rk1/pb1nbppp/1p2pn2/2pp4/2PP4/1P1BPN2/PB1N1PPP/R2QR1K1 b - - 3 12"),
+            "endgame", List.of(
+                    "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w - - 0 30",
+                    "8/5k2/8/3KP3/8/8/8/8 w - - 0 60",
+                    "R5k1/5ppp/8/8/8/8/8/6K1 b - - 1 40",
+                    "7k/5Q2/6K1/8/8/8/8/8 b - - 0 70"));
+
+    @Param({"opening", "middlegame", "endgame"})
+    public String phase;
+
+    public ChessGame[] games;
+
+    @Setup
+    public void loadPositions() {
+        List<String> fens = PHASES.get(phase);
+        games = new ChessGame[fens.size()];
+        for (int i = 0; i < games.length; i++) {
+            games[i] = Fen.parse(fens.get(i));
+        }
+    }
+}
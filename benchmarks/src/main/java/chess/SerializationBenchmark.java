@@ -0,0 +1,50 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import serialization.Serializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Gson round trip a {@link ChessGame} takes on every database
+ * write and every LOAD_GAME message, with the shared compact adapters and with
+ * plain reflection for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+    @Param({"adapters", "reflection"})
+    public String format;
+
+    private Gson gson;
+    private String[] json;
+
+    @Setup
+    public void serializeCorpus(PositionCorpus corpus) {
+        gson = format.equals("adapters") ? Serializer.GSON : new Gson();
+        json = new String[corpus.games.length];
+        for (int i = 0; i < json.length; i++) {
+            json[i] = gson.toJson(corpus.games[i]);
+        }
+    }
+
+    @Benchmark
+    public void toJson(PositionCorpus corpus, Blackhole blackhole) {
+        for (ChessGame game : corpus.games) {
+            blackhole.consume(gson.toJson(game));
+        }
+    }
+
+    @Benchmark
+    public void fromJson(Blackhole blackhole) {
+        for (String text : json) {
+            blackhole.consume(gson.fromJson(text, ChessGame.class));
+        }
+    }
+}
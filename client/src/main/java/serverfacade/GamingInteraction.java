@@ -5,9 +5,7 @@ import chess.ChessMove;
 import chess.ChessPiece;
 import chess.ChessPosition;
 import exception.ResponseException;
-import model.AuthData;
 import model.GameData;
-import model.GameList;
 import ui.GameplayUI;
 import websocket.NotificationHandler;
 import websocket.WebSocketFacade;
@@ -92,16 +90,6 @@ public class GamingInteraction {
         ChessPosition startPosition = translatePosition(params[0]);
         ChessPosition endPosition = translatePosition(params[1]);
 
-        //Retrieving the Piece at this location
-        AuthData auth = new AuthData(authToken, null);
-        GameList games = serverFacade.listGames(auth);
-        GameData thisGame = new GameData(0, null, null, null, null, false);
-        for (var c : games.games()) {
-            if (c.gameID() == gameID) {
-                thisGame = c;
-            }
-        }
-
         //WHAT IF INSTEAD WE CALL VALIDMOVES IN CHESSGAME AND MATCH THE START AND END WITH THE MOVES IN THERE.
         // THOSE SHOULD STORE THE PROMO PIECE TOO
         Collection<ChessMove> moves = chessGame.validMoves(startPosition);
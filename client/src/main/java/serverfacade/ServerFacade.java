@@ -1,8 +1,8 @@
 package serverfacade;
 
-import com.google.gson.Gson;
 import exception.ResponseException;
 import model.*;
+import serialization.Serializer;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -11,11 +11,23 @@ import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class ServerFacade {
+    private static final int CACHED_LISTS = 16;
 
     private final String serverUrl;
+    // The last page fetched for each query, revalidated with its ETag instead of fetched again
+    private final Map<String, CachedList> lists = new LinkedHashMap<>(CACHED_LISTS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedList> eldest) {
+            return size() > CACHED_LISTS;
+        }
+    };
+
+    private record CachedList(String etag, GameList list) {
+    }
 
     public ServerFacade(String url) {
         serverUrl = url;
@@ -37,8 +49,40 @@ public class ServerFacade {
     }
 
     public GameList listGames(AuthData auth) throws ResponseException {
-        var path = "/game";
-        return this.makeRequest("GET", path, null, GameList.class, auth.authToken());
+        return listGames(auth, GameQuery.DEFAULT);
+    }
+
+    /**
+     * @return one page of games; pass its {@code next} to {@link GameQuery#after} for the page after it
+     */
+    public GameList listGames(AuthData auth, GameQuery query) throws ResponseException {
+        var path = "/game" + query.toQueryString();
+        try {
+            URL url = (new URI(serverUrl + path)).toURL();
+            HttpURLConnection http = (HttpURLConnection) url.openConnection();
+            http.setRequestMethod("GET");
+            http.addRequestProperty("Authorization", auth.authToken());
+            CachedList cached = lists.get(path);
+            if (cached != null) {
+                http.addRequestProperty("If-None-Match", cached.etag());
+            }
+
+            http.connect();
+            if (cached != null && http.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return cached.list();
+            }
+            throwIfNotSuccessful(http);
+            GameList list = readBody(http, GameList.class);
+            String etag = http.getHeaderField("ETag");
+            if (etag != null && list != null) {
+                lists.put(path, new CachedList(etag, list));
+            } else {
+                lists.remove(path);
+            }
+            return list;
+        } catch (Exception ex) {
+            throw new ResponseException(500, ex.getMessage());
+        }
     }
 
     public GameData createGame(GameData gameName, AuthData auth) throws ResponseException {
@@ -78,7 +122,7 @@ public class ServerFacade {
     private static void writeBody(Object request, HttpURLConnection http) throws IOException {
         if (request != null) {
             http.addRequestProperty("Content-Type", "application/json");
-            String reqData = new Gson().toJson(request);
+            String reqData = Serializer.toJson(request);
             try (OutputStream reqBody = http.getOutputStream()) {
                 reqBody.write(reqData.getBytes());
             }
@@ -90,7 +134,7 @@ public class ServerFacade {
         if (!isSuccessful(status)) {
             try (InputStream respBody = http.getErrorStream()) {
                 InputStreamReader reader = new InputStreamReader(respBody);
-                Map response = new Gson().fromJson(reader, Map.class);
+                Map response = Serializer.fromJson(reader, Map.class);
                 throw new ResponseException(status, "failure: " + response.get("message"));
             }
         }
@@ -102,7 +146,7 @@ public class ServerFacade {
             try (InputStream respBody = http.getInputStream()) {
                 InputStreamReader reader = new InputStreamReader(respBody);
                 if (responseClass != null) {
-                    response = new Gson().fromJson(reader, responseClass);
+                    response = Serializer.fromJson(reader, responseClass);
                 }
             }
         }
@@ -1,9 +1,9 @@
 package serverfacade;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
 import exception.ResponseException;
 import model.*;
+import serialization.Serializer;
 import ui.GameplayUI;
 import websocket.NotificationHandler;
 import websocket.WebSocketFacade;
@@ -11,8 +11,9 @@ import websocket.WebSocketFacade;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static chess.ChessGame.TeamColor.BLACK;
 import static chess.ChessGame.TeamColor.WHITE;
@@ -26,6 +27,9 @@ public class UserInteraction {
     private AuthData authData;
     private UserData userData;
     ArrayList ids = new ArrayList();
+    private final Map<Integer, GameSummary> listed = new HashMap<>();
+    private GameQuery listQuery = GameQuery.DEFAULT;
+    private String nextPage;
     private WebSocketFacade ws;
     private final NotificationHandler notificationHandler;
     private GamingInteraction gamingInteraction;
@@ -45,7 +49,7 @@ public class UserInteraction {
                 case "register" -> registerUser(params);
                 case "login" -> loginUser(params);
                 case "logout" -> logoutUser();
-                case "list" -> listGames();
+                case "list" -> listGames(params);
                 case "create" -> createGame(params);
                 case "join" -> joinGame(params);
                 case "observe" -> observeGame(params);
@@ -110,23 +114,45 @@ public class UserInteraction {
         }
     }
 
-    public String listGames() throws ResponseException {
+    public String listGames(String... params) throws ResponseException {
         if (authData == null) {
             return "You are not logged in.\n";
         } else {
-            int gameCount = 0;
+            String which = params.length > 0 ? params[0] : "all";
+            if (which.equals("more")) {
+                if (nextPage == null) {
+                    return "There are no more games.\n";
+                }
+                listQuery = listQuery.after(nextPage);
+            } else {
+                GameQuery.Filter filter = switch (which) {
+                    case "open" -> GameQuery.Filter.OPEN;
+                    case "playing" -> GameQuery.Filter.IN_PROGRESS;
+                    case "finished" -> GameQuery.Filter.FINISHED;
+                    default -> GameQuery.Filter.ALL;
+                };
+                String player = which.equals("mine") ? userData.username() : null;
+                listQuery = new GameQuery(null, GameQuery.DEFAULT_LIMIT, filter, player, GameQuery.Sort.OLDEST);
+                ids.clear();
+                listed.clear();
+            }
+            int gameCount = ids.size();
 
-            GameList games = server.listGames(authData);
+            GameList games = server.listGames(authData, listQuery);
+            nextPage = games.next();
             var result = new StringBuilder();
-            var gson = new Gson();
             for (var game : games.games()) {
                 gameCount++;
                 result.append(gameCount);
                 result.append(". ");
-                result.append(gson.toJson(game.gameName())).append('|');
+                result.append(Serializer.toJson(game.gameName())).append('|');
                 ids.add(game.gameID());
-                result.append(gson.toJson(game.whiteUsername())).append('|');
-                result.append(gson.toJson(game.blackUsername())).append('\n');
+                listed.put(game.gameID(), game);
+                result.append(Serializer.toJson(game.whiteUsername())).append('|');
+                result.append(Serializer.toJson(game.blackUsername())).append('\n');
+            }
+            if (nextPage != null) {
+                result.append("There are more games: list more\n");
             }
             return result.toString() + "\n";
         }
@@ -168,21 +194,17 @@ public class UserInteraction {
                     int pull = gameID - 1;
                     int actual = (int) ids.get(pull);
                     var join = new JoinGameRequest(actual, userData.username(), params[1]);
-                    Collection<GameData> temp = server.listGames(authData).games();
-                    GameData whatIAmLookingFor = null;
-                    for (var i : temp) {
-                        if (i.gameID() == actual) {
-                            whatIAmLookingFor = i;
-                            break;
-                        }
-                    }
+                    GameSummary whatIAmLookingFor = listed.get(actual);
                     if (whatIAmLookingFor == null) {
                         System.out.println("Issue in UserInteraction when trying to get the game");
                     }
                     server.joinGame(join, authData);
-                    ws = new WebSocketFacade(serverUrl, notificationHandler, colorChoice, whatIAmLookingFor.game());
+                    //The list only has summaries, the board comes with LOAD_GAME once connected
+                    GameData joined = new GameData(actual, whatIAmLookingFor.whiteUsername(), whatIAmLookingFor.blackUsername(),
+                            whatIAmLookingFor.gameName(), new ChessGame(), false);
+                    ws = new WebSocketFacade(serverUrl, notificationHandler, colorChoice, joined.game());
                     ws.connectGame(authData.authToken(), actual);
-                    new GamingInteraction(serverUrl, notificationHandler, authData.authToken(), actual, colorChoice, ws, whatIAmLookingFor);
+                    new GamingInteraction(serverUrl, notificationHandler, authData.authToken(), actual, colorChoice, ws, joined);
                     return "\n";
                 }
             } catch (ResponseException e) {
@@ -209,21 +231,17 @@ public class UserInteraction {
                 int pull = gameID - 1;
                 int actual = (int) ids.get(pull);
                 var join = new JoinGameRequest(actual, userData.username(), params[1]);
-                Collection<GameData> temp = server.listGames(authData).games();
-                GameData whatIAmLookingFor = null;
-                for (var i : temp) {
-                    if (i.gameID() == actual) {
-                        whatIAmLookingFor = i;
-                        break;
-                    }
-                }
+                GameSummary whatIAmLookingFor = listed.get(actual);
                 if (whatIAmLookingFor == null) {
                     System.out.println("Issue in UserInteraction when trying to get the game");
                 }
-                ws = new WebSocketFacade(serverUrl, notificationHandler, colorChoice, whatIAmLookingFor.game());
+                //The list only has summaries, the board comes with LOAD_GAME once connected
+                GameData joined = new GameData(actual, whatIAmLookingFor.whiteUsername(), whatIAmLookingFor.blackUsername(),
+                        whatIAmLookingFor.gameName(), new ChessGame(), false);
+                ws = new WebSocketFacade(serverUrl, notificationHandler, colorChoice, joined.game());
                 ws.connectGame(authData.authToken(), gameID);
 
-                new GamingInteraction(serverUrl, notificationHandler, authData.authToken(), actual, colorChoice, ws, whatIAmLookingFor);
+                new GamingInteraction(serverUrl, notificationHandler, authData.authToken(), actual, colorChoice, ws, joined);
             }
             return ("Enjoy the Game.\n");
         }
@@ -251,7 +269,7 @@ public class UserInteraction {
         }
         return """
                 - Logout: logout
-                - List all Games: list
+                - List Games: list [open, playing, finished or mine], then list more for the next page
                 - Create New Game: create <GameName>
                 - Join a Game: join <GameID> <WHITE or BLACK>
                 - Observe a Game: observe <GameID> 'observer'
@@ -66,7 +66,7 @@ public class GameplayUI {
     }
 
     private static String getPieceString(ChessBoard board, int row, int col, boolean printHighlighted) {
-        ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+        ChessPiece piece = board.getPiece(ChessPosition.of(row, col));
         String background = ((row + col) % 2 == 0) ? BLACK_TILE : WHITE_TILE;
         if (printHighlighted) {
             background = HIGHLIGHT;
@@ -90,7 +90,7 @@ public class GameplayUI {
         out.print(borderFormat(row));
         if (perspective.equals(ChessGame.TeamColor.BLACK)) {
             for (int i = 8; i >= 1; i--) {
-                ChessPosition compared = new ChessPosition(row, i);
+                ChessPosition compared = ChessPosition.of(row, i);
                 boolean highlight = false;
                 if (highlightPositions.contains(compared)) {
                     highlight = true;
@@ -99,7 +99,7 @@ public class GameplayUI {
             }
         } else {
             for (int i = 1; i <= 8; i++) {
-                ChessPosition compared = new ChessPosition(row, i);
+                ChessPosition compared = ChessPosition.of(row, i);
                 boolean highlight = false;
                 if (highlightPositions.contains(compared)) {
                     highlight = true;
@@ -0,0 +1,75 @@
+package ui;
+
+import serialization.Serializer;
+import websocket.commands.UserGameCommand;
+import websocket.messages.LobbyEventMessage;
+
+import javax.websocket.*;
+import java.net.URI;
+import java.util.function.Consumer;
+
+/**
+ * Listens to the lobby feed: every game created, seat taken or left and game
+ * finished on the server, one event at a time, so the lobby can keep its
+ * list of games without asking the server for it again.
+ */
+@ClientEndpoint
+public class LobbyClient {
+    private Session session;
+    private final Consumer<LobbyEventMessage> onEvent;
+    private final Runnable onMissed;
+    private long lastSequence = -1;
+
+    /**
+     * @param onEvent  called with each event, in order
+     * @param onMissed called when events may have been missed, because one was
+     *                 skipped or the connection closed, so the list should be
+     *                 fetched again
+     */
+    public LobbyClient(String serverUri, String authToken, Consumer<LobbyEventMessage> onEvent, Runnable onMissed)
+            throws Exception {
+        this.onEvent = onEvent;
+        this.onMissed = onMissed;
+        WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+        container.connectToServer(this, new URI(serverUri));
+        var subscribe = new UserGameCommand(UserGameCommand.CommandType.SUBSCRIBE_LOBBY, authToken, null);
+        session.getBasicRemote().sendText(Serializer.toJson(subscribe));
+    }
+
+    @OnOpen
+    public void onOpen(Session session) {
+        this.session = session;
+    }
+
+    @OnMessage
+    public synchronized void onMessage(String message) {
+        if (!message.contains("LOBBY_EVENT")) {
+            return;
+        }
+        LobbyEventMessage event = Serializer.fromJson(message, LobbyEventMessage.class);
+        if (lastSequence >= 0 && event.getSequence() != lastSequence + 1) {
+            onMissed.run();
+        }
+        lastSequence = event.getSequence();
+        onEvent.accept(event);
+    }
+
+    @OnClose
+    public void onClose(Session session, CloseReason reason) {
+        onMissed.run();
+    }
+
+    public boolean isOpen() {
+        return session != null && session.isOpen();
+    }
+
+    public void close() {
+        try {
+            if (isOpen()) {
+                session.close();
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to close the lobby feed: " + e.getMessage());
+        }
+    }
+}
@@ -1,38 +1,50 @@
 package ui;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import model.GameList;
+import model.GameQuery;
+import model.GameSummary;
+import serialization.Serializer;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 public class PostloginUI {
 
     private final Client client;
     private final Scanner scanner;
-    private final Map<String, Integer> gameList; // Maps displayed game numbers to game IDs for easy access
-    private final List<String> gameNames;
+    // Every game by ID, kept up to date by the lobby feed; games are numbered in this order
+    private final Map<Integer, GameSummary> games = new ConcurrentSkipListMap<>();
     private final String authToken;
+    private LobbyClient lobby;
+    // Set when the feed may have missed an event, so the list is fetched again
+    private volatile boolean stale = true;
 
     public PostloginUI(Client client, String token) {
         this.client = client;
-        this.gameNames = new ArrayList<>();
         this.scanner = new Scanner(System.in);
-        this.gameList = new HashMap<>();
         this.authToken = token;
     }
 
     // Main loop for handling user input
     public void start() {
         System.out.println("You are logged in! Type 'help' for a list of commands.");
+        try {
+            lobby = client.getServerFacade().createLobbyClient(authToken, event -> event.applyTo(games), () -> stale = true);
+        } catch (Exception e) {
+            System.out.println("Unable to follow the lobby, games will be fetched each time: " + e.getMessage());
+        }
 
         while (true) {
-            try {
-                updateGames();
-            } catch (Exception e) {
-                System.out.println("Error getting games from server: " + e.getMessage());
+            // With the feed open the list only needs fetching once, and again after a missed event
+            if (stale || lobby == null || !lobby.isOpen()) {
+                try {
+                    updateGames();
+                } catch (Exception e) {
+                    System.out.println("Error getting games from server: " + e.getMessage());
+                }
             }
             System.out.print("[LOGGED_IN] >>> ");
             String command = scanner.nextLine().trim().toLowerCase();
@@ -42,6 +54,9 @@ public class PostloginUI {
                     displayHelp();
                     break;
                 case "logout":
+                    if (lobby != null) {
+                        lobby.close();
+                    }
                     handleLogout();
                     return; // Exit to go back to PreloginUI
                 case "create game":
@@ -64,25 +79,25 @@ public class PostloginUI {
     }
 
     private void updateGames() throws Exception {
-        Gson gson = new Gson();
-        JsonObject jsonObject = gson.fromJson(client.getServerFacade().listGames(authToken), JsonObject.class);
-
-        JsonArray gamesArray = jsonObject.getAsJsonArray("games");
-
-        // Reset game list map
-        gameList.clear();
-        gameNames.clear();
-
-        for (int i = 0; i < gamesArray.size(); i++) {
-            JsonObject game = gamesArray.get(i).getAsJsonObject();
-
-            // Extract and print game properties
-            int gameID = game.get("gameID").getAsInt();
-            String gameName = game.get("gameName").getAsString();
-
-            gameList.put(gameName, gameID);
-            gameNames.add(gameName);
+        stale = false;
+        Map<Integer, GameSummary> fetched = new TreeMap<>();
+        GameQuery query = GameQuery.DEFAULT;
+        while (true) {
+            GameList page = Serializer.fromJson(client.getServerFacade().listGames(authToken, query), GameList.class);
+            if (page.games() == null) {
+                throw new Exception("no games in the server's response");
+            }
+            for (GameSummary game : page.games()) {
+                fetched.put(game.gameID(), game);
+            }
+            if (page.next() == null) {
+                break;
+            }
+            query = query.after(page.next());
         }
+
+        games.clear();
+        games.putAll(fetched);
     }
 
     private void displayHelp() {
@@ -123,59 +138,21 @@ public class PostloginUI {
         } catch (Exception e) {
             System.out.println("An error occurred while creating the game: " + e.getMessage());
         }
-        try {
-            updateGames();
-        } catch (Exception e) {
-            System.out.println("Error getting games from server: " + e.getMessage());
-        }
     }
 
     private void handleListGames() {
-        try {
-            String response = client.getServerFacade().listGames(authToken);
-            if (response.contains("games")) {  // Assuming response structure contains games
-                System.out.println("Available games:");
-
-                Gson gson = new Gson();
-                JsonObject jsonObject = gson.fromJson(response, JsonObject.class);
-
-                JsonArray gamesArray = jsonObject.getAsJsonArray("games");
-
-                // Reset game list map
-                gameList.clear();
-                gameNames.clear();
-
-                for (int i = 0; i < gamesArray.size(); i++) {
-                    JsonObject game = gamesArray.get(i).getAsJsonObject();
-
-                    // Extract and print game properties
-                    int gameID = game.get("gameID").getAsInt();
-                    String gameName = game.get("gameName").getAsString();
-
-                    String blackUser;
-                    String whiteUser;
-                    if (game.toString().contains("blackUsername")) {
-                        blackUser = game.get("blackUsername").getAsString();
-                    } else {
-                        blackUser = "none";
-                    }
-                    if (game.toString().contains("whiteUsername")) {
-                        whiteUser = game.get("whiteUsername").getAsString();
-                    } else {
-                        whiteUser = "none";
-                    }
-
-                    gameList.put(gameName, gameID);
-                    gameNames.add(gameName);
-
-                    System.out.println("Game Number: " + (i+1) + ", Game Name: " + gameName + ", White Username: "
-                            + whiteUser + ", Black Username: " + blackUser);
-                }
-            } else {
-                System.out.println("No games currently available.");
-            }
-        } catch (Exception e) {
-            System.out.println("An error occurred while listing games: " + e.getMessage());
+        if (games.isEmpty()) {
+            System.out.println("No games currently available.");
+            return;
+        }
+        System.out.println("Available games:");
+        int gameNumber = 0;
+        for (GameSummary game : games.values()) {
+            gameNumber++;
+            String whiteUser = game.whiteUsername() == null ? "none" : game.whiteUsername();
+            String blackUser = game.blackUsername() == null ? "none" : game.blackUsername();
+            System.out.println("Game Number: " + gameNumber + ", Game Name: " + game.gameName() + ", White Username: "
+                    + whiteUser + ", Black Username: " + blackUser);
         }
     }
 
@@ -183,7 +160,8 @@ public class PostloginUI {
         System.out.print("Enter the number of the game you want to join: ");
         int gameNumber = Integer.parseInt(scanner.nextLine());
 
-        if (gameNames.size() < gameNumber || gameNumber < 1) {
+        List<GameSummary> listed = List.copyOf(games.values());
+        if (listed.size() < gameNumber || gameNumber < 1) {
             System.out.println("Invalid game number. Please list games and try again.");
             return;
         }
@@ -198,7 +176,7 @@ public class PostloginUI {
                 System.out.println("Joined game successfully.");
 
                 // Transition to GameUI for gameplay
-                new GameUI(client, gameList.get(gameNames.get(gameNumber-1)), color, authToken).start();
+                new GameUI(client, listed.get(gameNumber - 1).gameID(), color, authToken).start();
             } else {
                 System.out.println("Failed to join game. Please try another.");
             }
@@ -212,13 +190,14 @@ public class PostloginUI {
         System.out.print("Enter the number of the game you want to join: ");
         int gameNumber = Integer.parseInt(scanner.nextLine());
 
-        if (gameNames.size() < gameNumber || gameNumber < 1) {
+        List<GameSummary> listed = List.copyOf(games.values());
+        if (listed.size() < gameNumber || gameNumber < 1) {
             System.out.println("Invalid game number. Please list games and try again.");
             return;
         }
 
         try {
-            new GameUI(client, gameList.get(gameNames.get(gameNumber-1)), null, authToken).start();
+            new GameUI(client, listed.get(gameNumber - 1).gameID(), null, authToken).start();
         } catch (Exception e) {
             System.out.println("An error occurred while attempting to observe the game: " + e.getMessage());
         }
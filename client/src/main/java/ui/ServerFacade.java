@@ -1,6 +1,8 @@
 package ui;
 
 import chess.ChessGame;
+import model.GameQuery;
+import websocket.messages.LobbyEventMessage;
 
 import javax.websocket.ContainerProvider;
 import javax.websocket.WebSocketContainer;
@@ -8,10 +10,19 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class ServerFacade {
 
     private String baseUrl;
+    // The last game list fetched from each URL and its ETag, so a refresh that finds nothing new
+    // is answered with 304 Not Modified instead of the list again
+    private final Map<String, CachedList> lists = new ConcurrentHashMap<>();
+
+    private record CachedList(String etag, String body) {
+    }
 
     public ServerFacade(String port) {
         this.baseUrl = "http://localhost:" + port + "/";
@@ -48,15 +59,31 @@ public class ServerFacade {
     }
 
     public String listGames(String authToken) throws Exception {
-        String uri = baseUrl + "game";
+        return listGames(authToken, GameQuery.DEFAULT);
+    }
+
+    public String listGames(String authToken, GameQuery query) throws Exception {
+        String uri = baseUrl + "game" + query.toQueryString();
 
         HttpClient client = HttpClient.newHttpClient();
-        HttpRequest request = HttpRequest.newBuilder()
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
                 .header("Content-Type", "application/json")
                 .uri(new URI(uri))
-                .header("Authorization", authToken)
-                .build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                .header("Authorization", authToken);
+        CachedList cached = lists.get(uri);
+        if (cached != null) {
+            builder.header("If-None-Match", cached.etag());
+        }
+        HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        if (cached != null && response.statusCode() == 304) {
+            return cached.body();
+        }
+        var etag = response.headers().firstValue("ETag");
+        if (response.statusCode() == 200 && etag.isPresent()) {
+            lists.put(uri, new CachedList(etag.get(), response.body()));
+        } else {
+            lists.remove(uri);
+        }
         return response.body();
     }
 
@@ -108,4 +135,11 @@ public class ServerFacade {
         WebSocketClient webSocketClient = new WebSocketClient(uri, gameUI);
         return webSocketClient;
     }
+
+    public LobbyClient createLobbyClient(String authToken, Consumer<LobbyEventMessage> onEvent, Runnable onMissed)
+            throws Exception {
+        String uri = baseUrl + "ws";
+        uri = uri.replaceFirst("http", "ws");
+        return new LobbyClient(uri, authToken, onEvent, onMissed);
+    }
 }
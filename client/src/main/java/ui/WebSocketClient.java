@@ -1,7 +1,7 @@
 package ui;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
+import serialization.Serializer;
 import websocket.commands.MakeMoveCommand;
 import websocket.commands.UserGameCommand;
 import websocket.messages.ErrorMessage;
@@ -17,7 +17,6 @@ import java.util.TimerTask;
 @ClientEndpoint
 public class WebSocketClient {
     private Session session;
-    private final Gson gson = new Gson();
     private ChessGame game;
     public ChessGame.TeamColor teamColor = ChessGame.TeamColor.WHITE;
     private final GameUI gameUI;
@@ -50,13 +49,13 @@ public class WebSocketClient {
     @OnMessage
     public void onMessage(String message) {
         if (message.contains("LOAD_GAME")) {
-            LoadGameMessage msg = gson.fromJson(message, LoadGameMessage.class);
+            LoadGameMessage msg = Serializer.fromJson(message, LoadGameMessage.class);
             handleLoadGame(msg.getGame());
         } else if (message.contains("NOTIFICATION")) {
-            NotificationMessage msg = gson.fromJson(message, NotificationMessage.class);
+            NotificationMessage msg = Serializer.fromJson(message, NotificationMessage.class);
             handleNotification(msg.getMessage());
         } else if (message.contains("ERROR")) {
-            ErrorMessage msg = gson.fromJson(message, ErrorMessage.class);
+            ErrorMessage msg = Serializer.fromJson(message, ErrorMessage.class);
             handleError(msg.getErrorMessage());
         } else {
             System.err.println("Unknown server message type.");
@@ -68,7 +67,7 @@ public class WebSocketClient {
     public void sendMessage(UserGameCommand command) {
         try {
             if (session != null && session.isOpen()) {
-                String json = gson.toJson(command);
+                String json = Serializer.toJson(command);
                 session.getBasicRemote().sendText(json);
             } else {
                 System.err.println("Cannot send message: WebSocket session is closed.");
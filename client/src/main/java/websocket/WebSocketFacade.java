@@ -3,9 +3,10 @@ package websocket;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
-import com.google.gson.Gson;
 import exception.ResponseException;
 import model.GameData;
+import serialization.MessageCodec;
+import serialization.Serializer;
 import ui.GameplayUI;
 import websocket.commands.MakeMove;
 import websocket.commands.UserGameCommand;
@@ -14,6 +15,7 @@ import websocket.messages.*;
 import javax.websocket.*;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.net.URISyntaxException;
 
 public class WebSocketFacade extends Endpoint {
@@ -22,6 +24,8 @@ public class WebSocketFacade extends Endpoint {
     NotificationHandler notificationHandler;
     private ChessGame currentGame;
     private ChessGame.TeamColor teamColor;
+    private String authToken;
+    private int gameID;
 
 
     public WebSocketFacade(String url, NotificationHandler notificationHandler, ChessGame.TeamColor teamColor, ChessGame currentGame) throws ResponseException {
@@ -40,7 +44,7 @@ public class WebSocketFacade extends Endpoint {
                 @Override
                 public void onMessage(String message) {
                     System.out.println(message);
-                    ServerMessage serverMessage = new Gson().fromJson(message, ServerMessage.class);
+                    ServerMessage serverMessage = Serializer.fromJson(message, ServerMessage.class);
                     try {
                         switch (serverMessage.getServerMessageType()) {
                             case NOTIFICATION:
@@ -53,12 +57,23 @@ public class WebSocketFacade extends Endpoint {
                                 System.out.println("We have entered the Load game case");
                                 handleLoadGame(message);
                                 break;
+                            case MOVE_APPLIED:
+                                handleMoveApplied(message);
+                                break;
                         }
                     } catch (Exception ex) {
                         throw new RuntimeException("I am still getting things together");
                     }
                 }
             });
+
+            //LOAD_GAME arrives as a binary frame when connectGame asked for one
+            this.session.addMessageHandler(new MessageHandler.Whole<ByteBuffer>() {
+                @Override
+                public void onMessage(ByteBuffer frame) {
+                    loadGame(MessageCodec.decodeBinary(frame));
+                }
+            });
         } catch (DeploymentException | IOException | URISyntaxException ex) {
             throw new ResponseException(500, ex.getMessage());
         }
@@ -71,7 +86,7 @@ public class WebSocketFacade extends Endpoint {
 
     public void handleNotification(String message) throws ResponseException {
         try {
-            var action = new Gson().fromJson(message, Notifying.class);
+            var action = Serializer.fromJson(message, Notifying.class);
             System.out.println(action.getMessage());
         } catch (Exception ex) {
             throw new ResponseException(500, ex.getMessage());
@@ -81,7 +96,7 @@ public class WebSocketFacade extends Endpoint {
 
     public void handleError(String serverMessage) throws ResponseException {
         try {
-            var action = new Gson().fromJson(serverMessage, Erroring.class);
+            var action = Serializer.fromJson(serverMessage, Erroring.class);
             System.out.println(action.getErrorMessage());
         } catch (Exception ex) {
             throw new ResponseException(500, ex.getMessage());
@@ -90,36 +105,67 @@ public class WebSocketFacade extends Endpoint {
 
     public void handleLoadGame(String serverMessage) throws ResponseException {
         try {
-            var action = new Gson().fromJson(serverMessage, Loading.class);
-            System.out.println(action.getColor());
-            currentGame = action.game;
-            GameData gameData = new GameData(0, null, null, null, currentGame, false);
-            redraw(gameData, teamColor);
+            loadGame(Serializer.fromJson(serverMessage, Loading.class));
         } catch (Exception ex) {
             throw new ResponseException(500, ex.getMessage());
         }
     }
 
+    /**
+     * Plays the move on our copy of the game, asking for the whole game instead
+     * if the copy is not in step with the server's
+     */
+    public void handleMoveApplied(String serverMessage) throws ResponseException {
+        try {
+            var action = Serializer.fromJson(serverMessage, MoveAppliedMessage.class);
+            if (action.applyTo(currentGame)) {
+                redraw(new GameData(0, null, null, null, currentGame, false), teamColor);
+            } else {
+                var resync = new UserGameCommand(UserGameCommand.CommandType.RESYNC, authToken, gameID);
+                this.session.getBasicRemote().sendText(Serializer.toJson(resync));
+            }
+        } catch (Exception ex) {
+            throw new ResponseException(500, ex.getMessage());
+        }
+    }
+
+    private void loadGame(Loading action) {
+        System.out.println(action.getColor());
+        currentGame = action.game;
+        GameData gameData = new GameData(0, null, null, null, currentGame, false);
+        redraw(gameData, teamColor);
+    }
+
+    /**
+     * Joins the game, asking for game state as compact binary frames and for
+     * each move rather than the whole game after every move
+     */
     public void connectGame(String authToken, int gameID) throws IOException {
-        var action = new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID);
-        this.session.getBasicRemote().sendText(new Gson().toJson(action));
+        connectGame(authToken, gameID, UserGameCommand.WireFormat.BINARY);
+    }
+
+    public void connectGame(String authToken, int gameID, UserGameCommand.WireFormat format) throws IOException {
+        this.authToken = authToken;
+        this.gameID = gameID;
+        var action = new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID, format, true);
+        this.session.getBasicRemote().sendText(Serializer.toJson(action));
     }
 
     public void makeMove(String authToken, int gameID, ChessMove move) throws IOException {
         var action = new MakeMove(UserGameCommand.CommandType.MAKE_MOVE, authToken, gameID, move);
-        this.session.getBasicRemote().sendText(new Gson().toJson(action));
+        this.session.getBasicRemote().sendText(Serializer.toJson(action));
         System.out.println("This happend");
     }
 
     public void leaveGame(String authToken, int gameID) throws IOException {
         var action = new UserGameCommand(UserGameCommand.CommandType.LEAVE, authToken, gameID);
-        this.session.getBasicRemote().sendText(new Gson().toJson(action));
+        this.session.getBasicRemote().sendText(Serializer.toJson(action));
         this.session.close();
     }
 
     public void resignGame(String authToken, int gameID) throws IOException {
         var action = new UserGameCommand(UserGameCommand.CommandType.RESIGN, authToken, gameID);
-        this.session.getBasicRemote().sendText(new Gson().toJson(action));
+        this.session.getBasicRemote().sendText(Serializer.toJson(action));
         this.session.close();
     }
 
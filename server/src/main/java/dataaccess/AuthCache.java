@@ -0,0 +1,165 @@
+package dataaccess;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers which user each auth token belongs to, so checking the token on
+ * every request and WebSocket command does not go to the database.
+ * <ul>
+ *   <li>A token's user is kept for {@code ttlMillis}, so a token deleted
+ *   somewhere other than through {@link #invalidate} stops working within that
+ *   long.</li>
+ *   <li>A token with no user is remembered as such for
+ *   {@code negativeTtlMillis}, so a client retrying a bad token does not reach
+ *   the database either.</li>
+ *   <li>Beyond {@code maxTokens} the tokens closest to expiring are dropped.</li>
+ * </ul>
+ * Deleting a token or clearing the table should go through {@link #invalidate}
+ * or {@link #invalidateAll} so the change is seen straight away.
+ */
+public class AuthCache {
+    /**
+     * Reads a token's user from the database, or returns null if there is no such token
+     */
+    @FunctionalInterface
+    public interface Loader {
+        String load(String authToken) throws DataAccessException;
+    }
+
+    public record Settings(long ttlMillis, long negativeTtlMillis, int maxTokens) {
+        public static final Settings DEFAULT = new Settings(5 * 60_000, 5_000, 10_000);
+    }
+
+    /**
+     * @param hits          lookups answered from memory, including {@code negativeHits}
+     * @param negativeHits  lookups answered from memory with "no such token"
+     * @param misses        lookups that went to the database
+     * @param invalidations tokens dropped because they were deleted or the table was cleared
+     * @param evictions     tokens dropped to stay within {@code maxTokens}
+     * @param cached        tokens in memory now
+     */
+    public record Stats(long hits, long negativeHits, long misses, long invalidations, long evictions, int cached) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private final Loader loader;
+    private final Settings settings;
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+    // Moves on with every invalidation, so a lookup that raced one does not put back what it removed
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public AuthCache(Loader loader, Settings settings) {
+        this.loader = loader;
+        this.settings = settings;
+    }
+
+    /**
+     * @return the token's user, or null if there is no such token
+     */
+    public String getUsername(String authToken) throws DataAccessException {
+        if (authToken == null) {
+            return loader.load(null);
+        }
+        long now = System.nanoTime();
+        Entry entry = tokens.get(authToken);
+        if (entry != null && entry.expires - now > 0) {
+            hits.increment();
+            if (entry.username == null) {
+                negativeHits.increment();
+            }
+            return entry.username;
+        }
+        misses.increment();
+        long before = generation.get();
+        String username = loader.load(authToken);
+        remember(authToken, username, now, before);
+        return username;
+    }
+
+    /**
+     * Records the user of a token just created, so its first use is answered from memory
+     */
+    public void put(String authToken, String username) {
+        if (authToken != null) {
+            remember(authToken, username, System.nanoTime(), generation.get());
+        }
+    }
+
+    public void invalidate(String authToken) {
+        if (authToken == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        if (tokens.remove(authToken) != null) {
+            invalidations.increment();
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations.add(tokens.size());
+        tokens.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), negativeHits.sum(), misses.sum(), invalidations.sum(), evictions.sum(),
+                tokens.size());
+    }
+
+    private void remember(String authToken, String username, long now, long before) {
+        long ttl = username == null ? settings.negativeTtlMillis() : settings.ttlMillis();
+        if (ttl <= 0) {
+            return;
+        }
+        if (tokens.size() >= settings.maxTokens()) {
+            trim(now);
+        }
+        Entry entry = new Entry(username, now + TimeUnit.MILLISECONDS.toNanos(ttl));
+        tokens.put(authToken, entry);
+        if (generation.get() != before) {
+            tokens.remove(authToken, entry);
+        }
+    }
+
+    // Drops expired tokens, then the ones closest to expiring until a tenth of the room is free
+    private void trim(long now) {
+        tokens.entrySet().removeIf(token -> token.getValue().expires - now <= 0);
+        int excess = tokens.size() - settings.maxTokens() + Math.max(settings.maxTokens() / 10, 1);
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<String, Entry>> oldest = new ArrayList<>(tokens.entrySet());
+        oldest.sort(Comparator.comparingLong(token -> token.getValue().expires));
+        for (var token : oldest.subList(0, Math.min(excess, oldest.size()))) {
+            if (tokens.remove(token.getKey(), token.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static final class Entry {
+        final String username;
+        final long expires;
+
+        Entry(String username, long expires) {
+            this.username = username;
+            this.expires = expires;
+        }
+    }
+}
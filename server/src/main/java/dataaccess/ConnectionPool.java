@@ -0,0 +1,484 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A bounded pool of database connections. {@link #borrow()} hands out a
+ * connection whose {@code close()} puts it back in the pool instead of closing
+ * it, so callers keep using try-with-resources exactly as with a fresh
+ * connection.
+ * <ul>
+ *   <li>At most {@code maxSize} connections are open; borrowers wait up to
+ *   {@code borrowTimeoutMillis} for one to come back.</li>
+ *   <li>A connection idle for longer than {@code validateAfterMillis} is checked
+ *   with {@link Connection#isValid} before it is handed out again.</li>
+ *   <li>Connections older than {@code maxLifetimeMillis} are closed when they
+ *   come back rather than reused.</li>
+ *   <li>A connection borrowed for longer than {@code leakThresholdMillis} is
+ *   reported once in the log. With {@code traceLeaks} on, the report includes
+ *   the stack that borrowed it; that stack is captured on every borrow, so it
+ *   is off by default.</li>
+ *   <li>Each connection keeps up to {@code statementCacheSize} prepared
+ *   statements, keyed by their SQL and evicting the least recently used, so
+ *   the same query is only prepared once per connection. Closing a cached
+ *   statement clears its parameters and keeps it for the next borrower.</li>
+ * </ul>
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(ConnectionPool.class.getName());
+
+    /**
+     * Opens a new physical connection
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    public record Settings(int maxSize, long borrowTimeoutMillis, long validateAfterMillis,
+                           long maxLifetimeMillis, long leakThresholdMillis, boolean traceLeaks,
+                           int statementCacheSize) {
+        public static final Settings DEFAULT = new Settings(10, 5_000, 30_000, 30 * 60_000, 60_000, false, 32);
+    }
+
+    /**
+     * @param borrows            connections handed out
+     * @param waits              borrows that had to wait for a connection to come back
+     * @param waitNanos          total time borrowers spent waiting
+     * @param timeouts           borrows that gave up waiting
+     * @param opened             physical connections opened
+     * @param retired            physical connections closed for age or failed validation
+     * @param leaks              borrows reported as possible leaks
+     * @param idle               connections in the pool now
+     * @param inUse              connections borrowed now
+     * @param statementHits      prepared statements reused from a connection's cache
+     * @param statementMisses    prepared statements that had to be prepared
+     * @param statementEvictions prepared statements closed to make room in a cache
+     */
+    public record Stats(long borrows, long waits, long waitNanos, long timeouts, long opened, long retired,
+                        long leaks, int idle, int inUse,
+                        long statementHits, long statementMisses, long statementEvictions) {
+        public double averageWaitMillis() {
+            return waits == 0 ? 0 : waitNanos / 1e6 / waits;
+        }
+
+        public double statementHitRate() {
+            long total = statementHits + statementMisses;
+            return total == 0 ? 0 : (double) statementHits / total;
+        }
+    }
+
+    private final ConnectionFactory factory;
+    private final Settings settings;
+    private final Semaphore permits;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Map<PooledConnection, Borrow> borrowed = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService leakDetector;
+    private volatile boolean closed;
+
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder retired = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+
+    public ConnectionPool(ConnectionFactory factory, Settings settings) {
+        this.factory = factory;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+
+        AtomicInteger threads = new AtomicInteger();
+        this.leakDetector = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "connection-leak-detector-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(settings.leakThresholdMillis() / 2, 1);
+        leakDetector.scheduleAtFixedRate(this::reportLeaks, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return a connection to use and close, waiting for one if all are in use
+     * @throws DataAccessException if none comes back in time or a new one cannot be opened
+     */
+    public Connection borrow() throws DataAccessException {
+        if (closed) {
+            throw new DataAccessException("Connection pool is closed");
+        }
+        acquirePermit();
+        try {
+            PooledConnection connection = takeIdle();
+            if (connection == null) {
+                connection = new PooledConnection(factory.open());
+                opened.increment();
+            }
+            borrows.increment();
+            Throwable stack = settings.traceLeaks() ? new Throwable("Connection borrowed here") : null;
+            borrowed.put(connection, new Borrow(System.currentTimeMillis(), stack));
+            return connection.handOut();
+        } catch (SQLException e) {
+            permits.release();
+            throw new DataAccessException(e.getMessage());
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(borrows.sum(), waits.sum(), waitNanos.sum(), timeouts.sum(), opened.sum(), retired.sum(),
+                leaks.sum(), idle.size(), borrowed.size(),
+                statementHits.sum(), statementMisses.sum(), statementEvictions.sum());
+    }
+
+    /**
+     * Closes the idle connections and stops handing out new ones. Borrowed
+     * connections are closed as they come back.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        leakDetector.shutdownNow();
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            connection.closePhysical();
+        }
+    }
+
+    private void acquirePermit() throws DataAccessException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(settings.borrowTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted waiting for a database connection");
+        } finally {
+            waits.increment();
+            waitNanos.add(System.nanoTime() - start);
+        }
+        if (!acquired) {
+            timeouts.increment();
+            throw new DataAccessException("Timed out after " + settings.borrowTimeoutMillis()
+                    + " ms waiting for a database connection");
+        }
+    }
+
+    /**
+     * @return the most recently used idle connection that is still good, or null if none is
+     */
+    private PooledConnection takeIdle() {
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            long now = System.currentTimeMillis();
+            if (now - connection.createdAt >= settings.maxLifetimeMillis() || !stillValid(connection, now)) {
+                connection.closePhysical();
+                retired.increment();
+                continue;
+            }
+            return connection;
+        }
+        return null;
+    }
+
+    private boolean stillValid(PooledConnection connection, long now) {
+        if (now - connection.returnedAt < settings.validateAfterMillis()) {
+            return true;
+        }
+        try {
+            return connection.physical.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void giveBack(PooledConnection connection) {
+        Borrow borrow = borrowed.remove(connection);
+        if (borrow == null) {
+            return;
+        }
+        boolean reusable = !closed && System.currentTimeMillis() - connection.createdAt < settings.maxLifetimeMillis();
+        if (reusable) {
+            reusable = connection.reset();
+        }
+        if (reusable) {
+            connection.returnedAt = System.currentTimeMillis();
+            idle.offerFirst(connection);
+        } else {
+            connection.closePhysical();
+            retired.increment();
+        }
+        permits.release();
+    }
+
+    private void reportLeaks() {
+        long now = System.currentTimeMillis();
+        for (Borrow borrow : borrowed.values()) {
+            if (!borrow.reported && now - borrow.at >= settings.leakThresholdMillis()) {
+                borrow.reported = true;
+                leaks.increment();
+                LOG.log(Level.WARNING, "Possible connection leak: borrowed " + (now - borrow.at) + " ms ago", borrow.stack);
+            }
+        }
+    }
+
+    private static final class Borrow {
+        final long at;
+        // Null unless leaks are traced
+        final Throwable stack;
+        volatile boolean reported;
+
+        Borrow(long at, Throwable stack) {
+            this.at = at;
+            this.stack = stack;
+        }
+    }
+
+    /**
+     * A physical connection and its bookkeeping. Each loan gets its own proxy so
+     * a caller that closes twice, or keeps using a connection after closing it,
+     * cannot touch the next borrower's loan.
+     */
+    private final class PooledConnection {
+        final Connection physical;
+        final long createdAt = System.currentTimeMillis();
+        long returnedAt = createdAt;
+        final StatementCache statements = new StatementCache();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * @return the cached statement for the SQL, or a new uncached one if the
+         * cached statement is already open for this loan
+         */
+        PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+            String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "+" + sql : sql;
+            CachedStatement cached = statements.get(key);
+            if (cached != null && cached.inUse) {
+                return physical.prepareStatement(sql, autoGeneratedKeys);
+            }
+            if (cached != null) {
+                statementHits.increment();
+            } else {
+                statementMisses.increment();
+                cached = new CachedStatement(physical.prepareStatement(sql, autoGeneratedKeys));
+                statements.put(key, cached);
+            }
+            return cached.handOut();
+        }
+
+        Connection handOut() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Loan(this));
+        }
+
+        /**
+         * Undoes anything a borrower may have left behind
+         *
+         * @return whether the connection can be reused
+         */
+        boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                for (CachedStatement statement : new ArrayList<>(statements.values())) {
+                    statement.release();
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                // Already unusable, nothing more to do
+            }
+        }
+    }
+
+    /**
+     * Prepared statements of one connection, least recently used first
+     */
+    private final class StatementCache extends LinkedHashMap<String, CachedStatement> {
+        StatementCache() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+            if (size() <= settings.statementCacheSize()) {
+                return false;
+            }
+            eldest.getValue().evict();
+            statementEvictions.increment();
+            return true;
+        }
+    }
+
+    private static final class CachedStatement implements InvocationHandler {
+        final PreparedStatement physical;
+        boolean inUse;
+        boolean evicted;
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        PreparedStatement handOut() {
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        /**
+         * Readies the statement for its next user, or closes it if it was evicted while open
+         */
+        void release() {
+            if (!inUse) {
+                return;
+            }
+            inUse = false;
+            try {
+                if (evicted) {
+                    physical.close();
+                    return;
+                }
+                ResultSet results = physical.getResultSet();
+                if (results != null) {
+                    results.close();
+                }
+                physical.clearParameters();
+                physical.clearBatch();
+                physical.clearWarnings();
+            } catch (SQLException e) {
+                evict();
+            }
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                try {
+                    physical.close();
+                } catch (SQLException e) {
+                    // Already unusable, nothing more to do
+                }
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    release();
+                    return null;
+                }
+                case "isClosed" -> {
+                    return !inUse || physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    if (!inUse) {
+                        throw new SQLException("Statement has been closed");
+                    }
+                }
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private final class Loan implements InvocationHandler {
+        private final PooledConnection connection;
+        private boolean returned;
+
+        Loan(PooledConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        giveBack(connection);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || connection.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled " + connection.physical;
+                }
+                default -> {
+                    if (returned) {
+                        throw new SQLException("Connection has been returned to the pool");
+                    }
+                }
+            }
+            if (method.getName().equals("prepareStatement") && args.length <= 2 && settings.statementCacheSize() > 0) {
+                if (args.length == 1) {
+                    return connection.prepare((String) args[0], Statement.NO_GENERATED_KEYS);
+                } else if (method.getParameterTypes()[1] == int.class) {
+                    return connection.prepare((String) args[0], (Integer) args[1]);
+                }
+            }
+            try {
+                return method.invoke(connection.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package dataaccess.DAO;
 
+import dataaccess.AuthCache;
 import dataaccess.DataAccessException;
 import dataaccess.exceptions.*;
 import dataaccess.DatabaseManager;
@@ -21,30 +22,44 @@ public class AuthDAO extends SQLParent {
 
     private final String tableName = "Authentication";
 
+    // Shared by every instance, so a token deleted through one is gone for all of them
+    private static final AuthCache CACHE = new AuthCache(AuthDAO::selectUsername, AuthCache.Settings.DEFAULT);
+
     public AuthDAO() {
         createTable(createStatement);
     }
 
+    /**
+     * @return how often a token's user was found in memory rather than the database
+     */
+    public static AuthCache.Stats cacheStats() {
+        return CACHE.stats();
+    }
+
 
     public AuthData createAuth(String username) throws DataAccessException {
         AuthData newAuth = new AuthData(AuthData.createToken(), username);
         String updateStatement = "INSERT INTO Authentication (authToken, username) VALUES (?, ?)";
 
         updateQuery(updateStatement, newAuth.authToken(), username);
+        CACHE.put(newAuth.authToken(), username);
 
         return newAuth;
     }
 
     public AuthData getAuthByToken(String token) throws DataAccessException {
-        String sql = "SELECT * FROM " + tableName + " WHERE authToken = ?";
+        String username = CACHE.getUsername(token);
+        return username == null ? null : new AuthData(token, username);
+    }
+
+    private static String selectUsername(String token) throws DataAccessException {
+        String sql = "SELECT username FROM Authentication WHERE authToken = ?";
 
         try (Connection conn = DatabaseManager.getConnection()){
-            try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                ps.setString(1, token);
+            try (PreparedStatement ps = prepare(conn, sql, token)) {
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
-                        String username = rs.getString("username");
-                        return new AuthData(token, username);
+                        return rs.getString("username");
                     }
                 }
             }
@@ -67,13 +82,26 @@ public class AuthDAO extends SQLParent {
         catch (SQLException | DataAccessException e) {
             throw new DataAccessException(String.format("Unable to modify database: %s", e.getMessage()));
         }
+        finally {
+            CACHE.invalidate(authToken);
+        }
     }
 
     public void clear() throws BadRequestException {
-        clearTable(tableName);
+        try {
+            clearTable(tableName);
+        }
+        finally {
+            CACHE.invalidateAll();
+        }
     }
 
     public void drop() throws BadRequestException {
-        dropTable(tableName);
+        try {
+            dropTable(tableName);
+        }
+        finally {
+            CACHE.invalidateAll();
+        }
     }
 }
\ No newline at end of file
@@ -1,15 +1,23 @@
 package dataaccess.DAO;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import dataaccess.exceptions.*;
 import dataaccess.DataAccessException;
 import dataaccess.DatabaseManager;
+import dataaccess.LobbyVersion;
+import dataaccess.MoveLog;
 import dataaccess.SQLParent;
+import dataaccess.SummaryQuery;
 import model.GameData;
+import model.GameList;
+import model.GameQuery;
+import model.GameSummary;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Collection;
-import com.google.gson.Gson;
+import java.util.List;
+import serialization.Serializer;
 
 public class GameDAO extends SQLParent {
     private final String[] createStatement =
@@ -21,15 +29,38 @@ public class GameDAO extends SQLParent {
                         blackUsername VARCHAR(256),
                         gameName VARCHAR(256) NOT NULL,
                         chessGame JSON NOT NULL,
-                        PRIMARY KEY (gameID)
+                        status VARCHAR(16) NOT NULL DEFAULT 'NEW',
+                        moveCount INT NOT NULL DEFAULT 0,
+                        lastActivity TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+                        PRIMARY KEY (gameID),
+                        INDEX status_idx (status, gameID),
+                        INDEX activity_idx (lastActivity, gameID),
+                        INDEX name_idx (gameName, gameID),
+                        INDEX white_idx (whiteUsername),
+                        INDEX black_idx (blackUsername)
                     );
             """
             };
 
     private final String tableName = "Games";
+    private final String movesTableName = "GameMoves";
+    private final MoveLog moves;
 
     public GameDAO(){
         createTable(createStatement);
+        moves = new MoveLog(movesTableName, tableName);
+        try {
+            boolean added = addColumn(tableName, "status", "VARCHAR(16) NOT NULL DEFAULT 'NEW'");
+            added |= addColumn(tableName, "moveCount", "INT NOT NULL DEFAULT 0");
+            added |= addColumn(tableName, "lastActivity", "TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)");
+            if (added) {
+                moves.backfillSummaries();
+            }
+            SummaryQuery.addIndexes(tableName);
+        }
+        catch (DataAccessException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     public GameData createGame(String gameName) throws DataAccessException {
@@ -37,8 +68,7 @@ public class GameDAO extends SQLParent {
         ChessGame game = new ChessGame();
         int gameID = 0;
 
-        Gson gson = new Gson();
-        String gameJson = String.valueOf(gson.toJsonTree(game));
+        String gameJson = Serializer.toJson(game);
 
         String sql = "INSERT INTO " + tableName + "(whiteUsername, blackUsername, gameName, chessGame) VALUES (?,?,?,?)";
 
@@ -66,6 +96,7 @@ public class GameDAO extends SQLParent {
             throw new DataAccessException(String.format("Unable to create game: %s", gameName));
         }
 
+        LobbyVersion.bump();
         GameData newGameData = new GameData(
                 gameID,
                 null,
@@ -81,17 +112,10 @@ public class GameDAO extends SQLParent {
         String sql = "SELECT * FROM " + tableName + " WHERE gameID = ?";
 
         try (Connection conn = DatabaseManager.getConnection()){
-            try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                ps.setInt(1, gameID);
+            try (PreparedStatement ps = prepare(conn, sql, gameID)) {
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
-                        String whiteUsername = rs.getString("whiteUsername");
-                        String blackUsername = rs.getString("blackUsername");
-                        String gameName = rs.getString("gameName");
-                        String chessGame = rs.getString("chessGame");
-                        Gson gson = new Gson();
-                        ChessGame game = gson.fromJson(chessGame, ChessGame.class);
-                        return new GameData(gameID, whiteUsername, blackUsername, gameName, game);
+                        return readGame(conn, rs);
                     }
                 }
             }
@@ -102,19 +126,71 @@ public class GameDAO extends SQLParent {
         return null;
     }
 
+    //Builds the game in the current row, on the connection that read it
+    private GameData readGame(Connection conn, ResultSet rs) throws SQLException, DataAccessException {
+        int gameID = rs.getInt("gameID");
+        String whiteUsername = rs.getString("whiteUsername");
+        String blackUsername = rs.getString("blackUsername");
+        String gameName = rs.getString("gameName");
+        String chessGame = rs.getString("chessGame");
+        ChessGame game = moves.replay(conn, gameID, Serializer.fromJson(chessGame, ChessGame.class));
+        return new GameData(gameID, whiteUsername, blackUsername, gameName, game);
+    }
+
+    /**
+     * Lists every game from its summary columns, without reading or parsing the boards
+     */
+    public Collection<GameSummary> readAllSummaries() throws DataAccessException {
+        String sql = "SELECT " + SummaryQuery.COLUMNS + " FROM " + tableName;
+        ArrayList<GameSummary> games = new ArrayList<>();
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        games.add(SummaryQuery.readSummary(rs));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format("Unable to read all games: %s", e.getMessage()));
+        }
+
+        return games;
+    }
+
+    /**
+     * @return the game's summary, or null if there is no such game
+     */
+    public GameSummary readSummary(int gameID) throws DataAccessException {
+        String sql = "SELECT " + SummaryQuery.COLUMNS + " FROM " + tableName + " WHERE gameID = ?";
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement ps = prepare(conn, sql, gameID);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? SummaryQuery.readSummary(rs) : null;
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format("Unable to read game: %s", e.getMessage()));
+        }
+    }
+
+    public GameList readSummaries(GameQuery query) throws DataAccessException {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            return new SummaryQuery(tableName, query).read(conn);
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format("Unable to read games: %s", e.getMessage()));
+        }
+    }
+
     public Collection<GameData> readAllGames() throws DataAccessException {
-        String sql = "SELECT gameID FROM " + tableName;
+        String sql = "SELECT * FROM " + tableName;
         ArrayList<GameData> games = new ArrayList<>();
 
+        // One query, and the same connection for each game's moves, so this never waits on a second connection
         try (Connection conn = DatabaseManager.getConnection()) {
             try (PreparedStatement ps = conn.prepareStatement(sql)) {
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
-                        int gameID = rs.getInt("gameID");
-                        GameData gameData = getGame(gameID);
-                        if (gameData != null) {
-                            games.add(gameData);
-                        }
+                        games.add(readGame(conn, rs));
                     }
                 }
             }
@@ -127,29 +203,52 @@ public class GameDAO extends SQLParent {
 
     public void updateGame(GameData game) throws DataAccessException {
 
-        String sql = "UPDATE " + tableName + " SET whiteUsername = ?, blackUsername = ?, gameName = ?, chessGame = ? WHERE gameID = ?";
-        Gson gson = new Gson();
-
+        String sql = "UPDATE " + tableName + " SET whiteUsername = ?, blackUsername = ?, gameName = ?, chessGame = ?,"
+                + " status = ?, moveCount = ?, lastActivity = CURRENT_TIMESTAMP(3) WHERE gameID = ?";
         try (Connection conn = DatabaseManager.getConnection()){
             try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
                 ps.setString(1, game.whiteUsername());
                 ps.setString(2, game.blackUsername());
                 ps.setString(3, game.gameName());
-                ps.setString(4, gson.toJson(game));
-                ps.setInt(5, game.gameID());
+                ps.setString(4, Serializer.toJson(game.game()));
+                ps.setString(5, GameSummary.Status.of(game.game()).name());
+                ps.setInt(6, game.game().getPlyCount());
+                ps.setInt(7, game.gameID());
                 ps.executeUpdate();
             }
         }
         catch (SQLException | DataAccessException e) {
             throw new DataAccessException(String.format("Unable to modify database: %s", e.getMessage()));
         }
+        LobbyVersion.bump();
+    }
+
+    /**
+     * Saves a move without rewriting the stored game; see {@link MoveLog}
+     *
+     * @param game the game after the move
+     */
+    public void appendMove(int gameID, ChessMove move, ChessGame game) throws DataAccessException {
+        moves.append(gameID, move, game);
+    }
+
+    /**
+     * Saves moves made one after another in one batch; see {@link MoveLog}
+     *
+     * @param game the game after the last of the moves
+     */
+    public void appendMoves(int gameID, List<ChessMove> moves, ChessGame game) throws DataAccessException {
+        this.moves.append(gameID, moves, game);
     }
 
     public void clear() throws BadRequestException {
         clearTable(tableName);
+        clearTable(movesTableName);
+        LobbyVersion.bump();
     }
 
     public void drop() throws BadRequestException {
         dropTable(tableName);
+        dropTable(movesTableName);
     }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ public class DatabaseManager {
     private static final String USER;
     private static final String PASSWORD;
     private static final String CONNECTION_URL;
+    private static final ConnectionPool POOL;
 
     /*
      * Load the database information for the db.properties file.
@@ -27,20 +28,46 @@ public class DatabaseManager {
                 var host = props.getProperty("db.host");
                 var port = Integer.parseInt(props.getProperty("db.port"));
                 CONNECTION_URL = String.format("jdbc:mysql://%s:%d", host, port);
+                POOL = new ConnectionPool(DatabaseManager::openConnection, poolSettings(props));
             }
         } catch (Exception ex) {
             throw new RuntimeException("unable to process db.properties. " + ex.getMessage());
         }
     }
 
+    /**
+     * Reads the optional pool settings, falling back to
+     * {@link ConnectionPool.Settings#DEFAULT} for any left out:
+     * <pre>
+     * db.pool.maxSize             most connections open at once
+     * db.pool.borrowTimeoutMillis how long to wait for a free connection
+     * db.pool.validateAfterMillis idle time after which a connection is checked before reuse
+     * db.pool.maxLifetimeMillis   age at which a connection is closed instead of reused
+     * db.pool.leakThresholdMillis how long a connection can be held before it is reported
+     * db.pool.traceLeaks          whether leak reports include the stack that borrowed the connection
+     * db.pool.statementCacheSize  prepared statements kept per connection, 0 to turn caching off
+     * </pre>
+     */
+    private static ConnectionPool.Settings poolSettings(Properties props) {
+        var defaults = ConnectionPool.Settings.DEFAULT;
+        return new ConnectionPool.Settings(
+                Integer.parseInt(props.getProperty("db.pool.maxSize", String.valueOf(defaults.maxSize()))),
+                Long.parseLong(props.getProperty("db.pool.borrowTimeoutMillis", String.valueOf(defaults.borrowTimeoutMillis()))),
+                Long.parseLong(props.getProperty("db.pool.validateAfterMillis", String.valueOf(defaults.validateAfterMillis()))),
+                Long.parseLong(props.getProperty("db.pool.maxLifetimeMillis", String.valueOf(defaults.maxLifetimeMillis()))),
+                Long.parseLong(props.getProperty("db.pool.leakThresholdMillis", String.valueOf(defaults.leakThresholdMillis()))),
+                Boolean.parseBoolean(props.getProperty("db.pool.traceLeaks", String.valueOf(defaults.traceLeaks()))),
+                Integer.parseInt(props.getProperty("db.pool.statementCacheSize", String.valueOf(defaults.statementCacheSize()))));
+    }
+
     /**
      * Creates the database if it does not already exist.
      */
     static void createDatabase() throws DataAccessException {
         try {
             var statement = "CREATE DATABASE IF NOT EXISTS " + DATABASE_NAME;
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            try (var preparedStatement = conn.prepareStatement(statement)) {
+            try (var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
+                 var preparedStatement = conn.prepareStatement(statement)) {
                 preparedStatement.executeUpdate();
             }
         } catch (SQLException e) {
@@ -49,9 +76,10 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
+     * Borrow a connection to the database from the pool, with the catalog set
+     * based upon the properties specified in db.properties. Connections to the
+     * database should be short-lived, and you must close the connection when you
+     * are done with it so it goes back to the pool.
      * The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
@@ -61,12 +89,30 @@ public class DatabaseManager {
      * </code>
      */
     public static Connection getConnection() throws DataAccessException {
+        return POOL.borrow();
+    }
+
+    /**
+     * @return counts of borrows, waits, timeouts, connections opened and retired,
+     * and prepared statement cache hits and misses
+     */
+    public static ConnectionPool.Stats poolStats() {
+        return POOL.stats();
+    }
+
+    private static Connection openConnection() throws SQLException {
+        var info = new Properties();
+        info.setProperty("user", USER);
+        info.setProperty("password", PASSWORD);
+        // Prepare on the server, so the pool's cached statements skip the parse as well
+        info.setProperty("useServerPrepStmts", "true");
+        var conn = DriverManager.getConnection(CONNECTION_URL, info);
         try {
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
             conn.setCatalog(DATABASE_NAME);
-            return conn;
         } catch (SQLException e) {
-            throw new DataAccessException(e.getMessage());
+            conn.close();
+            throw e;
         }
+        return conn;
     }
 }
\ No newline at end of file
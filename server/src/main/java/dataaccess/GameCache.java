@@ -0,0 +1,496 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the games being played in memory, so a WebSocket command reads the
+ * game from here instead of loading and parsing it from the database each
+ * time. While a game is cached this copy is the authoritative one: moves are
+ * made on it through {@link #makeMove} and written to the database behind it,
+ * in batches, by a background flusher started with {@link #start}.
+ * <p>
+ * Callers only ever get copies of a cached game. Even reading a game, such as
+ * asking whether a side is in check, changes its move buffers and caches, so
+ * the cached one is only touched while holding it.
+ * <ul>
+ *   <li>Every {@code flushIntervalMillis} the flusher writes the moves waiting
+ *   for each game in one batch.</li>
+ *   <li>A game with {@code maxPendingMoves} moves waiting is written straight
+ *   away by the move that reached it, so the database is never further behind
+ *   than the flush interval or that many moves.</li>
+ *   <li>A move that ends the game is written straight away as well, and a game
+ *   that has ended is dropped once its moves are written.</li>
+ *   <li>Games not used for {@code idleMillis} are dropped once their moves are
+ *   written. Beyond {@code maxGames} the least recently used are dropped as
+ *   well.</li>
+ * </ul>
+ * Waiting moves are taken from the game while holding it but saved after
+ * letting it go, so moves can still be made while a batch is written. Batches
+ * of one game are written one at a time, in order.
+ * <p>
+ * Any other change to a game, such as a player taking or leaving a seat or
+ * resigning, goes through {@link #update}, which writes it through while moves
+ * and reads of the game wait, so none of them sees the database and the cache
+ * disagree. No database call is made while holding a game.
+ */
+public class GameCache implements AutoCloseable {
+    /**
+     * Reads a game from the database, or returns null if there is no such game
+     */
+    @FunctionalInterface
+    public interface Loader {
+        GameData load(int gameID) throws DataAccessException;
+    }
+
+    /**
+     * Saves a whole game, seats and board
+     */
+    @FunctionalInterface
+    public interface Saver {
+        void save(GameData game) throws DataAccessException;
+    }
+
+    /**
+     * Saves moves made one after another
+     */
+    @FunctionalInterface
+    public interface MoveWriter {
+        /**
+         * @param game the game after the last of the moves
+         */
+        void write(int gameID, List<ChessMove> moves, ChessGame game) throws DataAccessException;
+    }
+
+    public record Settings(long flushIntervalMillis, int maxPendingMoves, long idleMillis, int maxGames) {
+        public static final Settings DEFAULT = new Settings(500, 20, 10 * 60_000, 1_000);
+    }
+
+    /**
+     * @param hits         reads answered from memory
+     * @param misses       reads that loaded the game from the database
+     * @param flushes      batches of moves written
+     * @param movesWritten moves written in those batches
+     * @param failures     batches that could not be written and were kept to try again
+     * @param evictions    games dropped from memory
+     * @param cached       games in memory now
+     * @param dirty        games with moves waiting to be written now
+     */
+    public record Stats(long hits, long misses, long flushes, long movesWritten, long failures, long evictions,
+                        int cached, int dirty) {
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    private static final Logger LOG = Logger.getLogger(GameCache.class.getName());
+
+    private final Loader loader;
+    private final MoveWriter writer;
+    private final Saver saver;
+    private final Settings settings;
+    private final Map<Integer, Entry> games = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder movesWritten = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public GameCache(Loader loader, MoveWriter writer, Saver saver, Settings settings) {
+        this.loader = loader;
+        this.writer = writer;
+        this.saver = saver;
+        this.settings = settings;
+    }
+
+    /**
+     * Starts the background flusher. Until then moves are only written when a
+     * game reaches {@code maxPendingMoves}, ends, or is flushed by hand.
+     *
+     * @return this cache
+     */
+    public synchronized GameCache start() {
+        if (flusher != null) {
+            return this;
+        }
+        AtomicInteger threads = new AtomicInteger();
+        flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "game-cache-flusher-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(settings.flushIntervalMillis(), 1);
+        flusher.scheduleWithFixedDelay(this::flush, period, period, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * @return a copy of the game, loaded from the database if it is not in
+     * memory, or null if there is no such game
+     */
+    public GameData get(int gameID) throws DataAccessException {
+        Entry entry = entry(gameID);
+        if (entry == null) {
+            return null;
+        }
+        synchronized (entry) {
+            awaitChange(entry);
+            return copy(entry.data);
+        }
+    }
+
+    /**
+     * Makes a move on the cached game and queues it to be written
+     *
+     * @param color the side making the move; it is refused unless that side is to move
+     * @return a copy of the game after the move
+     * @throws InvalidMoveException if the move is not legal, leaving the game as it was
+     * @throws DataAccessException  if there is no such game or it could not be loaded
+     */
+    public GameData makeMove(int gameID, ChessMove move, ChessGame.TeamColor color)
+            throws InvalidMoveException, DataAccessException {
+        while (true) {
+            Entry entry = entry(gameID);
+            if (entry == null) {
+                throw new DataAccessException("Game " + gameID + " not found");
+            }
+            GameData after;
+            boolean writeNow;
+            synchronized (entry) {
+                awaitChange(entry);
+                if (entry.evicted) {
+                    continue;
+                }
+                ChessGame game = entry.data.game();
+                if (game.getTeamTurn() != color) {
+                    throw new InvalidMoveException("It is not " + color + "'s turn");
+                }
+                game.makeMove(move);
+                entry.pending.add(move);
+                entry.finished = game.isOver();
+                writeNow = entry.finished || entry.pending.size() >= settings.maxPendingMoves();
+                after = copy(entry.data);
+            }
+            if (writeNow) {
+                write(entry);
+            }
+            return after;
+        }
+    }
+
+    /**
+     * Changes a game other than by a move, e.g. to seat or unseat a player or to
+     * end it on a resignation, and saves it. The game's waiting moves are written
+     * first. Moves and reads of the game wait until the change is saved, so no
+     * other command sees it half changed or acts on the old version in between.
+     *
+     * @param change given a copy of the game as it stands, returns the game as it
+     *               should be; if it returns the copy it was given nothing is saved
+     * @return a copy of the game after the change, or null if there is no such
+     * game or the change left it as it was
+     * @throws DataAccessException if the game could not be saved; the cached
+     *                             game is left as it was
+     */
+    public GameData update(int gameID, UnaryOperator<GameData> change) throws DataAccessException {
+        while (true) {
+            Entry entry = entry(gameID);
+            if (entry == null) {
+                return null;
+            }
+            entry.writing.lock();
+            try {
+                synchronized (entry) {
+                    if (entry.evicted) {
+                        continue;
+                    }
+                    entry.changing = true;
+                }
+                try {
+                    if (!writeHeld(entry)) {
+                        throw new DataAccessException("Unable to save the moves of game " + gameID);
+                    }
+                    GameData current;
+                    synchronized (entry) {
+                        current = copy(entry.data);
+                    }
+                    GameData changed = change.apply(current);
+                    if (changed == current) {
+                        return null;
+                    }
+                    saver.save(changed);
+                    synchronized (entry) {
+                        entry.data = changed;
+                        entry.finished = changed.game().isOver();
+                    }
+                    return copy(changed);
+                } finally {
+                    synchronized (entry) {
+                        entry.changing = false;
+                        entry.notifyAll();
+                    }
+                }
+            } finally {
+                entry.writing.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes the game's waiting moves and drops it from memory, so the next read
+     * loads it again. Call this after changing the game in the database other
+     * than through {@link #makeMove} or {@link #update}.
+     *
+     * @throws DataAccessException if the waiting moves could not be written; the
+     *                             game stays cached so they are not lost
+     */
+    public void invalidate(int gameID) throws DataAccessException {
+        Entry entry = games.get(gameID);
+        if (entry == null) {
+            return;
+        }
+        entry.writing.lock();
+        try {
+            while (true) {
+                if (!writeHeld(entry)) {
+                    throw new DataAccessException("Unable to save the moves of game " + gameID);
+                }
+                synchronized (entry) {
+                    // A move made during the write is written by the next round
+                    if (entry.pending.isEmpty()) {
+                        evict(entry);
+                        return;
+                    }
+                }
+            }
+        } finally {
+            entry.writing.unlock();
+        }
+    }
+
+    /**
+     * Writes every game's waiting moves, then drops idle and finished games and
+     * any beyond {@code maxGames}. The background flusher calls this on its own.
+     * A game whose moves are being written by a move already is left for the
+     * next flush.
+     */
+    public void flush() {
+        long idleBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(settings.idleMillis());
+        for (Entry entry : games.values()) {
+            if (!entry.writing.tryLock()) {
+                continue;
+            }
+            try {
+                boolean saved = writeHeld(entry);
+                synchronized (entry) {
+                    boolean idle = entry.lastUsed - idleBefore <= 0;
+                    if (saved && entry.pending.isEmpty() && (idle || entry.finished)) {
+                        evict(entry);
+                    }
+                }
+            } finally {
+                entry.writing.unlock();
+            }
+        }
+
+        int excess = games.size() - settings.maxGames();
+        if (excess > 0) {
+            List<Entry> oldest = new ArrayList<>(games.values());
+            oldest.sort(Comparator.comparingLong(entry -> entry.lastUsed));
+            for (Entry entry : oldest) {
+                if (excess == 0) {
+                    break;
+                }
+                entry.writing.lock();
+                try {
+                    boolean saved = writeHeld(entry);
+                    synchronized (entry) {
+                        if (saved && !entry.evicted && entry.pending.isEmpty()) {
+                            evict(entry);
+                            excess--;
+                        }
+                    }
+                } finally {
+                    entry.writing.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every game without writing its waiting moves, for when the games
+     * themselves are being deleted
+     */
+    public void clear() {
+        for (Entry entry : games.values()) {
+            entry.writing.lock();
+            try {
+                synchronized (entry) {
+                    entry.pending.clear();
+                    evict(entry);
+                }
+            } finally {
+                entry.writing.unlock();
+            }
+        }
+    }
+
+    public Stats stats() {
+        int dirty = 0;
+        for (Entry entry : games.values()) {
+            synchronized (entry) {
+                if (!entry.pending.isEmpty() || entry.saving > 0) {
+                    dirty++;
+                }
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), flushes.sum(), movesWritten.sum(), failures.sum(),
+                evictions.sum(), games.size(), dirty);
+    }
+
+    /**
+     * Stops the background flusher and writes whatever moves are still waiting
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (flusher != null) {
+                flusher.shutdown();
+                try {
+                    flusher.awaitTermination(settings.flushIntervalMillis() + 5_000, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        for (Entry entry : games.values()) {
+            write(entry);
+        }
+    }
+
+    private Entry entry(int gameID) throws DataAccessException {
+        Entry entry = games.get(gameID);
+        if (entry != null) {
+            hits.increment();
+            entry.lastUsed = System.nanoTime();
+            return entry;
+        }
+        misses.increment();
+        GameData data = loader.load(gameID);
+        if (data == null) {
+            return null;
+        }
+        Entry loaded = new Entry(gameID, data);
+        loaded.finished = data.game().isOver();
+        Entry existing = games.putIfAbsent(gameID, loaded);
+        return existing == null ? loaded : existing;
+    }
+
+    private static GameData copy(GameData data) {
+        return new GameData(data.gameID(), data.whiteUsername(), data.blackUsername(), data.gameName(),
+                data.game().copy());
+    }
+
+    // Callers hold the entry; waits out a change being saved by update
+    private static void awaitChange(Entry entry) throws DataAccessException {
+        while (entry.changing) {
+            try {
+                entry.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataAccessException("Interrupted waiting for game " + entry.gameID);
+            }
+        }
+    }
+
+    // Callers hold neither of the entry's locks
+    private boolean write(Entry entry) {
+        entry.writing.lock();
+        try {
+            return writeHeld(entry);
+        } finally {
+            entry.writing.unlock();
+        }
+    }
+
+    // Callers hold entry.writing; the game itself is only held while its moves are taken and, on failure, put back
+    private boolean writeHeld(Entry entry) {
+        List<ChessMove> batch;
+        ChessGame game;
+        synchronized (entry) {
+            if (entry.pending.isEmpty()) {
+                return true;
+            }
+            batch = List.copyOf(entry.pending);
+            entry.pending.clear();
+            entry.saving = batch.size();
+            game = entry.data.game().copy();
+        }
+        try {
+            writer.write(entry.gameID, batch, game);
+        } catch (DataAccessException | RuntimeException e) {
+            failures.increment();
+            LOG.log(Level.WARNING, String.format("Unable to save %d moves of game %d, will try again",
+                    batch.size(), entry.gameID), e);
+            synchronized (entry) {
+                entry.pending.addAll(0, batch);
+                entry.saving = 0;
+            }
+            return false;
+        }
+        synchronized (entry) {
+            entry.saving = 0;
+        }
+        flushes.increment();
+        movesWritten.add(batch.size());
+        return true;
+    }
+
+    private void evict(Entry entry) {
+        entry.evicted = true;
+        if (games.remove(entry.gameID, entry)) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * A cached game. Its state is guarded by the entry itself; {@code writing} is
+     * taken before it by whoever writes the game's moves, so batches go out in order.
+     * While {@code changing} is set, update is saving a change and others wait on
+     * the entry.
+     */
+    private static final class Entry {
+        final int gameID;
+        final ReentrantLock writing = new ReentrantLock();
+        GameData data;
+        final List<ChessMove> pending = new ArrayList<>();
+        // Moves taken from pending by a write that has not finished
+        int saving;
+        volatile long lastUsed = System.nanoTime();
+        boolean evicted;
+        boolean finished;
+        boolean changing;
+
+        Entry(int gameID, GameData data) {
+            this.gameID = gameID;
+            this.data = data;
+        }
+    }
+}
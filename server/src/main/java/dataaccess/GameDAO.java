@@ -2,7 +2,11 @@ package dataaccess;
 
 import chess.*;
 import model.GameData;
+import model.GameList;
+import model.GameQuery;
+import model.GameSummary;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public interface GameDAO {
@@ -14,10 +18,72 @@ public interface GameDAO {
 
     List<GameData> listGames() throws DataAccessException;
 
+    /**
+     * Lists every game without its board. Stores that keep summary columns read
+     * only those; the rest work the summaries out from {@link #listGames()}.
+     */
+    default List<GameSummary> listSummaries() throws DataAccessException {
+        List<GameSummary> summaries = new ArrayList<>();
+        for (GameData game : listGames()) {
+            summaries.add(new GameSummary(game.gameID(), game.gameName(), game.whiteUsername(), game.blackUsername(),
+                    GameSummary.Status.of(game.game()), game.game().getPlyCount(), 0));
+        }
+        return summaries;
+    }
+
+    /**
+     * @return one page of the game list, picked out of every summary unless the
+     * store can query for the page itself
+     */
+    default GameList listSummaries(GameQuery query) throws DataAccessException {
+        return query.apply(listSummaries());
+    }
+
+    /**
+     * @return the game's summary, or null if there is no such game
+     */
+    default GameSummary getSummary(Integer gameID) throws DataAccessException {
+        GameData game = getGame(gameID);
+        if (game == null) {
+            return null;
+        }
+        return new GameSummary(game.gameID(), game.gameName(), game.whiteUsername(), game.blackUsername(),
+                GameSummary.Status.of(game.game()), game.game().getPlyCount(), 0);
+    }
+
     void updateGame(ChessGame.TeamColor playerColor, Integer gameID, String username) throws DataAccessException;
 
     void updateChessGame(ChessGame game, Integer gameID) throws DataAccessException;
 
+    /**
+     * Saves a whole game, both seats and the board. Stores that can write it in
+     * one statement do; the rest fall back to saving each part.
+     */
+    default void updateGame(GameData game) throws DataAccessException {
+        updateGame(ChessGame.TeamColor.WHITE, game.gameID(), game.whiteUsername());
+        updateGame(ChessGame.TeamColor.BLACK, game.gameID(), game.blackUsername());
+        updateChessGame(game.game(), game.gameID());
+    }
+
+    /**
+     * Saves a move that has just been made. Stores that keep a log of moves only
+     * write the move; the rest fall back to saving the whole game.
+     *
+     * @param game the game after the move
+     */
+    default void appendMove(Integer gameID, ChessMove move, ChessGame game) throws DataAccessException {
+        appendMoves(gameID, List.of(move), game);
+    }
+
+    /**
+     * Saves moves made one after another, as {@link #appendMove} does for one
+     *
+     * @param game the game after the last of the moves
+     */
+    default void appendMoves(Integer gameID, List<ChessMove> moves, ChessGame game) throws DataAccessException {
+        updateChessGame(game, gameID);
+    }
+
     Integer getSize() throws DataAccessException;
 
     public Boolean verifyGame(Integer gameID) throws DataAccessException;
@@ -0,0 +1,80 @@
+package dataaccess;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A number that goes up whenever the game list changes in a way the lobby
+ * cares about: a game is created, a seat is taken or given up, a game starts
+ * or ends, or the games are cleared. The game DAOs bump it after each such
+ * write, and the game list is tagged with it so a client holding the current
+ * version can be told nothing changed without being sent the list again.
+ * <p>
+ * Moves that leave a game in progress do not bump it, so a revalidated list
+ * may show an older move count and activity time; the tag is weak for that
+ * reason. A list ordered by activity is different, since every move can
+ * reorder it and move its page boundaries, so moves bump a second number that
+ * only {@link #etag(boolean)} for such a list includes. Both count up from the
+ * time the server started, so a tag handed out before a restart never matches
+ * afterwards.
+ */
+public final class LobbyVersion {
+    private static final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private static final AtomicLong activity = new AtomicLong(System.currentTimeMillis());
+
+    private LobbyVersion() {
+    }
+
+    public static long current() {
+        return version.get();
+    }
+
+    public static void bump() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Records that moves were saved, which changes only lists ordered by activity
+     */
+    public static void bumpActivity() {
+        activity.incrementAndGet();
+    }
+
+    /**
+     * @return the current version as an HTTP entity tag. Read it before the
+     * list, so a change made while the list is read leaves the tag stale
+     * rather than the list.
+     */
+    public static String etag() {
+        return "W/\"" + current() + "\"";
+    }
+
+    /**
+     * @param byActivity whether the list is ordered by activity, so that any move
+     *                   saved since also changes the tag
+     */
+    public static String etag(boolean byActivity) {
+        return byActivity ? "W/\"" + current() + "." + activity.get() + "\"" : etag();
+    }
+
+    /**
+     * @param ifNoneMatch an {@code If-None-Match} header, which may list several tags or be {@code *}
+     * @return whether it names the given tag, comparing weakly as a conditional GET does
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String wanted = opaque(etag);
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*") || opaque(trimmed).equals(wanted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
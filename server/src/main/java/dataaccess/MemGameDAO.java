@@ -15,12 +15,14 @@ public class MemGameDAO implements GameDAO {
     @Override
     public void clear() throws DataAccessException {
         games.clear();
+        LobbyVersion.bump();
     }
 
     @Override
     public Integer createGame(String gameName) throws DataAccessException {
         newID++;
         games.put(newID, new GameData(newID, null, null, gameName, new ChessGame()));
+        LobbyVersion.bump();
         return newID;
     }
 
@@ -56,6 +58,7 @@ public class MemGameDAO implements GameDAO {
             games.remove(gameID);
             games.put(gameID, new GameData(gameID, username, blackUsername, gameName, game));
         }
+        LobbyVersion.bump();
     }
 
     @Override
@@ -0,0 +1,179 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import model.GameSummary;
+import serialization.Serializer;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The moves of each game, one row per move in the order they were made. The
+ * game table only holds a snapshot of the game, rewritten every
+ * {@link #SNAPSHOT_INTERVAL} moves, and the current state is that snapshot with
+ * the later moves played on top of it. A move then costs a short insert and an
+ * update of the game's summary columns rather than rewriting the whole game,
+ * and the table doubles as the game's history.
+ * <p>
+ * Moves are keyed by the ply count of the game after them, so a second move
+ * made from the same position is rejected rather than silently forking the game.
+ */
+public class MoveLog extends SQLParent {
+    public static final int SNAPSHOT_INTERVAL = 20;
+
+    private final String tableName;
+    private final String gameTableName;
+    private final String summaryStatement;
+    private final String snapshotStatement;
+
+    /**
+     * @param tableName     the move table, created if it does not exist
+     * @param gameTableName the table whose {@code chessGame} column holds the snapshots,
+     *                      and whose summary columns are kept up to date with each move
+     */
+    public MoveLog(String tableName, String gameTableName) {
+        this.tableName = tableName;
+        this.gameTableName = gameTableName;
+        String summary = "status = ?, moveCount = ?, lastActivity = CURRENT_TIMESTAMP(3) WHERE gameID = ?";
+        this.summaryStatement = "UPDATE " + gameTableName + " SET " + summary;
+        this.snapshotStatement = "UPDATE " + gameTableName + " SET chessGame = ?, " + summary;
+        createTable(new String[]{"""
+                CREATE TABLE IF NOT EXISTS %s
+                (
+                    gameID INT NOT NULL,
+                    ply INT NOT NULL,
+                    move VARCHAR(5) NOT NULL,
+                    PRIMARY KEY (gameID, ply)
+                );
+                """.formatted(tableName)
+        });
+    }
+
+    /**
+     * Records a move that has been made, along with a snapshot of the game if
+     * one is due
+     *
+     * @param game the game after the move
+     * @throws DataAccessException if the move could not be saved, including when
+     *                             another move was already saved from the same position
+     */
+    public void append(int gameID, ChessMove move, ChessGame game) throws DataAccessException {
+        append(gameID, List.of(move), game);
+    }
+
+    /**
+     * Records moves made one after another, in a single batch, and updates the
+     * game's summary, along with its snapshot if the moves pass a snapshot
+     * point. Either all of them are saved or none are.
+     *
+     * @param game the game after the last of the moves
+     * @throws DataAccessException if the moves could not be saved, including when
+     *                             another move was already saved from the same position
+     */
+    public void append(int gameID, List<ChessMove> moves, ChessGame game) throws DataAccessException {
+        if (moves.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO " + tableName + " (gameID, ply, move) VALUES (?, ?, ?)";
+        int ply = game.getPlyCount() - moves.size();
+        boolean snapshot = ply / SNAPSHOT_INTERVAL != game.getPlyCount() / SNAPSHOT_INTERVAL;
+        GameSummary.Status status = GameSummary.Status.of(game);
+        boolean started = ply == 0;
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (ChessMove move : moves) {
+                    bind(ps, gameID, ++ply, move.toUci());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = snapshot
+                    ? prepare(conn, snapshotStatement, Serializer.toJson(game), status.name(), game.getPlyCount(), gameID)
+                    : prepare(conn, summaryStatement, status.name(), game.getPlyCount(), gameID)) {
+                ps.executeUpdate();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format("Unable to save move: %s", e.getMessage()));
+        }
+        LobbyVersion.bumpActivity();
+        if (started || status == GameSummary.Status.FINISHED) {
+            LobbyVersion.bump();
+        }
+    }
+
+    /**
+     * Works out every game's summary columns from its snapshot and moves. Run
+     * once, when the columns are added to a table whose games were saved
+     * before they existed and so would all list as new with no moves. No
+     * earlier time is recorded for the games, so their last activity becomes now.
+     */
+    public void backfillSummaries() throws DataAccessException {
+        String sql = "SELECT gameID, chessGame FROM " + gameTableName;
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(sql);
+                 ResultSet rs = ps.executeQuery();
+                 PreparedStatement update = conn.prepareStatement(summaryStatement)) {
+                while (rs.next()) {
+                    int gameID = rs.getInt("gameID");
+                    ChessGame game = replay(conn, gameID, Serializer.fromJson(rs.getString("chessGame"), ChessGame.class));
+                    bind(update, GameSummary.Status.of(game).name(), game.getPlyCount(), gameID);
+                    update.addBatch();
+                }
+                update.executeBatch();
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format("Unable to fill in game summaries: %s", e.getMessage()));
+        }
+        LobbyVersion.bump();
+    }
+
+    /**
+     * Brings a snapshot up to date by playing the moves made since it was taken
+     *
+     * @param snapshot the game as read from the game table, which is updated in place
+     * @return the game as it now stands
+     */
+    public ChessGame replay(Connection conn, int gameID, ChessGame snapshot) throws SQLException, DataAccessException {
+        String sql = "SELECT ply, move FROM " + tableName + " WHERE gameID = ? AND ply > ? ORDER BY ply";
+        try (PreparedStatement ps = prepare(conn, sql, gameID, snapshot.getPlyCount());
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                int ply = rs.getInt("ply");
+                if (ply != snapshot.getPlyCount() + 1) {
+                    throw new DataAccessException(String.format("Move %d of game %d is missing", snapshot.getPlyCount() + 1, gameID));
+                }
+                try {
+                    snapshot.makeMove(ChessMove.fromUci(rs.getString("move")));
+                } catch (InvalidMoveException | IllegalArgumentException e) {
+                    throw new DataAccessException(String.format("Unable to replay move %d of game %d: %s", ply, gameID, e.getMessage()));
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return every move recorded for the game, first to last
+     */
+    public List<ChessMove> history(int gameID) throws DataAccessException {
+        String sql = "SELECT move FROM " + tableName + " WHERE gameID = ? ORDER BY ply";
+        List<ChessMove> moves = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement ps = prepare(conn, sql, gameID);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                moves.add(ChessMove.fromUci(rs.getString("move")));
+            }
+        } catch (SQLException | IllegalArgumentException e) {
+            throw new DataAccessException(String.format("Unable to read moves: %s", e.getMessage()));
+        }
+        return moves;
+    }
+}
@@ -50,27 +50,87 @@ public class SQLParent {
         }
     }
 
+    /**
+     * Adds a column to an existing table unless it is already there, for tables
+     * created before the column was added to their {@code CREATE TABLE}
+     *
+     * @param definition the column's type and constraints, e.g. {@code INT NOT NULL DEFAULT 0}
+     * @return whether the column was added, so existing rows may need filling in
+     */
+    protected static boolean addColumn(String table, String column, String definition) throws DataAccessException {
+        String sql = "SELECT 1 FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?";
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (PreparedStatement ps = prepare(conn, sql, table, column);
+                 ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return false;
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition)) {
+                ps.executeUpdate();
+            }
+            return true;
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format("Unable to add column %s to %s: %s", column, table, e.getMessage()));
+        }
+    }
 
-    public int updateQuery(String statement, Object... params) throws DataAccessException {
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement ps = conn.prepareStatement(statement, Statement.RETURN_GENERATED_KEYS)) {
+    /**
+     * Adds an index to an existing table unless one of that name is already there
+     *
+     * @param columns the indexed columns, e.g. {@code status, gameID}
+     */
+    protected static void addIndex(String table, String index, String columns) throws DataAccessException {
+        String sql = "SELECT 1 FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?";
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (PreparedStatement ps = prepare(conn, sql, table, index);
+                 ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return;
+                }
+            }
+            try (PreparedStatement ps = conn.prepareStatement("CREATE INDEX " + index + " ON " + table + " (" + columns + ")")) {
+                ps.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format("Unable to add index %s to %s: %s", index, table, e.getMessage()));
+        }
+    }
 
-            for (int i = 0; i < params.length; i++) {
-                Object param = params[i];
-                if (param == null) {
-                    ps.setNull(i + 1, Types.NULL);
-                } else {
-                    switch (param) {
-                        case String p -> ps.setString(i + 1, p);
-                        case Integer p -> ps.setInt(i + 1, p);
-                        case Double p -> ps.setDouble(i + 1, p);
-                        case Long p -> ps.setLong(i + 1, p);
-                        case Boolean p -> ps.setBoolean(i + 1, p);
-                        default -> ps.setObject(i + 1, param);
-                    }
+    /**
+     * Prepares a statement with its parameters bound. Pooled connections keep
+     * their prepared statements (see {@link ConnectionPool}), so repeating the
+     * same SQL text reuses the statement rather than preparing it again; close
+     * it as usual when done.
+     */
+    protected static PreparedStatement prepare(Connection conn, String statement, Object... params) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(statement);
+        bind(ps, params);
+        return ps;
+    }
+
+    protected static void bind(PreparedStatement ps, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            Object param = params[i];
+            if (param == null) {
+                ps.setNull(i + 1, Types.NULL);
+            } else {
+                switch (param) {
+                    case String p -> ps.setString(i + 1, p);
+                    case Integer p -> ps.setInt(i + 1, p);
+                    case Double p -> ps.setDouble(i + 1, p);
+                    case Long p -> ps.setLong(i + 1, p);
+                    case Boolean p -> ps.setBoolean(i + 1, p);
+                    default -> ps.setObject(i + 1, param);
                 }
             }
+        }
+    }
 
+    public int updateQuery(String statement, Object... params) throws DataAccessException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(statement, Statement.RETURN_GENERATED_KEYS)) {
+            bind(ps, params);
             ps.executeUpdate();
 
             try (ResultSet rs = ps.getGeneratedKeys()) {
@@ -7,6 +7,16 @@ import java.sql.SQLException;
 import java.util.UUID;
 
 public class SqlAuthDAO implements AuthDAO {
+    // Shared by every instance, so a token deleted through one is gone for all of them
+    private static final AuthCache CACHE = new AuthCache(SqlAuthDAO::selectUsername, AuthCache.Settings.DEFAULT);
+
+    /**
+     * @return how often a token's user was found in memory rather than the database
+     */
+    public static AuthCache.Stats cacheStats() {
+        return CACHE.stats();
+    }
+
     @Override
     public void clear() throws DataAccessException {
         String sql = "DELETE FROM auth";
@@ -15,15 +25,20 @@ public class SqlAuthDAO implements AuthDAO {
             preparedStatement.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException("Error clearing auth table: " + e.getMessage());
+        } finally {
+            CACHE.invalidateAll();
         }
     }
 
     @Override
     public String getUsername(String authToken) throws DataAccessException {
+        return CACHE.getUsername(authToken);
+    }
+
+    private static String selectUsername(String authToken) throws DataAccessException {
         String sql = "SELECT username FROM auth WHERE authToken = ?";
         try (Connection connection = DatabaseManager.getConnection();
-            PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
-            preparedStatement.setString(1, authToken);
+            PreparedStatement preparedStatement = SQLParent.prepare(connection, sql, authToken)) {
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 if (resultSet.next()) {
                     return resultSet.getString("username");
@@ -45,6 +60,7 @@ public class SqlAuthDAO implements AuthDAO {
             preparedStatement.setString(2, authToken);
 
             preparedStatement.executeUpdate();
+            CACHE.put(authToken, username);
             return authToken;
         } catch (SQLException e) {
             throw new DataAccessException("Error creating auth token: " + e.getMessage());
@@ -61,6 +77,8 @@ public class SqlAuthDAO implements AuthDAO {
             preparedStatement.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException("Error deleting auth token: " + e.getMessage());
+        } finally {
+            CACHE.invalidate(authToken);
         }
     }
 
@@ -81,18 +99,6 @@ public class SqlAuthDAO implements AuthDAO {
 
     @Override
     public Boolean verifyAuthToken(String authToken) throws DataAccessException {
-        String sql = "SELECT 1 FROM auth WHERE authToken = ? LIMIT 1";
-        try (Connection connection = DatabaseManager.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
-            preparedStatement.setString(1, authToken);
-            try (ResultSet resultSet = preparedStatement.executeQuery()) {
-                if (resultSet.next()) {
-                    return true;
-                }
-            }
-        } catch (SQLException e) {
-            throw new DataAccessException("Error verifying auth token: " + e.getMessage());
-        }
-        return false;
+        return authToken != null && CACHE.getUsername(authToken) != null;
     }
 }
@@ -1,8 +1,12 @@
 package dataaccess;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
+import chess.ChessMove;
 import model.GameData;
+import model.GameList;
+import model.GameQuery;
+import model.GameSummary;
+import serialization.Serializer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -10,8 +14,20 @@ import java.sql.*;
 
 public class SqlGameDAO implements GameDAO {
     static int id;
+    private final MoveLog moves = new MoveLog("game_moves", "game");
 
     public SqlGameDAO() {
+        try {
+            boolean added = SQLParent.addColumn("game", "status", "VARCHAR(16) NOT NULL DEFAULT 'NEW'");
+            added |= SQLParent.addColumn("game", "moveCount", "INT NOT NULL DEFAULT 0");
+            added |= SQLParent.addColumn("game", "lastActivity", "TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)");
+            if (added) {
+                moves.backfillSummaries();
+            }
+            SummaryQuery.addIndexes("game");
+        } catch (DataAccessException e) {
+            throw new RuntimeException(e);
+        }
         try {
             id = getSize();
         } catch (Exception e) {
@@ -23,12 +39,15 @@ public class SqlGameDAO implements GameDAO {
     public void clear() throws DataAccessException {
         String sql = "DELETE FROM game";
         try (Connection connection = DatabaseManager.getConnection();
-            PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            PreparedStatement preparedStatement = connection.prepareStatement(sql);
+            PreparedStatement movesStatement = connection.prepareStatement("DELETE FROM game_moves")) {
             preparedStatement.executeUpdate();
+            movesStatement.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException("Error clearing game: " + e.getMessage());
         }
         id = 0;
+        LobbyVersion.bump();
     }
 
     @Override
@@ -42,12 +61,13 @@ public class SqlGameDAO implements GameDAO {
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
             preparedStatement.setInt(1, id);
             preparedStatement.setString(2, gameName);
-            String chessGameJson = new Gson().toJson(new ChessGame());
+            String chessGameJson = Serializer.toJson(new ChessGame());
             preparedStatement.setString(3, chessGameJson);
             preparedStatement.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException("Error creating game: " + e.getMessage());
         }
+        LobbyVersion.bump();
         return id;
     }
 
@@ -55,15 +75,15 @@ public class SqlGameDAO implements GameDAO {
     public GameData getGame(Integer gameID) throws DataAccessException {
         String sql = "SELECT gameId, gameName, whiteUsername, blackUsername, chessGame FROM game WHERE gameId = ?";
         try (Connection connection = DatabaseManager.getConnection();
-            PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
-            preparedStatement.setInt(1, gameID);
+            PreparedStatement preparedStatement = SQLParent.prepare(connection, sql, gameID)) {
             try (ResultSet resultSet = preparedStatement.executeQuery()) {
                 if (resultSet.next()) {
                     int gameIdResult = resultSet.getInt("gameId");
                     String gameName = resultSet.getString("gameName");
                     String whiteUsername = resultSet.getString("whiteUsername");
                     String blackUsername = resultSet.getString("blackUsername");
-                    ChessGame chessGame = new Gson().fromJson(resultSet.getString("chessGame"), ChessGame.class);
+                    ChessGame chessGame = Serializer.fromJson(resultSet.getString("chessGame"), ChessGame.class);
+                    moves.replay(connection, gameIdResult, chessGame);
                     return new GameData(gameIdResult, whiteUsername, blackUsername, gameName, chessGame);
                 }
             }
@@ -85,7 +105,8 @@ public class SqlGameDAO implements GameDAO {
                 String gameName = resultSet.getString("gameName");
                 String whiteUsername = resultSet.getString("whiteUsername");
                 String blackUsername = resultSet.getString("blackUsername");
-                ChessGame chessGame = new Gson().fromJson(resultSet.getString("chessGame"), ChessGame.class);
+                ChessGame chessGame = Serializer.fromJson(resultSet.getString("chessGame"), ChessGame.class);
+                moves.replay(connection, gameIdResult, chessGame);
                 games.add(new GameData(gameIdResult, whiteUsername, blackUsername, gameName, chessGame));
             }
         } catch (SQLException e) {
@@ -94,14 +115,54 @@ public class SqlGameDAO implements GameDAO {
         return games;
     }
 
+    /**
+     * Reads only the summary columns, so the lobby never loads a board
+     */
+    @Override
+    public List<GameSummary> listSummaries() throws DataAccessException {
+        List<GameSummary> games = new ArrayList<>();
+        String sql = "SELECT " + SummaryQuery.COLUMNS + " FROM game";
+        try (Connection connection = DatabaseManager.getConnection();
+            PreparedStatement preparedStatement = connection.prepareStatement(sql);
+            ResultSet resultSet = preparedStatement.executeQuery()) {
+            while (resultSet.next()) {
+                games.add(SummaryQuery.readSummary(resultSet));
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error listing games: " + e.getMessage());
+        }
+        return games;
+    }
+
+    @Override
+    public GameList listSummaries(GameQuery query) throws DataAccessException {
+        try (Connection connection = DatabaseManager.getConnection()) {
+            return new SummaryQuery("game", query).read(connection);
+        } catch (SQLException e) {
+            throw new DataAccessException("Error listing games: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public GameSummary getSummary(Integer gameID) throws DataAccessException {
+        String sql = "SELECT " + SummaryQuery.COLUMNS + " FROM game WHERE gameId = ?";
+        try (Connection connection = DatabaseManager.getConnection();
+            PreparedStatement preparedStatement = SQLParent.prepare(connection, sql, gameID);
+            ResultSet resultSet = preparedStatement.executeQuery()) {
+            return resultSet.next() ? SummaryQuery.readSummary(resultSet) : null;
+        } catch (SQLException e) {
+            throw new DataAccessException("Error reading game: " + e.getMessage());
+        }
+    }
+
     @Override
     public void updateGame(ChessGame.TeamColor playerColor, Integer gameID, String username)
             throws DataAccessException {
         String sql;
         if (playerColor == ChessGame.TeamColor.BLACK) {
-            sql = "UPDATE game SET blackUsername = ? WHERE gameId = ?";
+            sql = "UPDATE game SET blackUsername = ?, lastActivity = CURRENT_TIMESTAMP(3) WHERE gameId = ?";
         } else {
-            sql = "UPDATE game SET whiteUsername = ? WHERE gameId = ?";
+            sql = "UPDATE game SET whiteUsername = ?, lastActivity = CURRENT_TIMESTAMP(3) WHERE gameId = ?";
         }
         try (Connection connection = DatabaseManager.getConnection();
             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
@@ -111,20 +172,53 @@ public class SqlGameDAO implements GameDAO {
         } catch (SQLException e) {
             throw new DataAccessException("Error updating game: " + e.getMessage());
         }
+        LobbyVersion.bump();
     }
 
     @Override
     public void updateChessGame(ChessGame game, Integer gameID) throws DataAccessException {
-        String sql = "UPDATE game SET chessGame = ? WHERE gameId = ?";
+        String sql = "UPDATE game SET chessGame = ?, status = ?, moveCount = ?, lastActivity = CURRENT_TIMESTAMP(3)"
+                + " WHERE gameId = ?";
         try (Connection connection = DatabaseManager.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
-            String chessGameJson = new Gson().toJson(game);
+            String chessGameJson = Serializer.toJson(game);
             preparedStatement.setString(1, chessGameJson);
-            preparedStatement.setInt(2, gameID);
+            preparedStatement.setString(2, GameSummary.Status.of(game).name());
+            preparedStatement.setInt(3, game.getPlyCount());
+            preparedStatement.setInt(4, gameID);
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error updating game: " + e.getMessage());
+        }
+        LobbyVersion.bump();
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        String sql = "UPDATE game SET whiteUsername = ?, blackUsername = ?, chessGame = ?, status = ?, moveCount = ?,"
+                + " lastActivity = CURRENT_TIMESTAMP(3) WHERE gameId = ?";
+        try (Connection connection = DatabaseManager.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setString(1, game.whiteUsername());
+            preparedStatement.setString(2, game.blackUsername());
+            preparedStatement.setString(3, Serializer.toJson(game.game()));
+            preparedStatement.setString(4, GameSummary.Status.of(game.game()).name());
+            preparedStatement.setInt(5, game.game().getPlyCount());
+            preparedStatement.setInt(6, game.gameID());
             preparedStatement.executeUpdate();
         } catch (SQLException e) {
             throw new DataAccessException("Error updating game: " + e.getMessage());
         }
+        LobbyVersion.bump();
+    }
+
+    /**
+     * Saves only the moves, leaving the stored game as a snapshot that
+     * {@link #getGame} brings up to date
+     */
+    @Override
+    public void appendMoves(Integer gameID, List<ChessMove> moves, ChessGame game) throws DataAccessException {
+        this.moves.append(gameID, moves, game);
     }
 
     @Override
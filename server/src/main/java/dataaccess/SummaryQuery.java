@@ -0,0 +1,112 @@
+package dataaccess;
+
+import model.GameList;
+import model.GameQuery;
+import model.GameSummary;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SQL for one page of a game table's summaries. The cursor becomes a
+ * condition on the sort columns rather than an OFFSET, so with the indexes
+ * from {@link #addIndexes} a page is read as a short range of an index
+ * however deep into the list it is.
+ */
+public class SummaryQuery extends SQLParent {
+    public static final String COLUMNS = "gameID, gameName, whiteUsername, blackUsername, status, moveCount, lastActivity";
+
+    private final GameQuery query;
+    private final String sql;
+    private final List<Object> params = new ArrayList<>();
+
+    public SummaryQuery(String table, GameQuery query) {
+        this.query = query;
+        List<String> where = new ArrayList<>();
+        switch (query.filter()) {
+            case OPEN -> where.add("(whiteUsername IS NULL OR blackUsername IS NULL) AND status <> 'FINISHED'");
+            case IN_PROGRESS -> where.add("status = 'IN_PROGRESS'");
+            case FINISHED -> where.add("status = 'FINISHED'");
+            case ALL -> {
+            }
+        }
+        if (query.player() != null) {
+            where.add("(whiteUsername = ? OR blackUsername = ?)");
+            params.add(query.player());
+            params.add(query.player());
+        }
+
+        GameQuery.Cursor cursor = query.cursor();
+        if (cursor != null) {
+            switch (query.sort()) {
+                case OLDEST -> where.add("gameID > ?");
+                case NEWEST -> where.add("gameID < ?");
+                case RECENT -> {
+                    where.add("(lastActivity < ? OR (lastActivity = ? AND gameID < ?))");
+                    params.add(new Timestamp(cursor.lastActivity()));
+                    params.add(new Timestamp(cursor.lastActivity()));
+                }
+                case NAME -> {
+                    where.add("(gameName > ? OR (gameName = ? AND gameID > ?))");
+                    params.add(cursor.gameName());
+                    params.add(cursor.gameName());
+                }
+            }
+            params.add(cursor.gameID());
+        }
+
+        String order = switch (query.sort()) {
+            case OLDEST -> "gameID";
+            case NEWEST -> "gameID DESC";
+            case RECENT -> "lastActivity DESC, gameID DESC";
+            case NAME -> "gameName, gameID";
+        };
+        this.sql = "SELECT " + COLUMNS + " FROM " + table
+                + (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where))
+                + " ORDER BY " + order + " LIMIT " + (query.limit() + 1);
+    }
+
+    public String sql() {
+        return sql;
+    }
+
+    public List<Object> params() {
+        return params;
+    }
+
+    public GameList read(Connection conn) throws SQLException {
+        List<GameSummary> games = new ArrayList<>();
+        try (PreparedStatement ps = prepare(conn, sql, params.toArray());
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                games.add(readSummary(rs));
+            }
+        }
+        return query.page(games);
+    }
+
+    public static GameSummary readSummary(ResultSet rs) throws SQLException {
+        return new GameSummary(
+                rs.getInt("gameID"),
+                rs.getString("gameName"),
+                rs.getString("whiteUsername"),
+                rs.getString("blackUsername"),
+                GameSummary.Status.valueOf(rs.getString("status")),
+                rs.getInt("moveCount"),
+                rs.getTimestamp("lastActivity").getTime()
+        );
+    }
+
+    /**
+     * Adds the indexes each sort and filter reads from to a game table that
+     * does not have them yet
+     */
+    public static void addIndexes(String table) throws DataAccessException {
+        addIndex(table, "status_idx", "status, gameID");
+        addIndex(table, "activity_idx", "lastActivity, gameID");
+        addIndex(table, "name_idx", "gameName, gameID");
+        addIndex(table, "white_idx", "whiteUsername");
+        addIndex(table, "black_idx", "blackUsername");
+    }
+}
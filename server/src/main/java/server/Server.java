@@ -1,26 +1,39 @@
 package server;
 
 import dataaccess.DAO.*;
+import dataaccess.GameCache;
+import serialization.Serializer;
 import spark.*;
 import server.handlers.*;
+import server.websocket.LobbyFeed;
 import service.*;
 
 public class Server {
     private final GameService gameService;
     private final UserService userService;
     private final AuthService authService;
+    private final LobbyFeed lobby = new LobbyFeed();
+    private final GameCache games;
+    private final WebSocketServer webSocketServer;
 
     public Server() {
         AuthDAO authDAO = new AuthDAO();
         GameDAO gameDAO = new GameDAO();
         UserDAO userDAO = new UserDAO();
-        this.gameService = new GameService(gameDAO);
+        this.games = new GameCache(gameDAO::getGame, gameDAO::appendMoves, gameDAO::updateGame, GameCache.Settings.DEFAULT)
+                .start();
+        this.gameService = new GameService(gameDAO, games, lobby);
         this.userService = new UserService(userDAO);
         this.authService = new AuthService(authDAO);
+        this.webSocketServer = new WebSocketServer(authDAO, games, gameService, lobby);
+        // Build the JSON adapters now rather than on the first request
+        Serializer.warmUp();
     }
 
     public int run(int desiredPort) {
         Spark.port(desiredPort);
+        // Must come before any route is mapped
+        Spark.webSocket("/ws", webSocketServer);
         Spark.staticFiles.location("web");
         Spark.post("/user", (req, res) -> new RegisterHandler().register(req, res, userService, authService));
         Spark.post("/session", (req, res) -> new LoginHandler().login(req, res, userService, authService));
@@ -38,5 +51,6 @@ public class Server {
     public void stop() {
         Spark.stop();
         Spark.awaitStop();
+        games.close();
     }
 }
\ No newline at end of file
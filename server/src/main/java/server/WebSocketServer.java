@@ -4,35 +4,52 @@ import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
 import chess.InvalidMoveException;
-import com.google.gson.Gson;
-import dataaccess.AuthDAO;
+import dataaccess.DAO.AuthDAO;
 import dataaccess.DataAccessException;
-import dataaccess.GameDAO;
-import dataaccess.UserDAO;
+import dataaccess.GameCache;
+import model.AuthData;
 import model.GameData;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.*;
+import serialization.MessageCodec;
+import serialization.Serializer;
+import server.websocket.LobbyFeed;
+import service.GameService;
 import websocket.commands.MakeMoveCommand;
 import websocket.commands.UserGameCommand;
 import websocket.messages.ErrorMessage;
 import websocket.messages.LoadGameMessage;
+import websocket.messages.LobbyEventMessage;
+import websocket.messages.MoveAppliedMessage;
 import websocket.messages.NotificationMessage;
 import websocket.messages.ServerMessage;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @WebSocket
 public class WebSocketServer {
-    private UserDAO userDAO;
-    private GameDAO gameDAO;
     private AuthDAO authDAO;
+    // Games being played stay in memory, with moves written behind them
+    private GameCache games;
+    private GameService gameService;
+    // Clients in the lobby hear about games finishing and seats being left from here
+    private LobbyFeed lobby;
     private static final Map<Integer, List<Session>> SESSIONS = new HashMap<>();
+    private static final Map<Session, UserGameCommand.WireFormat> FORMATS = new ConcurrentHashMap<>();
+    private static final Set<Session> MOVE_UPDATES = ConcurrentHashMap.newKeySet();
 
-    public WebSocketServer(AuthDAO authDAO, GameDAO gameDAO, UserDAO userDAO) {
-        this.userDAO = userDAO;
-        this.gameDAO = gameDAO;
+    /**
+     * @param games the same games the REST side seats players in
+     * @param lobby the same feed the REST side tells about games created and seats taken
+     */
+    public WebSocketServer(AuthDAO authDAO, GameCache games, GameService gameService, LobbyFeed lobby) {
         this.authDAO = authDAO;
+        this.games = games;
+        this.gameService = gameService;
+        this.lobby = lobby;
     }
 
     @OnWebSocketConnect
@@ -45,7 +62,7 @@ public class WebSocketServer {
         System.out.println("New message: " + message);
         // Deserialize message into UserGameCommand
         if (message.contains("MAKE_MOVE")) {
-            MakeMoveCommand command = new Gson().fromJson(message, MakeMoveCommand.class);
+            MakeMoveCommand command = Serializer.fromJson(message, MakeMoveCommand.class);
             try {
                 handleMakeMove(command, session);
             } catch (Exception e) {
@@ -62,7 +79,7 @@ public class WebSocketServer {
     }
 
     private UserGameCommand parseCommand(String message) {
-        return new Gson().fromJson(message, UserGameCommand.class);
+        return Serializer.fromJson(message, UserGameCommand.class);
     }
 
     private void handleCommand(UserGameCommand command, Session session) throws DataAccessException {
@@ -77,35 +94,58 @@ public class WebSocketServer {
             case RESIGN:
                 handleResign(command, session);
                 break;
+            case RESYNC:
+                handleResync(command, session);
+                break;
+            case SUBSCRIBE_LOBBY:
+                handleSubscribeLobby(command, session);
+                break;
+            case UNSUBSCRIBE_LOBBY:
+                lobby.unsubscribe(session);
+                break;
             default:
                 System.out.println("Unknown command type: " + command.getCommandType());
                 break;
         }
     }
 
+    private void handleSubscribeLobby(UserGameCommand command, Session session) throws DataAccessException {
+        if (!verifyAuthToken(command.getAuthToken())) {
+            ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "invalid authToken");
+            String json = Serializer.toJson(msg);
+            sendMessage(json, session);
+            return;
+        }
+        lobby.subscribe(session);
+    }
+
     private void handleConnect(UserGameCommand command, Session session) throws DataAccessException {
         // Load game, notify players, etc.
         Integer gameID = command.getGameID();
         String authToken = command.getAuthToken();
-        String username = authDAO.getUsername(authToken);
-        GameData gameData = gameDAO.getGame(gameID);
+        String username = getUsername(authToken);
+        GameData gameData = games.get(gameID);
 
-        if (!authDAO.verifyAuthToken(authToken)) {
+        if (!verifyAuthToken(authToken)) {
             System.out.println("User not found.");
             ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "invalid authToken");
-            String json = new Gson().toJson(msg);
+            String json = Serializer.toJson(msg);
             sendMessage(json, session);
             return;
         }
-        if (!gameDAO.verifyGame(gameID)) {
+        if (gameData == null) {
             System.out.println("Game not found.");
             ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "game not found");
-            String json = new Gson().toJson(msg);
+            String json = Serializer.toJson(msg);
             sendMessage(json, session);
             return;
         }
 
         SESSIONS.computeIfAbsent(gameID, k -> new ArrayList<>()).add(session);
+        FORMATS.put(session, command.getFormat());
+        if (command.acceptsMoveUpdates()) {
+            MOVE_UPDATES.add(session);
+        }
 
         String color = "observer";
         if (Objects.equals(gameData.whiteUsername(), username)) {
@@ -116,12 +156,11 @@ public class WebSocketServer {
 
         NotificationMessage notification = new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION, username +
                 " has joined the game as " + color);
-        String json = new Gson().toJson(notification);
+        String json = Serializer.toJson(notification);
         broadcastMessageExclude(json, gameID, session);
 
         LoadGameMessage gameMessage = new LoadGameMessage(ServerMessage.ServerMessageType.LOAD_GAME, gameData.game());
-        String jsonGame = new Gson().toJson(gameMessage);
-        sendMessage(jsonGame, session);
+        sendGame(gameMessage, session);
     }
 
     private void handleMakeMove(MakeMoveCommand command, Session session)
@@ -129,76 +168,110 @@ public class WebSocketServer {
         // Validate move, update game, notify players
         Integer gameID = command.getGameID();
         String authToken = command.getAuthToken();
-        GameData gameData = gameDAO.getGame(gameID);
+        GameData gameData = games.get(gameID);
+        if (gameData == null) {
+            ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "game not found");
+            String json = Serializer.toJson(msg);
+            sendMessage(json, session);
+            return;
+        }
         ChessMove move = command.getMove();
+        String username = getUsername(authToken);
 
-        if (!authDAO.verifyAuthToken(authToken)) {
+        if (username == null) {
             ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "invalid authToken");
-            String json = new Gson().toJson(msg);
+            String json = Serializer.toJson(msg);
             sendMessage(json, session);
             return;
         }
-        if (!(authDAO.getUsername(authToken).equals(gameData.blackUsername()) && gameData.game().getTeamTurn() == ChessGame.TeamColor.BLACK)
-            && !(authDAO.getUsername(authToken).equals(gameData.whiteUsername()) && gameData.game().getTeamTurn() == ChessGame.TeamColor.WHITE)) {
+        if (!(username.equals(gameData.blackUsername()) && gameData.game().getTeamTurn() == ChessGame.TeamColor.BLACK)
+            && !(username.equals(gameData.whiteUsername()) && gameData.game().getTeamTurn() == ChessGame.TeamColor.WHITE)) {
             ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "wrong turn");
-            String json = new Gson().toJson(msg);
-            sendMessage(json, session);
-            return;
-        }
-        if (!gameDAO.verifyGame(gameID)) {
-            ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "game not found");
-            String json = new Gson().toJson(msg);
+            String json = Serializer.toJson(msg);
             sendMessage(json, session);
             return;
         }
         if (gameData.game().isOver()) {
             ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "game is over");
-            String json = new Gson().toJson(msg);
+            String json = Serializer.toJson(msg);
             sendMessage(json, session);
             return;
         }
         try {
             ChessGame game = gameData.game();
             ChessGame.TeamColor color = game.getTeamTurn();
-            String username = authDAO.getUsername(authToken);
             ChessGame.TeamColor opponent = (game.getTeamTurn() == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
             String opponentName = (opponent == ChessGame.TeamColor.WHITE) ? gameData.whiteUsername() : gameData.blackUsername();
-            game.makeMove(move);
-            gameDAO.updateChessGame(game, gameID);
+            // The move itself ends the game on mate, stalemate or a draw
+            game = games.makeMove(gameID, move, color).game();
             LoadGameMessage msgLoad = new LoadGameMessage(ServerMessage.ServerMessageType.LOAD_GAME, game);
-            String json = new Gson().toJson(msgLoad);
-            broadcastMessage(json, gameID);
+            MoveAppliedMessage applied = new MoveAppliedMessage(move, game, moveStatus(game, opponent));
+            broadcastGame(msgLoad, applied, gameID);
 
             NotificationMessage msg = new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION, color +
                     " user " + username + " has made a move from " + formatPosition(move.getStartPosition()) + " to "
                     + formatPosition(move.getEndPosition()));
-            json = new Gson().toJson(msg);
+            String json = Serializer.toJson(msg);
             broadcastMessageExclude(json, gameID, session);
             if (game.isInCheckmate(opponent)) {
                 msg = new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION, opponent +
                         " user " + opponentName + " is in checkmate, " + color + " user " + username + " wins");
-                json = new Gson().toJson(msg);
+                json = Serializer.toJson(msg);
                 broadcastMessage(json, gameID);
             } else if (game.isInCheck(opponent)) {
                 msg = new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION, opponent +
                         " user " + opponentName + " is in check");
-                json = new Gson().toJson(msg);
+                json = Serializer.toJson(msg);
                 broadcastMessage(json, gameID);
-                game.setGameOver(true);
             } else if (game.isInStalemate(opponent) || game.isInStalemate(color)) {
                 msg = new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION, "game ends in " +
                         "stalemate");
-                json = new Gson().toJson(msg);
+                json = Serializer.toJson(msg);
                 broadcastMessage(json, gameID);
-                game.setGameOver(true);
+            } else if (game.isDrawByRepetition() || game.isDrawByFiftyMoves()) {
+                msg = new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION, "game ends in a draw by "
+                        + (game.isDrawByRepetition() ? "threefold repetition" : "the fifty-move rule"));
+                json = Serializer.toJson(msg);
+                broadcastMessage(json, gameID);
+            }
+            if (game.isOver()) {
+                gameService.announce(LobbyEventMessage.Kind.GAME_FINISHED, gameID);
             }
         } catch (InvalidMoveException e) {
             ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "invalid move");
-            String json = new Gson().toJson(msg);
+            String json = Serializer.toJson(msg);
             sendMessage(json, session);
         }
     }
 
+    private MoveAppliedMessage.Status moveStatus(ChessGame game, ChessGame.TeamColor toMove) {
+        boolean inCheck = game.isInCheck(toMove);
+        if (game.legalMoves(toMove).isEmpty()) {
+            return inCheck ? MoveAppliedMessage.Status.CHECKMATE : MoveAppliedMessage.Status.STALEMATE;
+        } else if (game.isDrawByRepetition() || game.isDrawByFiftyMoves()) {
+            return MoveAppliedMessage.Status.DRAW;
+        }
+        return inCheck ? MoveAppliedMessage.Status.CHECK : MoveAppliedMessage.Status.ONGOING;
+    }
+
+    private void handleResync(UserGameCommand command, Session session) throws DataAccessException {
+        // Resend the whole game to a client that missed a move
+        if (!verifyAuthToken(command.getAuthToken())) {
+            ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "invalid authToken");
+            String json = Serializer.toJson(msg);
+            sendMessage(json, session);
+            return;
+        }
+        GameData gameData = games.get(command.getGameID());
+        if (gameData == null) {
+            ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "game not found");
+            String json = Serializer.toJson(msg);
+            sendMessage(json, session);
+            return;
+        }
+        sendGame(new LoadGameMessage(ServerMessage.ServerMessageType.LOAD_GAME, gameData.game()), session);
+    }
+
     private String formatPosition(ChessPosition position) {
         char col = (char) ('a' + position.getColumn() - 1);
         return col + String.valueOf(position.getRow());
@@ -208,18 +281,18 @@ public class WebSocketServer {
         // Notify other players and update the game state
         Integer gameID = command.getGameID();
         String authToken = command.getAuthToken();
-        String username = authDAO.getUsername(authToken);
-        GameData gameData = gameDAO.getGame(gameID);
+        String username = getUsername(authToken);
+        GameData gameData = games.get(gameID);
 
-        if (!authDAO.verifyAuthToken(authToken)) {
+        if (!verifyAuthToken(authToken)) {
             ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "invalid authToken");
-            String json = new Gson().toJson(msg);
+            String json = Serializer.toJson(msg);
             sendMessage(json, session);
             return;
         }
-        if (!gameDAO.verifyGame(gameID)) {
+        if (gameData == null) {
             ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "game not found");
-            String json = new Gson().toJson(msg);
+            String json = Serializer.toJson(msg);
             sendMessage(json, session);
             return;
         }
@@ -233,56 +306,77 @@ public class WebSocketServer {
 
         NotificationMessage msg = new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION,
                 color + " user " + username + " has left the game");
-        String json = new Gson().toJson(msg);
+        String json = Serializer.toJson(msg);
         broadcastMessageExclude(json, gameID, session);
         if (!color.equals("observer")) {
-            ChessGame.TeamColor teamColor = (color.equals("white")) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
-            gameDAO.updateGame(teamColor, gameID, null);
+            boolean white = color.equals("white");
+            GameData left = games.update(gameID, game -> {
+                if (!Objects.equals(white ? game.whiteUsername() : game.blackUsername(), username)) {
+                    return game;
+                }
+                return new GameData(game.gameID(), white ? null : game.whiteUsername(),
+                        white ? game.blackUsername() : null, game.gameName(), game.game());
+            });
+            if (left != null) {
+                gameService.announce(LobbyEventMessage.Kind.SEAT_LEFT, gameID);
+            }
         }
         SESSIONS.get(gameID).remove(session);
+        FORMATS.remove(session);
+        MOVE_UPDATES.remove(session);
     }
 
     private void handleResign(UserGameCommand command, Session session) throws DataAccessException {
         // End game and notify all connected clients
         Integer gameID = command.getGameID();
         String authToken = command.getAuthToken();
-        String username = authDAO.getUsername(authToken);
-        GameData gameData = gameDAO.getGame(gameID);
+        String username = getUsername(authToken);
+        GameData gameData = games.get(gameID);
 
-        if (!username.equals(gameData.blackUsername())
-                && !username.equals(gameData.whiteUsername())) {
-            ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "wrong turn");
-            String json = new Gson().toJson(msg);
+        if (username == null) {
+            ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "invalid authToken");
+            String json = Serializer.toJson(msg);
             sendMessage(json, session);
             return;
         }
-        if (!authDAO.verifyAuthToken(authToken)) {
-            ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "invalid authToken");
-            String json = new Gson().toJson(msg);
+        if (gameData == null) {
+            ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "game not found");
+            String json = Serializer.toJson(msg);
             sendMessage(json, session);
             return;
         }
-        if (!gameDAO.verifyGame(gameID)) {
-            ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "game not found");
-            String json = new Gson().toJson(msg);
+        if (!username.equals(gameData.blackUsername())
+                && !username.equals(gameData.whiteUsername())) {
+            ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "wrong turn");
+            String json = Serializer.toJson(msg);
             sendMessage(json, session);
             return;
         }
-        if (gameData.game().isOver()) {
+        GameData resigned = null;
+        if (!gameData.game().isOver()) {
+            // Null if another command ended the game first
+            resigned = games.update(gameID, current -> {
+                if (current.game().isOver()) {
+                    return current;
+                }
+                current.game().setGameOver(true);
+                return new GameData(current.gameID(), current.whiteUsername(), current.blackUsername(),
+                        current.gameName(), current.game());
+            });
+        }
+        if (resigned == null) {
             ErrorMessage msg = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "game is over");
-            String json = new Gson().toJson(msg);
+            String json = Serializer.toJson(msg);
             sendMessage(json, session);
         } else {
-            ChessGame game = gameData.game();
             ChessGame.TeamColor color = (username.equals(gameData.whiteUsername())) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
             ChessGame.TeamColor opponent = (color == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
             String opponentName = (opponent == ChessGame.TeamColor.WHITE) ? gameData.whiteUsername() : gameData.blackUsername();
             NotificationMessage msg = new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION, color
                     + " user " + username + " has resigned, " + opponent + " user " + opponentName + " wins");
-            String json = new Gson().toJson(msg);
+            String json = Serializer.toJson(msg);
             broadcastMessage(json, gameID);
-            game.setGameOver(true);
-            gameDAO.updateChessGame(game, gameID);
+            gameService.announce(LobbyEventMessage.Kind.GAME_FINISHED, gameID);
         }
     }
 
@@ -292,8 +386,25 @@ public class WebSocketServer {
     }
 
     @OnWebSocketClose
-    public void onClose(int statusCode, String reason) {
+    public void onClose(Session session, int statusCode, String reason) {
         System.out.println("Connection closed, reason: " + reason);
+        // A client that drops without sending LEAVE is forgotten here instead
+        for (List<Session> gameSessions : SESSIONS.values()) {
+            gameSessions.remove(session);
+        }
+        FORMATS.remove(session);
+        MOVE_UPDATES.remove(session);
+        lobby.unsubscribe(session);
+    }
+
+    // The token's user, or null if the token is not valid
+    private String getUsername(String authToken) throws DataAccessException {
+        AuthData auth = authDAO.getAuthByToken(authToken);
+        return auth == null ? null : auth.username();
+    }
+
+    private boolean verifyAuthToken(String authToken) throws DataAccessException {
+        return getUsername(authToken) != null;
     }
 
     private void broadcastMessage(String msg, Integer gameID) {
@@ -318,6 +429,59 @@ public class WebSocketServer {
         }
     }
 
+    /**
+     * Sends a move to everyone watching the game: the move itself to sessions that
+     * asked for move updates at CONNECT, and the whole game to the rest. Each form
+     * is encoded at most once, the game as JSON or as a binary frame depending on
+     * what each session asked for.
+     */
+    private void broadcastGame(LoadGameMessage msg, MoveAppliedMessage applied, Integer gameID) {
+        List<Session> gameSessions = SESSIONS.get(gameID);
+        if (gameSessions == null) {
+            return;
+        }
+        String json = null;
+        String appliedJson = null;
+        ByteBuffer frame = null;
+        for (Session session : gameSessions) {
+            if (!session.isOpen()) {
+                continue;
+            }
+            if (MOVE_UPDATES.contains(session)) {
+                if (appliedJson == null) {
+                    appliedJson = MessageCodec.encodeText(applied);
+                }
+                sendMessage(appliedJson, session);
+            } else if (FORMATS.get(session) == UserGameCommand.WireFormat.BINARY) {
+                if (frame == null) {
+                    frame = MessageCodec.encodeBinary(msg);
+                }
+                sendFrame(frame.duplicate(), session);
+            } else {
+                if (json == null) {
+                    json = MessageCodec.encodeText(msg);
+                }
+                sendMessage(json, session);
+            }
+        }
+    }
+
+    private void sendGame(LoadGameMessage msg, Session session) {
+        if (FORMATS.get(session) == UserGameCommand.WireFormat.BINARY) {
+            sendFrame(MessageCodec.encodeBinary(msg), session);
+        } else {
+            sendMessage(MessageCodec.encodeText(msg), session);
+        }
+    }
+
+    private void sendFrame(ByteBuffer frame, Session session) {
+        try {
+            session.getRemote().sendBytes(frame);
+        } catch (IOException e) {
+            System.out.println("Error sending message: " + e.getMessage());
+        }
+    }
+
     private void sendMessage(String message, Session session) {
         try {
             session.getRemote().sendString(message);
@@ -1,13 +1,12 @@
 package server.handlers;
 
-import com.google.gson.Gson;
+import serialization.Serializer;
 import service.AuthService;
 import spark.Response;
 import service.GameService;
 import service.UserService;
 
 public class ClearHandler {
-    private final Gson serializer = new Gson();
     private final ErrorHandler errorHandler = new ErrorHandler();
 
     public Object clear(Response res, UserService userService, GameService gameService, AuthService authService) {
@@ -18,7 +17,7 @@ public class ClearHandler {
             authService.clear();
             res.status(200);
             res.body("");
-            return serializer.toJson(new Object());
+            return Serializer.toJson(new Object());
         }
         catch (Exception e) {
             return errorHandler.handleError(e, res, 500);
@@ -1,8 +1,8 @@
 package server.handlers;
 
-import com.google.gson.Gson;
 import dataaccess.exceptions.*;
 import model.GameData;
+import serialization.Serializer;
 import service.AuthService;
 import service.GameService;
 import spark.Request;
@@ -10,7 +10,6 @@ import spark.Response;
 import java.util.Map;
 
 public class CreateGameHandler {
-    private final Gson serializer = new Gson();
     ErrorHandler errorHandler = new ErrorHandler();
 
     public Object createGame(Request request, Response response, GameService gameService, AuthService authService) {
@@ -18,10 +17,10 @@ public class CreateGameHandler {
         try {
             String authToken = request.headers("Authorization");
             authService.validateAuthToken(authToken);
-            GameData newGameData = serializer.fromJson(request.body(), GameData.class);
+            GameData newGameData = Serializer.fromJson(request.body(), GameData.class);
             int newGameID = gameService.createGame(newGameData).gameID();
             response.status(200);
-            return serializer.toJson(Map.of("gameID", newGameID));
+            return Serializer.toJson(Map.of("gameID", newGameID));
         }
         catch (UnauthorizedException exception) {
             return errorHandler.handleError(exception, response, 401);
@@ -1,19 +1,18 @@
 package server.handlers;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import dataaccess.exceptions.*;
 import model.AuthData;
 import model.GameData;
+import serialization.Serializer;
 import service.AuthService;
 import service.GameService;
 import spark.Response;
 import spark.Request;
 
 public class JoinGameHandler {
-    private final Gson serializer = new Gson();
     private final ErrorHandler errorHandler = new ErrorHandler();
 
     public Object joinGame(Request req, Response res, GameService gameService, AuthService authService) {
@@ -35,7 +34,7 @@ public class JoinGameHandler {
                 return errorHandler.handleError(e, res, 400);
             }
             GameData gameData = gameService.joinGame(gameId, playerColor, username);
-            return serializer.toJson(gameData);
+            return Serializer.toJson(gameData);
         }
         catch (BadRequestException e) {
             return errorHandler.handleError(e, res, 400);
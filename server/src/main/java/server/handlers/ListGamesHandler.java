@@ -1,20 +1,17 @@
 package server.handlers;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import dataaccess.LobbyVersion;
+import dataaccess.exceptions.BadRequestException;
 import dataaccess.exceptions.UnauthorizedException;
-import model.GameData;
+import model.GameList;
+import model.GameQuery;
+import serialization.Serializer;
 import service.AuthService;
 import service.GameService;
 import spark.Request;
 import spark.Response;
 
-import java.util.Collection;
-
 public class ListGamesHandler {
-    private final Gson serializer = new Gson();
     private final ErrorHandler errorHandler = new ErrorHandler();
 
     public Object listGames(Request req, Response res, GameService gameService, AuthService authService) {
@@ -22,20 +19,50 @@ public class ListGamesHandler {
         try {
             String authToken = req.headers("Authorization");
             authService.validateAuthToken(authToken);
-            Collection<GameData> games = gameService.listAllGames();
-            Gson gson = new GsonBuilder().serializeNulls().create();
-            JsonArray jsonArray = gson.toJsonTree(games).getAsJsonArray();
-            JsonObject jsonObject = new JsonObject();
-            jsonObject.add("games", jsonArray);
+            GameQuery query = parseQuery(req);
+
+            //Answer a client that already has this version of the list with the header alone;
+            //moves reorder a list sorted by activity, so they count for that one
+            String etag = LobbyVersion.etag(query.sort() == GameQuery.Sort.RECENT);
+            res.header("ETag", etag);
+            res.header("Cache-Control", "no-cache");
+            if (LobbyVersion.matches(req.headers("If-None-Match"), etag)) {
+                res.status(304);
+                return "";
+            }
 
+            GameList games = gameService.listAllGames(query);
             res.status(200);
-            return serializer.toJson(jsonObject);
+            return Serializer.toJsonWithNulls(games);
         }
         catch (UnauthorizedException e) {
             return errorHandler.handleError(e, res, 401);
         }
+        catch (BadRequestException e) {
+            return errorHandler.handleError(e, res, 400);
+        }
         catch (Exception e) {
             return errorHandler.handleError(e, res, 500);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads {@code ?after=&limit=&filter=&player=&sort=}, any of which may be left out
+     */
+    private static GameQuery parseQuery(Request req) throws BadRequestException {
+        try {
+            String limit = req.queryParams("limit");
+            String filter = req.queryParams("filter");
+            String sort = req.queryParams("sort");
+            return new GameQuery(
+                    req.queryParams("after"),
+                    limit == null ? GameQuery.DEFAULT_LIMIT : Integer.parseInt(limit),
+                    filter == null ? null : GameQuery.Filter.valueOf(filter.toUpperCase()),
+                    req.queryParams("player"),
+                    sort == null ? null : GameQuery.Sort.valueOf(sort.toUpperCase()));
+        }
+        catch (IllegalArgumentException e) {
+            throw new BadRequestException("bad request: " + e.getMessage());
+        }
+    }
+}
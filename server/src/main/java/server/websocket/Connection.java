@@ -1,21 +1,35 @@
 package server.websocket;
 
 import org.eclipse.jetty.websocket.api.Session;
+import websocket.commands.UserGameCommand;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class Connection {
     public int gameID;
     public Session session;
+    public UserGameCommand.WireFormat format;
+    public boolean moveUpdates;
 
     public Connection(int gameID, Session session) {
+        this(gameID, session, UserGameCommand.WireFormat.JSON, false);
+    }
+
+    public Connection(int gameID, Session session, UserGameCommand.WireFormat format, boolean moveUpdates) {
         this.gameID = gameID;
         this.session = session;
+        this.format = format;
+        this.moveUpdates = moveUpdates;
     }
 
     public void send(String msg) throws IOException {
         session.getRemote().sendString(msg);
     }
+
+    public void send(ByteBuffer frame) throws IOException {
+        session.getRemote().sendBytes(frame);
+    }
 }
@@ -1,10 +1,13 @@
 package server.websocket;
 
-import com.google.gson.Gson;
 import org.eclipse.jetty.websocket.api.Session;
+import serialization.MessageCodec;
+import websocket.commands.UserGameCommand;
+import websocket.messages.MoveAppliedMessage;
 import websocket.messages.ServerMessage;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -12,32 +15,51 @@ public class ConnectionManager {
     public final ConcurrentHashMap<Session, Connection> connections = new ConcurrentHashMap<>();
 
     public void add(int gameID, Session session) {
-        var connection = new Connection(gameID, session);
+        add(gameID, session, UserGameCommand.WireFormat.JSON, false);
+    }
+
+    public void add(int gameID, Session session, UserGameCommand.WireFormat format, boolean moveUpdates) {
+        var connection = new Connection(gameID, session, format, moveUpdates);
         connections.put(session, connection);
     }
 
     public void self(int gameID, Session currentSession, ServerMessage notification) throws IOException {
+        var frames = new Frames(notification);
         for (var c : connections.values()) {
             if (c.session.isOpen() && c.gameID == gameID) {
                 if (c.session.equals(currentSession)) {
-                    String jsonMessage = new Gson().toJson(notification);
-                    c.send(jsonMessage);
+                    frames.send(c);
                 }
             }
         }
     }
 
+    /**
+     * Sends a move to every connection in the game, including the one that made
+     * it: the delta to those that asked for move updates at CONNECT and the full
+     * game to the rest
+     */
+    public void broadcastMove(int gameID, MoveAppliedMessage move, ServerMessage game) throws IOException {
+        var moveFrames = new Frames(move);
+        var gameFrames = new Frames(game);
+        for (var c : connections.values()) {
+            if (c.session.isOpen() && c.gameID == gameID) {
+                (c.moveUpdates ? moveFrames : gameFrames).send(c);
+            }
+        }
+    }
+
     public void remove(Session session) {
         connections.remove(session);
     }
 
     public void broadcast(int gameID, Session currentSession, ServerMessage notification) throws IOException {
+        var frames = new Frames(notification);
         var removeList = new ArrayList<Connection>();
         for (var c : connections.values()) {
             if (c.session.isOpen() && c.gameID == gameID) {
                 if (!c.session.equals(currentSession)) {
-                    String jsonMessage = new Gson().toJson(notification);
-                    c.send(jsonMessage);
+                    frames.send(c);
                 }
             } else {
                 removeList.add(c);
@@ -50,4 +72,33 @@ public class ConnectionManager {
 
         }
     }
+
+    /**
+     * Encodes a message at most once per wire format, however many connections
+     * it goes to
+     */
+    private static final class Frames {
+        private final ServerMessage message;
+        private String text;
+        private ByteBuffer binary;
+
+        Frames(ServerMessage message) {
+            this.message = message;
+        }
+
+        void send(Connection connection) throws IOException {
+            if (connection.format == UserGameCommand.WireFormat.BINARY && MessageCodec.hasBinaryForm(message)) {
+                if (binary == null) {
+                    binary = MessageCodec.encodeBinary(message);
+                }
+                // Each send consumes its own view of the shared bytes
+                connection.send(binary.duplicate());
+            } else {
+                if (text == null) {
+                    text = MessageCodec.encodeText(message);
+                }
+                connection.send(text);
+            }
+        }
+    }
 }
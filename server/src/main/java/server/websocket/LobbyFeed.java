@@ -0,0 +1,49 @@
+package server.websocket;
+
+import model.GameSummary;
+import org.eclipse.jetty.websocket.api.Session;
+import serialization.MessageCodec;
+import service.LobbyPublisher;
+import websocket.messages.LobbyEventMessage;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The sessions subscribed to the lobby, and the events sent to them when a
+ * game is created, a seat is taken or left, or a game ends. Each event is
+ * encoded once and sent without waiting on any subscriber, so a slow client
+ * never holds up the request that changed the game.
+ */
+public class LobbyFeed implements LobbyPublisher {
+    private final Set<Session> subscribers = ConcurrentHashMap.newKeySet();
+    private long sequence;
+
+    public void subscribe(Session session) {
+        subscribers.add(session);
+    }
+
+    public void unsubscribe(Session session) {
+        subscribers.remove(session);
+    }
+
+    @Override
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    @Override
+    public synchronized void publish(LobbyEventMessage.Kind kind, GameSummary game) {
+        if (game == null) {
+            return;
+        }
+        String text = MessageCodec.encodeText(new LobbyEventMessage(kind, game, ++sequence));
+        for (Session session : subscribers) {
+            if (session.isOpen()) {
+                session.getRemote().sendStringByFuture(text);
+            } else {
+                subscribers.remove(session);
+            }
+        }
+    }
+}
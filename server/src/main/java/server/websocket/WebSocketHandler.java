@@ -3,8 +3,8 @@ package server.websocket;
 import chess.ChessMove;
 import chess.ChessGame;
 import chess.ChessPiece;
-import com.google.gson.Gson;
 import dataaccess.DataAccessException;
+import dataaccess.GameCache;
 import dataaccess.SqlAuthDAO;
 import dataaccess.SqlGameDAO;
 import model.AuthData;
@@ -13,6 +13,8 @@ import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketClose;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+import serialization.MessageCodec;
+import serialization.Serializer;
 import websocket.commands.MakeMove;
 import websocket.commands.UserGameCommand;
 import websocket.messages.*;
@@ -23,10 +25,14 @@ import java.io.IOException;
 public class WebSocketHandler {
     SqlAuthDAO authDAO;
     SqlGameDAO gameDAO;
+    GameCache games;
+    LobbyFeed lobby;
 
-    public WebSocketHandler(SqlAuthDAO authDAO, SqlGameDAO gameDAO) {
+    public WebSocketHandler(SqlAuthDAO authDAO, SqlGameDAO gameDAO, GameCache games, LobbyFeed lobby) {
         this.authDAO = authDAO;
         this.gameDAO = gameDAO;
+        this.games = games;
+        this.lobby = lobby;
     }
 
     private final ConnectionManager connections = new ConnectionManager();
@@ -34,13 +40,16 @@ public class WebSocketHandler {
     @OnWebSocketMessage
     public void onMessage(Session session, String message) throws IOException, DataAccessException {
         System.out.println(message);
-        var action = new Gson().fromJson(message, UserGameCommand.class);
+        var action = Serializer.fromJson(message, UserGameCommand.class);
         try {
             switch (action.getCommandType()) {
-                case CONNECT -> connectGame(action.getAuthToken(), action.getGameID(), session);
+                case CONNECT -> connectGame(action, session);
                 case MAKE_MOVE -> makeMove(message, action.getGameID(), session, action.getAuthToken());
                 case LEAVE -> leaveGame(action.getAuthToken(), action.getGameID(), session);
                 case RESIGN -> resignGame(action.getAuthToken(), action.getGameID(), session);
+                case RESYNC -> resyncGame(action.getAuthToken(), action.getGameID(), session);
+                case SUBSCRIBE_LOBBY -> subscribeLobby(action.getAuthToken(), session);
+                case UNSUBSCRIBE_LOBBY -> lobby.unsubscribe(session);
             }
         } catch (Exception ex) {
             errorHandler(ex.getMessage(), action.getGameID(), session);
@@ -51,18 +60,39 @@ public class WebSocketHandler {
     @OnWebSocketClose
     public void onClose(Session session, int statusCode, String reason) {
         connections.remove(session);
+        lobby.unsubscribe(session);
     }
 
-    private void connectGame(String authToken, int gameID, Session session) throws IOException, DataAccessException {
+    private void subscribeLobby(String authToken, Session session) throws IOException, DataAccessException {
+        if (authDAO.getUsername(authToken) == null) {
+            //There is no game to report the error through, so send it straight back
+            var error = new Erroring(ServerMessage.ServerMessageType.ERROR, "Error: Auth Token is not valid");
+            session.getRemote().sendString(MessageCodec.encodeText(error));
+            return;
+        }
+        lobby.subscribe(session);
+    }
+
+    //Tells the lobby about a change already written to the database
+    private void announce(LobbyEventMessage.Kind kind, int gameID) throws DataAccessException {
+        if (!lobby.hasSubscribers()) {
+            return;
+        }
+        lobby.publish(kind, gameDAO.getSummary(gameID));
+    }
+
+    private void connectGame(UserGameCommand action, Session session) throws IOException, DataAccessException {
+        String authToken = action.getAuthToken();
+        int gameID = action.getGameID();
         AuthData auth = new AuthData(authToken, null);
         String username = authDAO.getUsername(auth);
         if (username == null) {
             errorHandler("Error: Auth Token is not valid", gameID, session);
         } else {
-            GameData game = gameDAO.getGame(gameID);
+            GameData game = games.get(gameID);
 
-            //Adds the connection via session
-            connections.add(gameID, session);
+            //Adds the connection via session, remembering how it wants game state sent
+            connections.add(gameID, session, action.getFormat(), action.acceptsMoveUpdates());
 
             //Create a notification message for broadcasting
             var message = String.format("%s has joined the game", username);
@@ -88,13 +118,13 @@ public class WebSocketHandler {
         if (username == null) {
             throw new DataAccessException("Error: Auth Token is not valid");
         }
-        var info = new Gson().fromJson(message, MakeMove.class);
+        var info = Serializer.fromJson(message, MakeMove.class);
         try {
             //Get the Game info and Make the Move
-            GameData game = gameDAO.getGame(gameID);
+            GameData game = games.get(gameID);
             ChessMove move = info.getMove();
 
-            if (game.getGameOver()) {
+            if (game.game().isOver()) {
                 throw new DataAccessException("Error: Game is Over");
             }
 
@@ -106,8 +136,7 @@ public class WebSocketHandler {
                 throw new DataAccessException("Error: It isn't your turn");
             }
 
-            game.game().makeMove(move);
-            gameDAO.updateGame(game);
+            game = games.makeMove(gameID, move, currentTurn);
 
             ChessGame.TeamColor color = null;
             if (game.blackUsername() != null && game.blackUsername().equals(username)) {
@@ -116,10 +145,17 @@ public class WebSocketHandler {
                 color = ChessGame.TeamColor.WHITE;
             }
 
-            //Load the Game for everyone
+            //Only the side to move can be in checkmate or stalemate, so one pass over its legal moves decides both
+            ChessGame.TeamColor toMove = game.game().getTeamTurn();
+            String side = toMove == ChessGame.TeamColor.WHITE ? "White" : "Black";
+            boolean inCheck = game.game().isInCheck(toMove);
+            boolean stuck = game.game().legalMoves(toMove).isEmpty();
+            boolean drawn = game.game().isDrawByRepetition() || game.game().isDrawByFiftyMoves();
+
+            //Send everyone the move, or the whole game to clients that don't apply moves themselves
             var loadGame = new Loading(ServerMessage.ServerMessageType.LOAD_GAME, game.game(), color);
-            connections.self(gameID, session, loadGame);
-            connections.broadcast(gameID, session, loadGame);
+            var applied = new MoveAppliedMessage(move, game.game(), moveStatus(inCheck, stuck, drawn));
+            connections.broadcastMove(gameID, applied, loadGame);
 
             //Notify the other players
             var messaging = String.format("%s has made a move", username);
@@ -129,46 +165,24 @@ public class WebSocketHandler {
             ChessPiece piece = game.game().getBoard().getPiece(move.getEndPosition());
             var currentColor = piece.getTeamColor();
 
-            //Check whether a color is in checkmate
-            if (game.game().isInCheckmate(ChessGame.TeamColor.BLACK)) {
-                var messageStuff = "Black is in Checkmate";
-                GameData gameData1 = new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), game.game(), true);
-                gameDAO.updateGame(gameData1);
-                var notification = new Notifying(ServerMessage.ServerMessageType.NOTIFICATION, messageStuff);
-                connections.broadcast(gameID, session, notification);
-                connections.self(gameID, session, notification);
-            } else if (game.game().isInCheckmate(ChessGame.TeamColor.WHITE)) {
-                var messageStuff = "White is in Checkmate";
-                GameData gameData1 = new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), game.game(), true);
-                gameDAO.updateGame(gameData1);
+            if (stuck) {
+                var messageStuff = side + (inCheck ? " is in Checkmate" : " is in Stalemate");
+                announce(LobbyEventMessage.Kind.GAME_FINISHED, gameID);
                 var notification = new Notifying(ServerMessage.ServerMessageType.NOTIFICATION, messageStuff);
                 connections.broadcast(gameID, session, notification);
                 connections.self(gameID, session, notification);
             }
-            //Check whether a color is in stalemate
-            else if (game.game().isInStalemate(ChessGame.TeamColor.BLACK)) {
-                var messageStuff = "Black is in Stalemate";
-                GameData gameData1 = new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), game.game(), true);
-                gameDAO.updateGame(gameData1);
-                var notification = new Notifying(ServerMessage.ServerMessageType.NOTIFICATION, messageStuff);
-                connections.broadcast(gameID, session, notification);
-                connections.self(gameID, session, notification);
-            } else if (game.game().isInStalemate(ChessGame.TeamColor.WHITE)) {
-                var messageStuff = "White is in Stalemate";
-                GameData gameData1 = new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), game.game(), true);
-                gameDAO.updateGame(gameData1);
+            //Repeated or aimless games are drawn so they do not stay open forever
+            else if (drawn) {
+                var messageStuff = game.game().isDrawByRepetition() ? "Draw by threefold repetition" : "Draw by the fifty-move rule";
+                announce(LobbyEventMessage.Kind.GAME_FINISHED, gameID);
                 var notification = new Notifying(ServerMessage.ServerMessageType.NOTIFICATION, messageStuff);
                 connections.broadcast(gameID, session, notification);
                 connections.self(gameID, session, notification);
             }
             //Check Whether a Color is in Check
-            else if (game.game().isInCheck(ChessGame.TeamColor.BLACK)) {
-                var messageStuff = "Black is in Check";
-                var notification = new Notifying(ServerMessage.ServerMessageType.NOTIFICATION, messageStuff);
-                connections.broadcast(gameID, session, notification);
-                connections.self(gameID, session, notification);
-            } else if (game.game().isInCheck(ChessGame.TeamColor.WHITE)) {
-                var messageStuff = "White is in Check";
+            else if (inCheck) {
+                var messageStuff = side + " is in Check";
                 var notification = new Notifying(ServerMessage.ServerMessageType.NOTIFICATION, messageStuff);
                 connections.broadcast(gameID, session, notification);
                 connections.self(gameID, session, notification);
@@ -182,28 +196,55 @@ public class WebSocketHandler {
 
     }
 
+    private static MoveAppliedMessage.Status moveStatus(boolean inCheck, boolean stuck, boolean drawn) {
+        if (stuck) {
+            return inCheck ? MoveAppliedMessage.Status.CHECKMATE : MoveAppliedMessage.Status.STALEMATE;
+        } else if (drawn) {
+            return MoveAppliedMessage.Status.DRAW;
+        }
+        return inCheck ? MoveAppliedMessage.Status.CHECK : MoveAppliedMessage.Status.ONGOING;
+    }
+
+    //Sends a full LOAD_GAME to a client whose copy of the game fell out of step
+    private void resyncGame(String authToken, int gameID, Session session) throws IOException, DataAccessException {
+        AuthData auth = new AuthData(authToken, null);
+        String username = authDAO.getUsername(auth);
+        if (username == null) {
+            throw new DataAccessException("Error: Auth Token is not valid");
+        }
+        GameData game = games.get(gameID);
+        if (game == null) {
+            throw new DataAccessException("Error: Game ID is not valid");
+        }
+        ChessGame.TeamColor color = ChessGame.TeamColor.WHITE;
+        if (game.blackUsername() != null && game.blackUsername().equals(username)) {
+            color = ChessGame.TeamColor.BLACK;
+        }
+        var loadGame = new Loading(ServerMessage.ServerMessageType.LOAD_GAME, game.game(), color);
+        connections.self(gameID, session, loadGame);
+    }
+
     public void leaveGame(String authToken, int gameID, Session session) throws IOException, DataAccessException {
         AuthData auth = new AuthData(authToken, null);
         String username = authDAO.getUsername(auth);
-        GameData game = gameDAO.getGame(gameID);
+        GameData game = games.get(gameID);
 
         var message = String.format("%s left the game", username);
         //System.out.println(message);
         var notification = new Notifying(ServerMessage.ServerMessageType.NOTIFICATION, message);
         connections.broadcast(gameID, session, notification);
 
-        if (game.whiteUsername() != null) {
-            if (game.whiteUsername().equals(username)) {
-                GameData gameData1 = new GameData(game.gameID(), null, game.blackUsername(), game.gameName(), game.game(), game.gameOver());
-                //System.out.println("Updating game with GAMEID: " + game.gameID());
-                gameDAO.updateGame(gameData1);
-            }
-        } else if (game.blackUsername() != null) {
-            if (game.blackUsername().equals(username)) {
-                GameData gameData1 = new GameData(game.gameID(), game.whiteUsername(), null, game.gameName(), game.game(), game.gameOver());
-                //System.out.println("Updating game with GAMEID: " + game.gameID());
-                gameDAO.updateGame(gameData1);
+        //Only free the seat if it is still this player's
+        GameData left = games.update(gameID, current -> {
+            if (username != null && username.equals(current.whiteUsername())) {
+                return new GameData(current.gameID(), null, current.blackUsername(), current.gameName(), current.game());
+            } else if (username != null && username.equals(current.blackUsername())) {
+                return new GameData(current.gameID(), current.whiteUsername(), null, current.gameName(), current.game());
             }
+            return current;
+        });
+        if (left != null) {
+            announce(LobbyEventMessage.Kind.SEAT_LEFT, gameID);
         }
 
         //Remove the Connection
@@ -214,28 +255,33 @@ public class WebSocketHandler {
     public void resignGame(String authToken, int gameID, Session session) throws DataAccessException, IOException {
         AuthData auth = new AuthData(authToken, null);
         String username = authDAO.getUsername(auth);
-        GameData game = gameDAO.getGame(gameID);
+        GameData game = games.get(gameID);
 
         if (!game.whiteUsername().equals(username) && !game.blackUsername().equals(username)) {
             throw new DataAccessException("Error: You can't resign");
         }
 
+        //Update Game Data, ending the game and freeing the resigning player's seat
+        GameData resigned = games.update(gameID, current -> {
+            if (current.game().isOver()) {
+                return current;
+            }
+            current.game().setGameOver(true);
+            boolean white = username.equals(current.whiteUsername());
+            return new GameData(current.gameID(), white ? null : current.whiteUsername(),
+                    white ? current.blackUsername() : null, current.gameName(), current.game());
+        });
+        if (resigned == null) {
+            throw new DataAccessException("Error: Game is Over");
+        }
+        announce(LobbyEventMessage.Kind.GAME_FINISHED, gameID);
+
         //Creates the broadcast message
         var message = String.format("%s resigned the game", username);
         var notification = new Notifying(ServerMessage.ServerMessageType.NOTIFICATION, message);
         connections.self(gameID, session, notification);
         connections.broadcast(gameID, session, notification);
 
-        //Update Game Data
-        GameData gameData = gameDAO.getGame(gameID);
-        if (gameData.whiteUsername().equals(username)) {
-            GameData gameData1 = new GameData(gameData.gameID(), null, gameData.blackUsername(), gameData.gameName(), gameData.game(), true);
-            gameDAO.updateGame(gameData1);
-        } else if (gameData.blackUsername().equals(username)) {
-            GameData gameData1 = new GameData(gameData.gameID(), gameData.whiteUsername(), null, gameData.gameName(), gameData.game(), true);
-            gameDAO.updateGame(gameData1);
-        }
-
         //Create the root client message
 
 
@@ -1,16 +1,28 @@
 package service;
 
 import dataaccess.DataAccessException;
+import dataaccess.GameCache;
 import dataaccess.exceptions.*;
 import dataaccess.DAO.GameDAO;
 import model.GameData;
-import java.util.Collection;
+import model.GameList;
+import model.GameQuery;
+import websocket.messages.LobbyEventMessage;
 
 public class GameService {
     private final GameDAO gameDAO;
+    private final GameCache games;
+    private final LobbyPublisher lobby;
 
-    public GameService(GameDAO gameDAO) {
+    /**
+     * @param games the games being played, shared with the WebSocket side so a
+     *              seat taken here is seen there straight away
+     * @param lobby told about every game created and seat taken
+     */
+    public GameService(GameDAO gameDAO, GameCache games, LobbyPublisher lobby) {
         this.gameDAO = gameDAO;
+        this.games = games;
+        this.lobby = lobby;
     }
 
     public GameData createGame(GameData gameData) throws BadRequestException, DataAccessException {
@@ -18,50 +30,49 @@ public class GameService {
             throw new BadRequestException("missing name");
         }
         else {
-            return gameDAO.createGame(gameData.gameName());
+            GameData created = gameDAO.createGame(gameData.gameName());
+            announce(LobbyEventMessage.Kind.GAME_CREATED, created.gameID());
+            return created;
         }
     }
 
-    public Collection<GameData> listAllGames() throws DataAccessException {
-        return gameDAO.readAllGames();
+    public GameList listAllGames(GameQuery query) throws DataAccessException {
+        return gameDAO.readSummaries(query);
     }
 
     public GameData joinGame(int gameID, String joinedColor, String username) throws UserExistsException, BadRequestException, DataAccessException {
-        GameData gameToJoin = gameDAO.getGame(gameID);
+        //Take the seat on the cached game, under its lock, so two players can't both get it
+        GameData joined = games.update(gameID, game -> {
+            if (joinedColor.equals("WHITE") && (game.whiteUsername() == null || game.whiteUsername().isEmpty())) {
+                return new GameData(gameID, username, game.blackUsername(), game.gameName(), game.game());
+            }
+            else if (joinedColor.equals("BLACK") && (game.blackUsername() == null || game.blackUsername().isEmpty())) {
+                return new GameData(gameID, game.whiteUsername(), username, game.gameName(), game.game());
+            }
+            return game;
+        });
 
-        if (gameToJoin == null) {
+        if (joined == null && games.get(gameID) == null) {
             throw new BadRequestException("bad request");
         }
-
-        if ( joinedColor.equals("WHITE") && (gameToJoin.whiteUsername() == null || gameToJoin.whiteUsername().isEmpty())) {
-            gameDAO.updateGame(
-                    new GameData(
-                            gameID,
-                            username,
-                            gameToJoin.blackUsername(),
-                            gameToJoin.gameName(),
-                            gameToJoin.game()
-                    )
-            );
-        }
-        else if (joinedColor.equals("BLACK") && (gameToJoin.blackUsername() == null || gameToJoin.blackUsername().isEmpty())) {
-            gameDAO.updateGame(
-                    new GameData(
-                            gameID,
-                            gameToJoin.whiteUsername(),
-                            username,
-                            gameToJoin.gameName(),
-                            gameToJoin.game()
-                    )
-            );
-        }
-        else {
+        if (joined == null) {
             throw new UserExistsException("already taken");
         }
-        return gameDAO.getGame(gameID);
+        announce(LobbyEventMessage.Kind.SEAT_TAKEN, gameID);
+        return joined;
     }
 
     public void clearGames() throws BadRequestException {
+        games.clear();
         gameDAO.clear();
     }
+
+    /**
+     * Tells the lobby about a change to the game already written to the database
+     */
+    public void announce(LobbyEventMessage.Kind kind, int gameID) throws DataAccessException {
+        if (lobby.hasSubscribers()) {
+            lobby.publish(kind, gameDAO.readSummary(gameID));
+        }
+    }
 }
\ No newline at end of file
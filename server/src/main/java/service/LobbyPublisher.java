@@ -0,0 +1,34 @@
+package service;
+
+import model.GameSummary;
+import websocket.messages.LobbyEventMessage;
+
+/**
+ * Where the services send news of games changing, for the clients watching the lobby
+ */
+public interface LobbyPublisher {
+    /**
+     * For when no one can be watching, such as in tests
+     */
+    LobbyPublisher NONE = new LobbyPublisher() {
+        @Override
+        public boolean hasSubscribers() {
+            return false;
+        }
+
+        @Override
+        public void publish(LobbyEventMessage.Kind kind, GameSummary game) {
+        }
+    };
+
+    /**
+     * @return whether anyone is listening, so callers can skip reading the
+     * game's summary when no one is
+     */
+    boolean hasSubscribers();
+
+    /**
+     * @param game the game after the change
+     */
+    void publish(LobbyEventMessage.Kind kind, GameSummary game);
+}
@@ -0,0 +1,81 @@
+package dataaccess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthCacheTests {
+    private static final long NEVER = 60_000;
+
+    private final Map<String, String> table = new ConcurrentHashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private AuthCache cache(AuthCache.Settings settings) {
+        return new AuthCache(this::load, settings);
+    }
+
+    private String load(String authToken) {
+        loads.incrementAndGet();
+        return table.get(authToken);
+    }
+
+    @Test
+    void loadsOnce() throws Exception {
+        table.put("token", "user");
+        var cache = cache(new AuthCache.Settings(NEVER, NEVER, 10));
+        assertEquals("user", cache.getUsername("token"));
+        assertEquals("user", cache.getUsername("token"));
+        assertEquals(1, loads.get());
+        assertEquals(0.5, cache.stats().hitRate());
+    }
+
+    @Test
+    void remembersBadTokens() throws Exception {
+        var cache = cache(new AuthCache.Settings(NEVER, NEVER, 10));
+        assertNull(cache.getUsername("bad"));
+        assertNull(cache.getUsername("bad"));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().negativeHits());
+    }
+
+    @Test
+    void forgetsAfterTtl() throws Exception {
+        table.put("token", "user");
+        var cache = cache(new AuthCache.Settings(0, 0, 10));
+        cache.getUsername("token");
+        cache.getUsername("bad");
+        cache.getUsername("token");
+        assertEquals(3, loads.get());
+        assertEquals(0, cache.stats().cached());
+    }
+
+    @Test
+    void invalidateDropsToken() throws Exception {
+        var cache = cache(new AuthCache.Settings(NEVER, NEVER, 10));
+        cache.put("token", "user");
+        assertEquals("user", cache.getUsername("token"));
+        assertEquals(0, loads.get(), "A token just created is already known");
+
+        cache.invalidate("token");
+        assertNull(cache.getUsername("token"));
+        cache.put("other", "user");
+        cache.invalidateAll();
+        assertNull(cache.getUsername("other"));
+        assertEquals(3, cache.stats().invalidations(), "Clearing also drops the bad token remembered above");
+    }
+
+    @Test
+    void staysWithinMaxTokens() throws Exception {
+        var cache = cache(new AuthCache.Settings(NEVER, NEVER, 10));
+        for (int i = 0; i < 25; i++) {
+            cache.put("token" + i, "user");
+        }
+        assertTrue(cache.stats().cached() <= 10);
+        assertTrue(cache.stats().evictions() > 0);
+        assertEquals("user", cache.getUsername("token24"), "The newest tokens are kept");
+    }
+}
@@ -0,0 +1,180 @@
+package dataaccess;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTests {
+    private final AtomicInteger physicalCloses = new AtomicInteger();
+    private final AtomicBoolean valid = new AtomicBoolean(true);
+    private final AtomicInteger prepares = new AtomicInteger();
+    private final AtomicInteger statementCloses = new AtomicInteger();
+    private ConnectionPool pool;
+
+    // A stand-in for a MySQL connection that only knows whether it is open
+    private Connection fakeConnection() {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        closed.set(true);
+                        physicalCloses.incrementAndGet();
+                        yield null;
+                    }
+                    case "isClosed" -> closed.get();
+                    case "isValid" -> valid.get();
+                    case "getAutoCommit" -> true;
+                    case "getCatalog" -> "chess";
+                    case "prepareStatement" -> fakeStatement();
+                    default -> null;
+                });
+    }
+
+    private PreparedStatement fakeStatement() {
+        prepares.incrementAndGet();
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        statementCloses.incrementAndGet();
+                        yield null;
+                    }
+                    case "isClosed", "execute" -> false;
+                    default -> null;
+                });
+    }
+
+    private ConnectionPool pool(ConnectionPool.Settings settings) {
+        pool = new ConnectionPool(this::fakeConnection, settings);
+        return pool;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void reusesReturnedConnections() throws Exception {
+        var pool = pool(ConnectionPool.Settings.DEFAULT);
+        for (int i = 0; i < 5; i++) {
+            try (Connection connection = pool.borrow()) {
+                assertEquals("chess", connection.getCatalog());
+            }
+        }
+        var stats = pool.stats();
+        assertEquals(5, stats.borrows());
+        assertEquals(1, stats.opened());
+        assertEquals(1, stats.idle());
+        assertEquals(0, stats.inUse());
+        assertEquals(0, physicalCloses.get());
+    }
+
+    @Test
+    void waitsThenTimesOutWhenExhausted() throws Exception {
+        var pool = pool(new ConnectionPool.Settings(1, 50, 30_000, 60_000, 60_000, false, 32));
+        try (Connection ignored = pool.borrow()) {
+            assertThrows(DataAccessException.class, pool::borrow);
+        }
+        var stats = pool.stats();
+        assertEquals(1, stats.waits());
+        assertEquals(1, stats.timeouts());
+        assertTrue(stats.waitNanos() > 0);
+
+        try (Connection connection = pool.borrow()) {
+            assertFalse(connection.isClosed(), "The connection is free again once returned");
+        }
+    }
+
+    @Test
+    void closedLoanCannotBeUsed() throws Exception {
+        var pool = pool(ConnectionPool.Settings.DEFAULT);
+        Connection connection = pool.borrow();
+        connection.close();
+        connection.close();
+        assertTrue(connection.isClosed());
+        assertThrows(SQLException.class, connection::getCatalog);
+        assertEquals(1, pool.stats().idle(), "Closing twice returns the connection once");
+    }
+
+    @Test
+    void retiresOldAndInvalidConnections() throws Exception {
+        var pool = pool(new ConnectionPool.Settings(2, 1_000, 0, 60_000, 60_000, false, 32));
+        pool.borrow().close();
+        valid.set(false);
+        pool.borrow().close();
+        assertEquals(2, pool.stats().opened());
+        assertEquals(1, pool.stats().retired());
+
+        try (var shortLived = new ConnectionPool(this::fakeConnection, new ConnectionPool.Settings(2, 1_000, 30_000, 0, 60_000, false, 32))) {
+            shortLived.borrow().close();
+            assertEquals(0, shortLived.stats().idle(), "Connections past their lifetime are not reused");
+        }
+    }
+
+    @Test
+    void reusesPreparedStatements() throws Exception {
+        var pool = pool(ConnectionPool.Settings.DEFAULT);
+        for (int i = 0; i < 3; i++) {
+            try (Connection connection = pool.borrow();
+                 PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM auth WHERE authToken = ?")) {
+                statement.setString(1, "token" + i);
+                statement.execute();
+            }
+        }
+        assertEquals(1, prepares.get());
+        assertEquals(0, statementCloses.get());
+        assertEquals(2, pool.stats().statementHits());
+        assertEquals(1, pool.stats().statementMisses());
+
+        try (Connection connection = pool.borrow();
+             PreparedStatement outer = connection.prepareStatement("SELECT 1 FROM auth WHERE authToken = ?");
+             PreparedStatement inner = connection.prepareStatement("SELECT 1 FROM auth WHERE authToken = ?")) {
+            assertNotSame(outer, inner, "A statement still open is not handed out twice");
+            assertEquals(2, prepares.get());
+        }
+    }
+
+    @Test
+    void closedStatementCannotBeUsed() throws Exception {
+        var pool = pool(ConnectionPool.Settings.DEFAULT);
+        try (Connection connection = pool.borrow()) {
+            PreparedStatement statement = connection.prepareStatement("SELECT 1");
+            statement.close();
+            assertTrue(statement.isClosed());
+            assertThrows(SQLException.class, statement::execute);
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedStatements() throws Exception {
+        var pool = pool(new ConnectionPool.Settings(1, 1_000, 30_000, 60_000, 60_000, false, 2));
+        try (Connection connection = pool.borrow()) {
+            connection.prepareStatement("SELECT a").close();
+            connection.prepareStatement("SELECT b").close();
+            connection.prepareStatement("SELECT a").close();
+            connection.prepareStatement("SELECT c").close();
+            connection.prepareStatement("SELECT a").close();
+        }
+        assertEquals(3, prepares.get(), "SELECT b was the least recently used");
+        assertEquals(1, statementCloses.get());
+        assertEquals(1, pool.stats().statementEvictions());
+    }
+
+    @Test
+    void reportsLeaks() throws Exception {
+        var pool = pool(new ConnectionPool.Settings(2, 1_000, 30_000, 60_000, 20, false, 32));
+        try (Connection ignored = pool.borrow()) {
+            Thread.sleep(200);
+        }
+        assertEquals(1, pool.stats().leaks());
+    }
+}
@@ -1,11 +1,21 @@
 package dataaccess.DAO;
 
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
 import dataaccess.exceptions.BadRequestException;
 import dataaccess.DataAccessException;
+import dataaccess.MoveLog;
 import model.GameData;
+import model.GameList;
+import model.GameQuery;
+import model.GameSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 class GameDAOTest {
@@ -75,6 +85,75 @@ class GameDAOTest {
         assertThrows(DataAccessException.class, () -> gameDAO.updateGame(gameTwo));
     }
 
+    @Test
+    void appendMoves() throws DataAccessException, InvalidMoveException {
+        GameData game = gameDAO.createGame("Testing");
+        ChessGame chessGame = game.game();
+        String[] knights = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        for (int i = 0; i < MoveLog.SNAPSHOT_INTERVAL + 3; i++) {
+            ChessMove move = ChessMove.fromUci(knights[i % knights.length]);
+            chessGame.makeMove(move);
+            gameDAO.appendMove(game.gameID(), move, chessGame);
+        }
+        assertEquals(chessGame.toFen(), gameDAO.getGame(game.gameID()).game().toFen());
+    }
+
+    @Test
+    void appendSameMoveTwice() throws DataAccessException, InvalidMoveException {
+        GameData game = gameDAO.createGame("Testing");
+        ChessMove move = ChessMove.fromUci("e2e4");
+        game.game().makeMove(move);
+        gameDAO.appendMove(game.gameID(), move, game.game());
+        assertThrows(DataAccessException.class, () -> gameDAO.appendMove(game.gameID(), move, game.game()));
+    }
+
+    @Test
+    void readAllSummaries() throws DataAccessException, InvalidMoveException {
+        GameData game = gameDAO.createGame("Testing");
+        ChessMove move = ChessMove.fromUci("e2e4");
+        game.game().makeMove(move);
+        gameDAO.appendMove(game.gameID(), move, game.game());
+        Collection<GameSummary> summaries = gameDAO.readAllSummaries();
+        assertEquals(1, summaries.size());
+        GameSummary summary = summaries.iterator().next();
+        assertEquals("Testing", summary.gameName());
+        assertEquals(GameSummary.Status.IN_PROGRESS, summary.status());
+        assertEquals(1, summary.moveCount());
+    }
+
+    @Test
+    void readSummariesFiltered() throws DataAccessException, InvalidMoveException {
+        GameData open = gameDAO.createGame("Open");
+        GameData playing = gameDAO.createGame("Playing");
+        gameDAO.updateGame(new GameData(playing.gameID(), "white", "black", "Playing", playing.game()));
+        ChessMove move = ChessMove.fromUci("e2e4");
+        playing.game().makeMove(move);
+        gameDAO.appendMove(playing.gameID(), move, playing.game());
+
+        GameList openGames = gameDAO.readSummaries(new GameQuery(null, 10, GameQuery.Filter.OPEN, null, null));
+        assertEquals(List.of(open.gameID()), openGames.games().stream().map(GameSummary::gameID).toList());
+        GameList mine = gameDAO.readSummaries(new GameQuery(null, 10, GameQuery.Filter.IN_PROGRESS, "black", null));
+        assertEquals(List.of(playing.gameID()), mine.games().stream().map(GameSummary::gameID).toList());
+        assertNull(mine.next());
+    }
+
+    @Test
+    void readSummariesPaged() throws DataAccessException {
+        for (int i = 0; i < 5; i++) {
+            gameDAO.createGame("Game " + i);
+        }
+        GameQuery query = new GameQuery(null, 2, null, null, GameQuery.Sort.NEWEST);
+        List<Integer> seen = new ArrayList<>();
+        GameList page = gameDAO.readSummaries(query);
+        seen.addAll(page.games().stream().map(GameSummary::gameID).toList());
+        while (page.next() != null) {
+            page = gameDAO.readSummaries(query.after(page.next()));
+            seen.addAll(page.games().stream().map(GameSummary::gameID).toList());
+        }
+        assertEquals(5, seen.size());
+        assertEquals(seen.stream().sorted(Comparator.reverseOrder()).toList(), seen);
+    }
+
     @Test
     void clear() throws DataAccessException, BadRequestException {
         GameData gameOne = gameDAO.createGame("Clear Testing");
@@ -0,0 +1,323 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import model.GameData;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameCacheTests {
+    // Long enough that the background flusher stays out of the way
+    private static final long NEVER = 60_000;
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final List<List<ChessMove>> batches = new ArrayList<>();
+    private final List<GameData> saved = new ArrayList<>();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private GameCache cache;
+    private ChessGame.TeamColor toMove = ChessGame.TeamColor.WHITE;
+
+    private GameCache cache(GameCache.Settings settings) {
+        cache = new GameCache(this::load, this::write, this::save, settings);
+        return cache;
+    }
+
+    // Plays the moves on game 1, each by the side to move
+    private GameData play(String... moves) throws Exception {
+        GameData game = null;
+        for (String move : moves) {
+            game = cache.makeMove(1, ChessMove.fromUci(move), toMove);
+            toMove = game.game().getTeamTurn();
+        }
+        return game;
+    }
+
+    private GameData load(int gameID) {
+        loads.incrementAndGet();
+        return gameID == 1 ? new GameData(1, "white", "black", "game", new ChessGame()) : null;
+    }
+
+    private synchronized void write(int gameID, List<ChessMove> moves, ChessGame game) throws DataAccessException {
+        if (failing.get()) {
+            throw new DataAccessException("database is down");
+        }
+        batches.add(moves);
+    }
+
+    private synchronized void save(GameData game) throws DataAccessException {
+        if (failing.get()) {
+            throw new DataAccessException("database is down");
+        }
+        saved.add(game);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    @Test
+    void loadsOnce() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 20, NEVER, 10));
+        GameData first = cache.get(1);
+        GameData second = cache.get(1);
+        assertNotSame(first.game(), second.game(), "Each read gets its own copy");
+        assertEquals(first.game().toFen(), second.game().toFen());
+        assertNull(cache.get(2));
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.stats().hits());
+        assertEquals(2, cache.stats().misses());
+    }
+
+    @Test
+    void writesMovesInBatches() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 20, NEVER, 10));
+        play("e2e4");
+        play("e7e5");
+        assertTrue(batches.isEmpty(), "Moves wait for the flusher");
+        assertEquals(1, cache.stats().dirty());
+
+        cache.flush();
+        assertEquals(List.of(List.of(ChessMove.fromUci("e2e4"), ChessMove.fromUci("e7e5"))), batches);
+        assertEquals(2, cache.stats().movesWritten());
+        assertEquals(0, cache.stats().dirty());
+        assertEquals(2, cache.get(1).game().getPlyCount(), "The cached game stays authoritative");
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void writesStraightAwayAfterTooManyMoves() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 2, NEVER, 10));
+        play("g1f3");
+        assertTrue(batches.isEmpty());
+        play("g8f6");
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void illegalMoveChangesNothing() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 20, NEVER, 10));
+        assertThrows(InvalidMoveException.class, () -> play("e2e5"));
+        assertThrows(InvalidMoveException.class,
+                () -> cache.makeMove(1, ChessMove.fromUci("e7e5"), ChessGame.TeamColor.BLACK), "White is to move");
+        assertEquals(0, cache.stats().dirty());
+        assertEquals(0, cache.get(1).game().getPlyCount());
+        assertThrows(DataAccessException.class, () -> cache.makeMove(2, ChessMove.fromUci("e2e4"), toMove));
+    }
+
+    @Test
+    void keepsMovesThatFailToWrite() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 20, 0, 10));
+        play("e2e4");
+        failing.set(true);
+        cache.flush();
+        assertThrows(DataAccessException.class, () -> cache.invalidate(1));
+        assertEquals(2, cache.stats().failures());
+        assertEquals(1, cache.stats().cached(), "An unsaved game is not dropped");
+
+        failing.set(false);
+        cache.flush();
+        assertEquals(1, batches.size());
+        assertEquals(0, cache.stats().cached(), "Idle games are dropped once saved");
+    }
+
+    @Test
+    void invalidateWritesAndReloads() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 20, NEVER, 10));
+        play("e2e4");
+        cache.invalidate(1);
+        assertEquals(1, batches.size());
+        cache.get(1);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void dropsFinishedGames() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 20, NEVER, 10));
+        play("f2f3", "e7e5", "g2g4", "d8h4");
+        cache.flush();
+        assertEquals(4, cache.stats().movesWritten());
+        assertEquals(0, cache.stats().cached());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void dropsGamesFinishedByAWrittenMove() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 1, NEVER, 10));
+        play("f2f3", "e7e5", "g2g4", "d8h4");
+        assertEquals(0, cache.stats().dirty(), "Every move was written as it was made");
+        cache.flush();
+        assertEquals(0, cache.stats().cached());
+    }
+
+    @Test
+    void updateWritesMovesThenTheChange() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 20, NEVER, 10));
+        play("e2e4");
+        GameData left = cache.update(1, game -> new GameData(game.gameID(), null, game.blackUsername(),
+                game.gameName(), game.game()));
+
+        assertEquals(1, batches.size(), "Waiting moves are written before the change");
+        assertEquals(1, saved.size());
+        assertNull(saved.get(0).whiteUsername());
+        assertNull(left.whiteUsername());
+        assertNull(cache.get(1).whiteUsername(), "The cached game is the changed one");
+        assertEquals(1, cache.get(1).game().getPlyCount());
+        assertEquals(1, loads.get());
+        assertNull(cache.update(2, game -> game));
+    }
+
+    @Test
+    void updateThatChangesNothingSavesNothing() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 20, NEVER, 10));
+        assertNull(cache.update(1, unchanged -> unchanged), "Nothing was changed");
+        assertTrue(saved.isEmpty());
+    }
+
+    @Test
+    void failedUpdateChangesNothing() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 20, NEVER, 10));
+        failing.set(true);
+        assertThrows(DataAccessException.class, () -> cache.update(1, game -> {
+            game.game().setGameOver(true);
+            return new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), game.game());
+        }));
+        failing.set(false);
+        assertFalse(cache.get(1).game().isOver(), "The change was made on a copy");
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void resignedGameIsDropped() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 20, NEVER, 10));
+        cache.update(1, game -> {
+            game.game().setGameOver(true);
+            return new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), game.game());
+        });
+        assertThrows(InvalidMoveException.class, () -> play("e2e4"));
+        cache.flush();
+        assertEquals(0, cache.stats().cached());
+    }
+
+    @Test
+    void copiesDoNotReachTheCache() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 20, NEVER, 10));
+        GameData after = play("e2e4");
+        after.game().makeMove(ChessMove.fromUci("e7e5"));
+        cache.get(1).game().setGameOver(true);
+
+        GameData cached = cache.get(1);
+        assertEquals(1, cached.game().getPlyCount());
+        assertFalse(cached.game().isOver());
+    }
+
+    @Test
+    void movesAreMadeWhileABatchIsWritten() throws Exception {
+        var replied = new AtomicBoolean();
+        var cache = new GameCache(this::load, (gameID, moves, game) -> {
+            // A move made while the first batch is being saved must not wait for it
+            if (!replied.getAndSet(true)) {
+                try {
+                    this.cache.makeMove(1, ChessMove.fromUci("e7e5"), ChessGame.TeamColor.BLACK);
+                } catch (InvalidMoveException e) {
+                    throw new AssertionError(e);
+                }
+            }
+            write(gameID, moves, game);
+        }, this::save, new GameCache.Settings(NEVER, 20, NEVER, 10));
+        this.cache = cache;
+        play("e2e4");
+        var flushing = new Thread(cache::flush);
+        flushing.start();
+        flushing.join(2_000);
+        assertFalse(flushing.isAlive(), "The flush did not hold the game while writing");
+        assertEquals(List.of(List.of(ChessMove.fromUci("e2e4"))), batches);
+        assertEquals(1, cache.stats().dirty(), "The move made during the write waits for the next one");
+        assertEquals(2, cache.get(1).game().getPlyCount());
+    }
+
+    @Test
+    void changesAreSavedWithoutHoldingTheGame() throws Exception {
+        var cache = new GameCache(this::load, this::write, game -> {
+            var looking = new Thread(() -> this.cache.stats());
+            looking.start();
+            try {
+                looking.join(2_000);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            assertFalse(looking.isAlive(), "The save did not hold the game");
+            save(game);
+        }, new GameCache.Settings(NEVER, 20, NEVER, 10));
+        this.cache = cache;
+        cache.update(1, game -> new GameData(game.gameID(), null, game.blackUsername(), game.gameName(), game.game()));
+        assertEquals(1, saved.size());
+    }
+
+    @Test
+    void movesWaitForAChangeBeingSaved() throws Exception {
+        var moving = new Thread(() -> {
+            try {
+                cache.makeMove(1, ChessMove.fromUci("e2e4"), ChessGame.TeamColor.WHITE);
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        var cache = new GameCache(this::load, this::write, game -> {
+            moving.start();
+            try {
+                moving.join(200);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            assertTrue(moving.isAlive(), "The move waits for the change");
+            save(game);
+        }, new GameCache.Settings(NEVER, 20, NEVER, 10));
+        this.cache = cache;
+        cache.update(1, game -> new GameData(game.gameID(), null, game.blackUsername(), game.gameName(), game.game()));
+        moving.join(2_000);
+
+        GameData after = cache.get(1);
+        assertEquals(1, after.game().getPlyCount(), "The move was made after the change");
+        assertNull(after.whiteUsername());
+    }
+
+    @Test
+    void clearDropsWaitingMoves() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 20, NEVER, 10));
+        play("e2e4");
+        cache.clear();
+        cache.flush();
+        assertTrue(batches.isEmpty());
+        assertEquals(0, cache.stats().cached());
+    }
+
+    @Test
+    void writesOnClose() throws Exception {
+        var cache = cache(new GameCache.Settings(NEVER, 20, NEVER, 10));
+        play("e2e4");
+        cache.close();
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void backgroundFlusher() throws Exception {
+        var cache = cache(new GameCache.Settings(10, 20, NEVER, 10)).start();
+        play("e2e4");
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (cache.stats().dirty() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, cache.stats().dirty());
+        assertEquals(1, cache.stats().flushes());
+    }
+}
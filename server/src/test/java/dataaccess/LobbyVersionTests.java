@@ -0,0 +1,40 @@
+package dataaccess;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LobbyVersionTests {
+    @Test
+    void bumpChangesTheTag() {
+        String before = LobbyVersion.etag();
+        assertEquals(before, LobbyVersion.etag());
+        LobbyVersion.bump();
+        assertNotEquals(before, LobbyVersion.etag());
+    }
+
+    @Test
+    void movesChangeOnlyTheActivityTag() {
+        String plain = LobbyVersion.etag(false);
+        String byActivity = LobbyVersion.etag(true);
+        LobbyVersion.bumpActivity();
+        assertEquals(plain, LobbyVersion.etag(false));
+        assertNotEquals(byActivity, LobbyVersion.etag(true));
+
+        byActivity = LobbyVersion.etag(true);
+        LobbyVersion.bump();
+        assertNotEquals(byActivity, LobbyVersion.etag(true));
+    }
+
+    @Test
+    void matchesIfNoneMatch() {
+        String etag = LobbyVersion.etag();
+        String strong = etag.substring(2);
+        assertTrue(LobbyVersion.matches(etag, etag));
+        assertTrue(LobbyVersion.matches(strong, etag), "Conditional GETs compare tags weakly");
+        assertTrue(LobbyVersion.matches("W/\"1\", " + etag, etag));
+        assertTrue(LobbyVersion.matches("*", etag));
+        assertFalse(LobbyVersion.matches("W/\"1\"", etag));
+        assertFalse(LobbyVersion.matches(null, etag));
+    }
+}
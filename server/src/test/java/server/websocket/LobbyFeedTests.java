@@ -0,0 +1,69 @@
+package server.websocket;
+
+import model.GameSummary;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.junit.jupiter.api.*;
+import serialization.Serializer;
+import websocket.messages.LobbyEventMessage;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LobbyFeedTests {
+    private static final GameSummary GAME = new GameSummary(1, "game", null, null, GameSummary.Status.NEW, 0, 0);
+
+    private final LobbyFeed lobby = new LobbyFeed();
+
+    // A stand-in for a Jetty session that keeps what is sent to it
+    private Session fakeSession(List<String> sent, AtomicBoolean open) {
+        var remote = (RemoteEndpoint) Proxy.newProxyInstance(RemoteEndpoint.class.getClassLoader(),
+                new Class<?>[]{RemoteEndpoint.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("sendStringByFuture")) {
+                        sent.add((String) args[0]);
+                    }
+                    return null;
+                });
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isOpen" -> open.get();
+                    case "getRemote" -> remote;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> null;
+                });
+    }
+
+    @Test
+    void sendsNumberedEventsToSubscribers() {
+        List<String> sent = new ArrayList<>();
+        Session session = fakeSession(sent, new AtomicBoolean(true));
+        assertFalse(lobby.hasSubscribers());
+        lobby.subscribe(session);
+        lobby.publish(LobbyEventMessage.Kind.GAME_CREATED, GAME);
+        lobby.publish(LobbyEventMessage.Kind.SEAT_TAKEN, GAME);
+
+        assertEquals(2, sent.size());
+        var first = Serializer.fromJson(sent.get(0), LobbyEventMessage.class);
+        var second = Serializer.fromJson(sent.get(1), LobbyEventMessage.class);
+        assertEquals(LobbyEventMessage.Kind.GAME_CREATED, first.getKind());
+        assertEquals(first.getSequence() + 1, second.getSequence());
+
+        lobby.unsubscribe(session);
+        lobby.publish(LobbyEventMessage.Kind.GAME_FINISHED, GAME);
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    void dropsClosedSessions() {
+        List<String> sent = new ArrayList<>();
+        lobby.subscribe(fakeSession(sent, new AtomicBoolean(false)));
+        lobby.publish(LobbyEventMessage.Kind.GAME_CREATED, GAME);
+        assertTrue(sent.isEmpty());
+        assertFalse(lobby.hasSubscribers());
+    }
+}
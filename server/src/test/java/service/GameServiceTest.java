@@ -2,15 +2,21 @@ package service;
 
 import dataaccess.exceptions.*;
 import dataaccess.DataAccessException;
+import dataaccess.GameCache;
 import dataaccess.DAO.GameDAO;
 import dataaccess.DAO.MemoryAuthDAO;
 import dataaccess.DAO.MemoryUserDAO;
 import model.AuthData;
 import model.GameData;
+import model.GameList;
+import model.GameQuery;
+import model.GameSummary;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +26,7 @@ class GameServiceTest {
     private GameDAO memoryGameDAO;
     private MemoryUserDAO memoryUserDAO;
     private AuthData authData;
+    private GameCache games;
     private GameService gameService;
 
     @BeforeEach
@@ -28,7 +35,14 @@ class GameServiceTest {
         memoryGameDAO = new GameDAO();
         memoryUserDAO = new MemoryUserDAO();
         authData = memoryAuthDAO.createAuth("gameTester");
-        gameService = new GameService(memoryGameDAO);
+        games = new GameCache(memoryGameDAO::getGame, memoryGameDAO::appendMoves, memoryGameDAO::updateGame,
+                GameCache.Settings.DEFAULT);
+        gameService = new GameService(memoryGameDAO, games, LobbyPublisher.NONE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        games.close();
     }
 
     @Test
@@ -46,7 +60,7 @@ class GameServiceTest {
 
     @Test
     void listAllGamesNoGames() throws DataAccessException {
-        Collection<GameData> test = gameService.listAllGames();
+        Collection<GameSummary> test = gameService.listAllGames(GameQuery.DEFAULT).games();
         assertEquals(0, test.size());
     }
 
@@ -56,10 +70,24 @@ class GameServiceTest {
         GameData testGame2 = new GameData(0, null, null, "GameTwo", null);
         gameService.createGame(testGame);
         gameService.createGame(testGame2);
-        Collection<GameData> test = gameService.listAllGames();
+        Collection<GameSummary> test = gameService.listAllGames(GameQuery.DEFAULT).games();
         assertEquals(2, test.size());
     }
 
+    @Test
+    void listAllGamesPaged() throws DataAccessException, BadRequestException {
+        for (String name : new String[]{"GameOne", "GameTwo", "GameThree"}) {
+            gameService.createGame(new GameData(0, null, null, name, null));
+        }
+        GameQuery query = new GameQuery(null, 2, GameQuery.Filter.ALL, null, GameQuery.Sort.NAME);
+        GameList first = gameService.listAllGames(query);
+        assertEquals(List.of("GameOne", "GameThree"), first.games().stream().map(GameSummary::gameName).toList());
+        assertNotNull(first.next());
+        GameList second = gameService.listAllGames(query.after(first.next()));
+        assertEquals(List.of("GameTwo"), second.games().stream().map(GameSummary::gameName).toList());
+        assertNull(second.next());
+    }
+
     @Test
     void joinGameWhite() throws BadRequestException, UserExistsException, DataAccessException {
         GameData testGame = new GameData(0, null, null, "TestJoin", null);
@@ -89,6 +117,6 @@ class GameServiceTest {
     void clearGames() throws DataAccessException, BadRequestException {
         GameData testGame = new GameData(0, null, null, "Test", null);
         gameService.clearGames();
-        assertTrue(gameService.listAllGames().isEmpty());
+        assertTrue(gameService.listAllGames(GameQuery.DEFAULT).games().isEmpty());
     }
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package chess;
+
+/**
+ * Helpers and precomputed attack tables for the 64-bit board representation.
+ * <p>
+ * Square 0 is row 1, column 1 (a1) and square 63 is row 8, column 8 (h8), so
+ * bit {@code (row - 1) * 8 + (column - 1)} of a bitboard marks that square.
+ */
+public final class Bitboards {
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_2 = RANK_1 << 8;
+    public static final long RANK_7 = RANK_1 << 48;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private static final int[][] KNIGHT_STEPS = {
+            {2, -1}, {-2, -1}, {2, 1}, {-2, 1}, {1, -2}, {1, 2}, {-1, -2}, {-1, 2}
+    };
+    private static final int[][] KING_STEPS = {
+            {1, 0}, {0, 1}, {-1, 0}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+    };
+
+    private static final int[][] DIRECTIONS = {
+            {1, 0}, {0, 1}, {-1, 0}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+    };
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = stepAttacks(square, KNIGHT_STEPS);
+            KING_ATTACKS[square] = stepAttacks(square, KING_STEPS);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = stepAttacks(square, new int[][]{{1, -1}, {1, 1}});
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = stepAttacks(square, new int[][]{{-1, -1}, {-1, 1}});
+            initLines(square);
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    public static int square(int row, int column) {
+        return (row - 1) * 8 + (column - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static ChessPosition position(int square) {
+        return ChessPosition.of(row(square), column(square));
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given color standing on {@code square} attacks
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    public static long bishopAttacks(int square, long occupied) {
+        return MagicBitboards.bishopAttacks(square, occupied);
+    }
+
+    public static long rookAttacks(int square, long occupied) {
+        return MagicBitboards.rookAttacks(square, occupied);
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return bishopAttacks(square, occupied) | rookAttacks(square, occupied);
+    }
+
+    /**
+     * @return the squares strictly between two squares on a shared row, column
+     * or diagonal, or 0 if they do not share one
+     */
+    public static long between(int first, int second) {
+        return BETWEEN[first][second];
+    }
+
+    /**
+     * @return the whole row, column or diagonal through both squares, or 0 if
+     * they do not share one
+     */
+    public static long line(int first, int second) {
+        return LINE[first][second];
+    }
+
+    /**
+     * Computes every square attacked by the given team, including squares
+     * occupied by its own pieces
+     */
+    public static long attackedSquares(ChessBoard board, ChessGame.TeamColor color) {
+        long occupied = board.getOccupancy();
+        long attacks = 0;
+
+        long pawns = board.getPieces(color, ChessPiece.PieceType.PAWN);
+        if (color == ChessGame.TeamColor.WHITE) {
+            attacks |= ((pawns & ~FILE_A) << 7) | ((pawns & ~FILE_H) << 9);
+        } else {
+            attacks |= ((pawns & ~FILE_H) >>> 7) | ((pawns & ~FILE_A) >>> 9);
+        }
+
+        for (long knights = board.getPieces(color, ChessPiece.PieceType.KNIGHT); knights != 0; knights &= knights - 1) {
+            attacks |= knightAttacks(Long.numberOfTrailingZeros(knights));
+        }
+        long diagonal = board.getPieces(color, ChessPiece.PieceType.BISHOP) | board.getPieces(color, ChessPiece.PieceType.QUEEN);
+        for (; diagonal != 0; diagonal &= diagonal - 1) {
+            attacks |= bishopAttacks(Long.numberOfTrailingZeros(diagonal), occupied);
+        }
+        long straight = board.getPieces(color, ChessPiece.PieceType.ROOK) | board.getPieces(color, ChessPiece.PieceType.QUEEN);
+        for (; straight != 0; straight &= straight - 1) {
+            attacks |= rookAttacks(Long.numberOfTrailingZeros(straight), occupied);
+        }
+        for (long kings = board.getPieces(color, ChessPiece.PieceType.KING); kings != 0; kings &= kings - 1) {
+            attacks |= kingAttacks(Long.numberOfTrailingZeros(kings));
+        }
+        return attacks;
+    }
+
+    /**
+     * Finds the pieces of the given team that attack a square, by looking outward
+     * from the square with each piece's attack pattern
+     *
+     * @param occupied the blockers to use for sliding attacks
+     */
+    public static long attackersOf(ChessBoard board, int square, ChessGame.TeamColor color, long occupied) {
+        ChessGame.TeamColor defender = color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long queens = board.getPieces(color, ChessPiece.PieceType.QUEEN);
+        return (pawnAttacks(defender, square) & board.getPieces(color, ChessPiece.PieceType.PAWN))
+                | (knightAttacks(square) & board.getPieces(color, ChessPiece.PieceType.KNIGHT))
+                | (kingAttacks(square) & board.getPieces(color, ChessPiece.PieceType.KING))
+                | (bishopAttacks(square, occupied) & (board.getPieces(color, ChessPiece.PieceType.BISHOP) | queens))
+                | (rookAttacks(square, occupied) & (board.getPieces(color, ChessPiece.PieceType.ROOK) | queens));
+    }
+
+    private static void initLines(int square) {
+        for (int[] direction : DIRECTIONS) {
+            long line = (1L << square) | walk(square, direction[0], direction[1]) | walk(square, -direction[0], -direction[1]);
+            long ray = 0;
+            int row = row(square) + direction[0];
+            int column = column(square) + direction[1];
+            while (row >= 1 && row <= 8 && column >= 1 && column <= 8) {
+                int target = square(row, column);
+                BETWEEN[square][target] = ray;
+                LINE[square][target] = line;
+                ray |= 1L << target;
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+    }
+
+    private static long walk(int square, int rowStep, int columnStep) {
+        long ray = 0;
+        int row = row(square) + rowStep;
+        int column = column(square) + columnStep;
+        while (row >= 1 && row <= 8 && column >= 1 && column <= 8) {
+            ray |= 1L << square(row, column);
+            row += rowStep;
+            column += columnStep;
+        }
+        return ray;
+    }
+
+    private static long stepAttacks(int square, int[][] steps) {
+        long attacks = 0;
+        for (int[] step : steps) {
+            int row = row(square) + step[0];
+            int column = column(square) + step[1];
+            if (row >= 1 && row <= 8 && column >= 1 && column <= 8) {
+                attacks |= 1L << square(row, column);
+            }
+        }
+        return attacks;
+    }
+}
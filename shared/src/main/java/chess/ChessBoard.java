@@ -1,20 +1,94 @@
 package chess;
 
 import java.util.Arrays;
-import java.util.Objects;
 
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * The board is stored as one 64-bit occupancy mask per piece type and color
+ * (see {@link Bitboards} for the square numbering), plus aggregate masks per
+ * team and for the whole board. {@link #getPiece} and {@link #addPiece} are
+ * views over those masks.
+ * <p>
+ * The board also tracks the castling rights, en passant square and halfmove
+ * clock, and {@link #doMove}/{@link #undoMove} apply and take back moves using
+ * a preallocated stack of packed primitive undo records.
+ * <p>
+ * A Zobrist key of the piece placement is kept up to date as pieces are added,
+ * moved and taken back, which makes {@link #equals} and {@link #hashCode}
+ * constant time; {@link #getZobristKey()} adds castling rights and en passant.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessBoard {
-    private ChessPiece[][] squares = new ChessPiece[8][8];
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    private static final int ALL_CASTLING = 15;
+
+    /** Castling rights that survive a move starting or ending on each square */
+    private static final int[] CASTLING_MASK = new int[64];
+    private static final int UNDO_CAPACITY = 32;
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[Bitboards.square(1, 5)] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[Bitboards.square(1, 1)] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[Bitboards.square(1, 8)] &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[Bitboards.square(8, 5)] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[Bitboards.square(8, 1)] &= ~BLACK_QUEENSIDE;
+        CASTLING_MASK[Bitboards.square(8, 8)] &= ~BLACK_KINGSIDE;
+    }
+
+    private final long[] pieces = new long[12];
+    private final long[] teams = new long[2];
+    private long occupied;
+
+    private int castlingRights;
+    private int enPassantSquare = -1;
+    private int halfmoveClock;
+
+    private transient long[] undoStack = new long[UNDO_CAPACITY];
+    private transient int[] undoVersions = new int[UNDO_CAPACITY];
+    private transient int undoSize;
+
+    /**
+     * Identifies the current arrangement of pieces so derived data can tell when
+     * it is stale. Every change takes a fresh number and undoMove restores the
+     * number the position had before.
+     */
+    private transient int version;
+    private transient int lastVersion;
+    private final transient long[] attackMaps = new long[2];
+    private transient int validAttackMaps;
+
+    /**
+     * Zobrist key of the piece placement, updated on every change once it has
+     * been computed. A board read by Gson starts without one.
+     */
+    private transient long pieceKey;
+    private transient boolean keyed;
 
     public ChessBoard() {
-        
+
+    }
+
+    /**
+     * Copies another board's position: its pieces, castling rights, en passant
+     * square and halfmove clock. The copy has no moves to undo.
+     */
+    ChessBoard(ChessBoard other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(other.teams, 0, teams, 0, teams.length);
+        occupied = other.occupied;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        pieceKey = other.pieceKey;
+        keyed = other.keyed;
     }
 
     /**
@@ -24,7 +98,17 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow() - 1][position.getColumn() - 1] = piece;
+        int square = Bitboards.square(position);
+        clearSquare(square);
+        if (piece != null) {
+            setSquare(square, index(piece.getTeamColor(), piece.getPieceType()));
+        }
+
+        // A king or rook placed on (or removed from) its home square grants (or drops) that castling right
+        int affected = ~CASTLING_MASK[square] & ALL_CASTLING;
+        if (affected != 0) {
+            castlingRights = (castlingRights & ~affected) | (homeCastlingRights() & affected);
+        }
     }
 
     /**
@@ -35,7 +119,130 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return squares[position.getRow() - 1][position.getColumn() - 1];
+        int index = pieceIndexAt(Bitboards.square(position));
+        return index < 0 ? null : ChessPiece.of(index);
+    }
+
+    /**
+     * @return the squares holding the given piece type of the given team
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[index(color, type)];
+    }
+
+    /**
+     * @return the squares holding any piece of the given team
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        return teams[color.ordinal()];
+    }
+
+    /**
+     * @return the squares holding any piece
+     */
+    public long getOccupancy() {
+        return occupied;
+    }
+
+    /**
+     * @return the castling rights still available, as a combination of
+     * {@link #WHITE_KINGSIDE}, {@link #WHITE_QUEENSIDE}, {@link #BLACK_KINGSIDE}
+     * and {@link #BLACK_QUEENSIDE}
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * @return the square a pawn skipped over on the last move, or null if the
+     * last move was not a two-square pawn advance
+     */
+    public ChessPosition getEnPassantPosition() {
+        return enPassantSquare < 0 ? null : Bitboards.position(enPassantSquare);
+    }
+
+    /**
+     * @return the number of moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Gets the Zobrist key of the position: the pieces, castling rights and, if a
+     * pawn could actually capture there, the en passant square. The side to move
+     * is not part of the board; see {@link ChessGame#getZobristKey()}.
+     *
+     * @return the 64-bit key, equal for equal positions
+     */
+    public long getZobristKey() {
+        long key = placementKey() ^ Zobrist.castling(castlingRights);
+        if (enPassantSquare >= 0) {
+            // The pawn that skipped the square is white when it lies on row 3, so black would capture
+            ChessGame.TeamColor pushed = Bitboards.row(enPassantSquare) == 3 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            ChessGame.TeamColor capturer = pushed == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            if ((Bitboards.pawnAttacks(pushed, enPassantSquare) & getPieces(capturer, ChessPiece.PieceType.PAWN)) != 0) {
+                key ^= Zobrist.enPassant(enPassantSquare);
+            }
+        }
+        return key;
+    }
+
+    int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights & ALL_CASTLING;
+        changed();
+    }
+
+    void setEnPassantSquare(int enPassantSquare) {
+        this.enPassantSquare = enPassantSquare;
+        changed();
+    }
+
+    void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    /**
+     * Gets every square the given team attacks. The map is kept until the
+     * pieces next change, so repeated queries on the same position are free.
+     *
+     * @param color the attacking team
+     * @return the attacked squares, including ones holding the team's own pieces
+     */
+    public long getAttackedSquares(ChessGame.TeamColor color) {
+        int bit = 1 << color.ordinal();
+        if ((validAttackMaps & bit) == 0) {
+            attackMaps[color.ordinal()] = Bitboards.attackedSquares(this, color);
+            validAttackMaps |= bit;
+        }
+        return attackMaps[color.ordinal()];
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square, by looking
+     * outward from the square for each kind of attacker
+     *
+     * @param position the square to test
+     * @param color    the attacking team
+     * @return True if the square is attacked
+     */
+    public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor color) {
+        return isSquareAttacked(Bitboards.square(position), color);
+    }
+
+    boolean isSquareAttacked(int square, ChessGame.TeamColor color) {
+        if ((validAttackMaps & (1 << color.ordinal())) != 0) {
+            return (attackMaps[color.ordinal()] & (1L << square)) != 0;
+        }
+        return Bitboards.attackersOf(this, square, color, occupied) != 0;
     }
 
     /**
@@ -43,47 +250,253 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                squares[i][j] = null;
-            }
-        }
+        Arrays.fill(pieces, 0);
+        Arrays.fill(teams, 0);
+        occupied = 0;
+        pieceKey = 0;
+        keyed = true;
+        castlingRights = 0;
+        enPassantSquare = -1;
+        halfmoveClock = 0;
+        undoSize = 0;
         for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
             initPieces(color);
         };
     }
 
     public void movePiece(ChessMove move) {
+        int start = Bitboards.square(move.getStartPosition());
+        int end = Bitboards.square(move.getEndPosition());
+
+        int initialPiece = pieceIndexAt(start);
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
 
-        int initialRow = move.getStartPosition().getRow() - 1;
-        int lastRow = move.getEndPosition().getRow() - 1;
+        clearSquare(start);
+        clearSquare(end);
+        if (initialPiece % 6 == ChessPiece.PieceType.PAWN.ordinal() && promotion != null)
+            setSquare(end, initialPiece - initialPiece % 6 + promotion.ordinal());
+        else
+            setSquare(end, initialPiece);
+    }
 
-        int initialCol = move.getStartPosition().getColumn() - 1;
-        int lastCol = move.getEndPosition().getColumn() - 1;
+    /**
+     * Makes a move, including captures, promotion, castling and en passant, and
+     * records what is needed to take it back with {@link #undoMove()}. The move
+     * is assumed to be at least pseudo-legal.
+     *
+     * @param move the move to make
+     */
+    public void doMove(ChessMove move) {
+        doMove(Move.of(move));
+    }
 
-        ChessPiece initialPiece = getPiece(move.getStartPosition());
+    /**
+     * Takes back the most recent move made with {@link #doMove}
+     */
+    public void undoMove() {
+        long record = undoStack[--undoSize];
+        int start = (int) (record & 63);
+        int end = (int) ((record >>> 6) & 63);
+        int moved = (int) ((record >>> 12) & 15);
+        int placed = (int) ((record >>> 16) & 15);
+        int captured = (int) ((record >>> 20) & 15) - 1;
+        int capturedSquare = (int) ((record >>> 24) & 63);
 
-        if (initialPiece.getPieceType() != ChessPiece.PieceType.PAWN)
-            squares[lastRow][lastCol] = initialPiece;
-        else if (move.getPromotionPiece() != null)
-            squares[lastRow][lastCol] = new ChessPiece(initialPiece.getTeamColor(), move.getPromotionPiece());
-        else
-            squares[lastRow][lastCol] = initialPiece;
+        togglePiece(placed, end);
+        togglePiece(moved, start);
+        if (captured >= 0) {
+            togglePiece(captured, capturedSquare);
+        }
+        if (moved % 6 == ChessPiece.PieceType.KING.ordinal() && Math.abs(end - start) == 2) {
+            moveCastlingRook(moved, start, end);
+        }
+
+        castlingRights = (int) ((record >>> 30) & 15);
+        enPassantSquare = (int) ((record >>> 34) & 127) - 1;
+        halfmoveClock = (int) (record >>> 41);
+        version = undoVersions[undoSize];
+    }
+
+    /**
+     * Makes a {@link Move}-encoded move; see {@link #doMove(ChessMove)}
+     */
+    void doMove(int move) {
+        int start = Move.start(move);
+        int end = Move.end(move);
+        int promotionType = Move.promotionType(move);
+        int moved = pieceIndexAt(start);
+        int captured = pieceIndexAt(end);
+        int capturedSquare = end;
+        int color = moved / 6;
+        int type = moved % 6;
+        boolean pawn = type == ChessPiece.PieceType.PAWN.ordinal();
+
+        if (pawn && end == enPassantSquare && captured < 0) {
+            capturedSquare = color == 0 ? end - 8 : end + 8;
+            captured = pieceIndexAt(capturedSquare);
+        }
+        int placed = pawn && promotionType >= 0 ? color * 6 + promotionType : moved;
+
+        if (undoSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+            undoVersions = Arrays.copyOf(undoVersions, undoVersions.length * 2);
+        }
+        undoVersions[undoSize] = version;
+        undoStack[undoSize++] = start
+                | (long) end << 6
+                | (long) moved << 12
+                | (long) placed << 16
+                | (long) (captured + 1) << 20
+                | (long) capturedSquare << 24
+                | (long) castlingRights << 30
+                | (long) (enPassantSquare + 1) << 34
+                | (long) halfmoveClock << 41;
+
+        if (captured >= 0) {
+            togglePiece(captured, capturedSquare);
+        }
+        togglePiece(moved, start);
+        togglePiece(placed, end);
+        if (type == ChessPiece.PieceType.KING.ordinal() && Math.abs(end - start) == 2) {
+            moveCastlingRook(moved, start, end);
+        }
+
+        castlingRights &= CASTLING_MASK[start] & CASTLING_MASK[end];
+        enPassantSquare = pawn && Math.abs(end - start) == 16 ? (start + end) / 2 : -1;
+        halfmoveClock = pawn || captured >= 0 ? 0 : halfmoveClock + 1;
+    }
+
+    /**
+     * Puts a piece on a square without re-deriving castling rights, for callers
+     * that set those themselves
+     */
+    void placePiece(int square, int index) {
+        clearSquare(square);
+        setSquare(square, index);
+    }
+
+    static int index(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /**
+     * @return the index into {@link #pieces} of the piece on the square, or -1 if it is empty
+     */
+    int pieceIndexAt(int square) {
+        long bit = 1L << square;
+        if ((occupied & bit) == 0) {
+            return -1;
+        }
+        int first = (teams[0] & bit) != 0 ? 0 : 6;
+        for (int i = first; i < first + 6; i++) {
+            if ((pieces[i] & bit) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void togglePiece(int index, int square) {
+        changed();
+        if (keyed) {
+            pieceKey ^= Zobrist.piece(index, square);
+        }
+        long bit = 1L << square;
+        pieces[index] ^= bit;
+        teams[index / 6] ^= bit;
+        occupied ^= bit;
+    }
+
+    private void changed() {
+        version = ++lastVersion;
+        validAttackMaps = 0;
+    }
+
+    /**
+     * Moves the rook that castles with the king, or moves it back when called a second time
+     */
+    private void moveCastlingRook(int king, int start, int end) {
+        int rook = king - ChessPiece.PieceType.KING.ordinal() + ChessPiece.PieceType.ROOK.ordinal();
+        if (end > start) {
+            togglePiece(rook, start + 3);
+            togglePiece(rook, start + 1);
+        } else {
+            togglePiece(rook, start - 4);
+            togglePiece(rook, start - 1);
+        }
+    }
+
+    private int homeCastlingRights() {
+        int rights = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            int row = color == ChessGame.TeamColor.WHITE ? 1 : 8;
+            int kingside = color == ChessGame.TeamColor.WHITE ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+            int queenside = color == ChessGame.TeamColor.WHITE ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+            long rooks = getPieces(color, ChessPiece.PieceType.ROOK);
+            if ((getPieces(color, ChessPiece.PieceType.KING) & (1L << Bitboards.square(row, 5))) != 0) {
+                if ((rooks & (1L << Bitboards.square(row, 8))) != 0) {
+                    rights |= kingside;
+                }
+                if ((rooks & (1L << Bitboards.square(row, 1))) != 0) {
+                    rights |= queenside;
+                }
+            }
+        }
+        return rights;
+    }
+
+    private void setSquare(int square, int index) {
+        changed();
+        if (keyed) {
+            pieceKey ^= Zobrist.piece(index, square);
+        }
+        long bit = 1L << square;
+        pieces[index] |= bit;
+        teams[index / 6] |= bit;
+        occupied |= bit;
+    }
 
-        squares[initialRow][initialCol] = null;
+    private void clearSquare(int square) {
+        long bit = 1L << square;
+        if ((occupied & bit) == 0) {
+            return;
+        }
+        changed();
+        if (keyed) {
+            pieceKey ^= Zobrist.piece(pieceIndexAt(square), square);
+        }
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] &= ~bit;
+        }
+        teams[0] &= ~bit;
+        teams[1] &= ~bit;
+        occupied &= ~bit;
+    }
+
+    private long placementKey() {
+        if (!keyed) {
+            pieceKey = 0;
+            for (int index = 0; index < pieces.length; index++) {
+                for (long bits = pieces[index]; bits != 0; bits &= bits - 1) {
+                    pieceKey ^= Zobrist.piece(index, Long.numberOfTrailingZeros(bits));
+                }
+            }
+            keyed = true;
+        }
+        return pieceKey;
     }
 
     private void initPieces(ChessGame.TeamColor teamColor) {
 
-        int frontRow = teamColor == ChessGame.TeamColor.BLACK ? 6 : 1;
-        int backRow = teamColor == ChessGame.TeamColor.BLACK ? 7 : 0;
+        int frontRow = teamColor == ChessGame.TeamColor.BLACK ? 7 : 2;
+        int backRow = teamColor == ChessGame.TeamColor.BLACK ? 8 : 1;
 
-        ChessPiece bishop = new ChessPiece(teamColor, ChessPiece.PieceType.BISHOP);
-        ChessPiece king = new ChessPiece(teamColor, ChessPiece.PieceType.KING);
-        ChessPiece knight = new ChessPiece(teamColor, ChessPiece.PieceType.KNIGHT);
-        ChessPiece pawn = new ChessPiece(teamColor, ChessPiece.PieceType.PAWN);
-        ChessPiece queen = new ChessPiece(teamColor, ChessPiece.PieceType.QUEEN);
-        ChessPiece rook = new ChessPiece(teamColor, ChessPiece.PieceType.ROOK);
+        ChessPiece bishop = ChessPiece.of(teamColor, ChessPiece.PieceType.BISHOP);
+        ChessPiece king = ChessPiece.of(teamColor, ChessPiece.PieceType.KING);
+        ChessPiece knight = ChessPiece.of(teamColor, ChessPiece.PieceType.KNIGHT);
+        ChessPiece pawn = ChessPiece.of(teamColor, ChessPiece.PieceType.PAWN);
+        ChessPiece queen = ChessPiece.of(teamColor, ChessPiece.PieceType.QUEEN);
+        ChessPiece rook = ChessPiece.of(teamColor, ChessPiece.PieceType.ROOK);
 
         initPawns(frontRow, pawn);
 
@@ -91,20 +504,20 @@ public class ChessBoard {
     }
 
     private void initPawns(int row, ChessPiece pawn) {
-        for (int i = 0; i < 8; i++) {
-            squares[row][i] = pawn;
+        for (int i = 1; i <= 8; i++) {
+            addPiece(ChessPosition.of(row, i), pawn);
         }
     }
 
     private void initBackRow(int row, ChessPiece rook, ChessPiece knight, ChessPiece bishop, ChessPiece queen, ChessPiece king) {
-        squares[row][0] = rook;
-        squares[row][1] = knight;
-        squares[row][2] = bishop;
-        squares[row][3] = queen;
-        squares[row][4] = king;
-        squares[row][5] = bishop;
-        squares[row][6] = knight;
-        squares[row][7] = rook;
+        addPiece(ChessPosition.of(row, 1), rook);
+        addPiece(ChessPosition.of(row, 2), knight);
+        addPiece(ChessPosition.of(row, 3), bishop);
+        addPiece(ChessPosition.of(row, 4), queen);
+        addPiece(ChessPosition.of(row, 5), king);
+        addPiece(ChessPosition.of(row, 6), bishop);
+        addPiece(ChessPosition.of(row, 7), knight);
+        addPiece(ChessPosition.of(row, 8), rook);
     }
 
     @Override
@@ -112,11 +525,11 @@ public class ChessBoard {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(squares, that.squares);
+        return placementKey() == that.placementKey() && Arrays.equals(pieces, that.pieces);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(placementKey());
     }
 }
@@ -1,6 +1,7 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 
 /**
@@ -10,8 +11,25 @@ import java.util.Collection;
  * signature of the existing methods.
  */
 public class ChessGame {
+    private static final int FIFTY_MOVES = 100;
+
     private ChessBoard board;
     private TeamColor teamTurn;
+    private int fullmoveNumber = 1;
+
+    // Zobrist keys of the positions reached since the board was set, oldest first
+    private long[] positionKeys = new long[16];
+    private int positionCount;
+    // How many times the latest position has occurred, counted when it was recorded
+    private int repetitions;
+    // Set by mate, stalemate, either draw rule or a resignation; no more moves are taken after it
+    private boolean over;
+
+    private final transient MoveList moveBuffer = new MoveList(64);
+
+    // Whether each team has a legal move, valid while the board version matches
+    private final transient boolean[] mobility = new boolean[2];
+    private final transient int[] mobilityVersion = {-1, -1};
 
     public ChessGame() {
         this.board = new ChessBoard();
@@ -19,6 +37,26 @@ public class ChessGame {
         board.resetBoard();
     }
 
+    ChessGame(ChessBoard board, TeamColor teamTurn) {
+        this.board = board;
+        this.teamTurn = teamTurn;
+    }
+
+    /**
+     * @return a game in the same position with the same history, which can be
+     * read and moved on without touching this one; even reading a game changes
+     * its caches, so a game shared between threads is read through a copy
+     */
+    public ChessGame copy() {
+        ChessGame copy = new ChessGame(new ChessBoard(board), teamTurn);
+        copy.fullmoveNumber = fullmoveNumber;
+        copy.positionKeys = Arrays.copyOf(positionKeys, positionKeys.length);
+        copy.positionCount = positionCount;
+        copy.repetitions = repetitions;
+        copy.over = over;
+        return copy;
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -33,6 +71,50 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         this.teamTurn = team;
+        clearHistory();
+    }
+
+    /**
+     * @return the number of the current full move, starting at 1 and increasing
+     * after each of black's moves
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * @return the number of moves by either team that led to this position,
+     * worked out from the full-move number so it carries over through FEN
+     */
+    public int getPlyCount() {
+        return (fullmoveNumber - 1) * 2 + (teamTurn == TeamColor.BLACK ? 1 : 0);
+    }
+
+    void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Creates a game from a position in Forsyth-Edwards Notation, including whose
+     * turn it is, castling rights, en passant square and both move counters
+     *
+     * @param fen the position, e.g. {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}
+     * @return a game at that position, with no earlier positions for repetition
+     * @throws IllegalArgumentException if the text is not a well-formed FEN string
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * Writes the current position in Forsyth-Edwards Notation. The result is
+     * canonical: equal positions with equal counters give equal strings, and
+     * {@link #fromFen} reads it back to the same position.
+     *
+     * @return all six FEN fields
+     */
+    public String toFen() {
+        return Fen.format(this);
     }
 
     /**
@@ -56,28 +138,17 @@ public class ChessGame {
             return null; // No piece at the given position
         }
 
-        Collection<ChessMove> allMoves = piece.pieceMoves(board, startPosition);
-        Collection<ChessMove> validMoves = new ArrayList<>();
-
-        for (ChessMove move : allMoves) {
-            // Save the state before the move
-            ChessPiece endPiece = board.getPiece(move.getEndPosition());
-
-            // Apply the move
-            board.movePiece(move);
-
-            // Check if the move puts the current player's king in check
-            if (!isInCheck(piece.getTeamColor())) {
-                validMoves.add(move);
-            }
-
-            // Undo the move
-            board.addPiece(move.getStartPosition(), piece);
-            board.addPiece(move.getEndPosition(), null);
-            board.addPiece(move.getEndPosition(), endPiece);
-        }
+        return generateMoves(piece.getTeamColor(), 1L << Bitboards.square(startPosition));
+    }
 
-        return validMoves;
+    /**
+     * Gets every legal move for a team, whether or not it is that team's turn
+     *
+     * @param teamColor the team to get legal moves for
+     * @return the team's legal moves, empty if it has none
+     */
+    public Collection<ChessMove> legalMoves(TeamColor teamColor) {
+        return generateMoves(teamColor, board.getOccupancy(teamColor));
     }
 
     /**
@@ -87,6 +158,9 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
+        if (over) {
+            throw new InvalidMoveException("The game is over");
+        }
         ChessPiece startPiece = board.getPiece(move.getStartPosition());
         if (startPiece == null) {
             throw new InvalidMoveException("No piece at the start position");
@@ -96,23 +170,26 @@ public class ChessGame {
             throw new InvalidMoveException("It's not this piece's turn");
         }
 
-        Collection<ChessMove> validMoves = validMoves(move.getStartPosition());
-        if (validMoves != null && validMoves.contains(move)) {
-            ChessPiece initialPiece = board.getPiece(move.getStartPosition());
-            ChessPiece endPiece = board.getPiece(move.getEndPosition());
-
-            board.movePiece(move);
-
-            if (isInCheck(teamTurn)) {
-                board.addPiece(move.getStartPosition(), initialPiece);
-                board.addPiece(move.getEndPosition(), endPiece);
-
-                throw new InvalidMoveException("Invalid move: would leave the king in check");
+        int requested = Move.of(move);
+        moveBuffer.clear();
+        MoveGenerator.generate(board, teamTurn, 1L << Move.start(requested), moveBuffer);
+        for (int i = 0; i < moveBuffer.size(); i++) {
+            int candidate = moveBuffer.get(i);
+            if (Move.sameMove(candidate, requested)) {
+                if (positionCount == 0) {
+                    recordPosition();
+                }
+                board.doMove(candidate);
+                if (teamTurn == TeamColor.BLACK) {
+                    fullmoveNumber++;
+                }
+                teamTurn = (teamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+                recordPosition();
+                over = !hasValidMoves(teamTurn) || isDrawByRepetition() || isDrawByFiftyMoves();
+                return;
             }
-            teamTurn = (teamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        } else {
-            throw new InvalidMoveException("Invalid move");
         }
+        throw new InvalidMoveException("Invalid move");
     }
 
     /**
@@ -122,8 +199,12 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPosition = findKingPosition(teamColor, board);
-        return isUnderAttack(kingPosition, teamColor, board);
+        long king = board.getPieces(teamColor, ChessPiece.PieceType.KING);
+        if (king == 0) {
+            return false;
+        }
+        TeamColor opponentColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        return board.isSquareAttacked(Long.numberOfTrailingZeros(king), opponentColor);
     }
 
     /**
@@ -149,6 +230,57 @@ public class ChessGame {
         return !hasValidMoves(teamColor);
     }
 
+    /**
+     * Determines if the current position has occurred three times with the same
+     * player to move, castling rights and en passant options
+     *
+     * @return True if either player may claim a draw by threefold repetition
+     */
+    public boolean isDrawByRepetition() {
+        return repetitions >= 3;
+    }
+
+    /**
+     * Determines if fifty moves by each player have passed without a capture or
+     * a pawn move
+     *
+     * @return True if either player may claim a draw by the fifty-move rule
+     */
+    public boolean isDrawByFiftyMoves() {
+        return board.getHalfmoveClock() >= FIFTY_MOVES;
+    }
+
+    /**
+     * Determines if the game has ended. A move that leaves the other team
+     * without a legal move, or that draws by repetition or the fifty-move rule,
+     * ends it on its own; a resignation ends it through {@link #setGameOver}.
+     *
+     * @return True if no more moves will be accepted
+     */
+    public boolean isOver() {
+        return over;
+    }
+
+    /**
+     * Ends the game, or opens it again, without a move being made
+     *
+     * @param gameOver whether the game has ended
+     */
+    public void setGameOver(boolean gameOver) {
+        this.over = gameOver;
+    }
+
+    /**
+     * Gets the Zobrist key of the current position, including whose turn it is
+     *
+     * @return the 64-bit key, equal whenever the pieces, castling rights, usable
+     * en passant square and side to move are equal
+     */
+    public long getZobristKey() {
+        long key = board.getZobristKey();
+        return teamTurn == TeamColor.BLACK ? key ^ Zobrist.BLACK_TO_MOVE : key;
+    }
+
     /**
      * Sets this game's chessboard with a given board
      *
@@ -156,6 +288,10 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        mobilityVersion[0] = -1;
+        mobilityVersion[1] = -1;
+        over = false;
+        clearHistory();
     }
 
     /**
@@ -167,63 +303,87 @@ public class ChessGame {
         return board;
     }
 
-    private ChessPosition findKingPosition(TeamColor teamColor, ChessBoard board) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() == teamColor && piece.getPieceType() == ChessPiece.PieceType.KING) {
-                    return position;
-                }
-            }
+    private boolean hasValidMoves(TeamColor teamColor) {
+        int team = teamColor.ordinal();
+        int version = board.getVersion();
+        if (mobilityVersion[team] == version) {
+            return mobility[team];
         }
-        return null;
+
+        moveBuffer.clear();
+        MoveGenerator.generate(board, teamColor, board.getOccupancy(teamColor), moveBuffer);
+        boolean found = !moveBuffer.isEmpty();
+
+        mobility[team] = found;
+        mobilityVersion[team] = version;
+        return found;
     }
 
-    private boolean isUnderAttack(ChessPosition position, TeamColor teamColor, ChessBoard board) {
-        TeamColor opponentColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(pos);
-                if (piece != null && piece.getTeamColor() == opponentColor) {
-                    Collection<ChessMove> moves = piece.pieceMoves(board, pos);
-                    for (ChessMove move : moves) {
-                        if (move.getEndPosition().equals(position)) {
-                            return true;
-                        }
-                    }
-                }
-            }
+    /**
+     * Appends the current position to the history and counts its earlier
+     * occurrences. Only positions since the last capture or pawn move, with the
+     * same player to move, can repeat it, so at most fifty are looked at.
+     */
+    private void recordPosition() {
+        long key = getZobristKey();
+        if (positionCount == positionKeys.length) {
+            positionKeys = Arrays.copyOf(positionKeys, positionKeys.length * 2);
         }
-        return false;
+        positionKeys[positionCount++] = key;
+        countRepetitions();
     }
 
-    private boolean hasValidMoves(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(position);
-                    if (moves != null && !moves.isEmpty()) {
-                        for (ChessMove move : moves) {
-                            ChessPiece initialPiece = board.getPiece(move.getStartPosition());
-                            ChessPiece endPiece = board.getPiece(move.getEndPosition());
-
-                            board.movePiece(move);
-                            boolean stillInCheck = isInCheck(teamColor);
-                            board.addPiece(move.getStartPosition(), initialPiece);
-                            board.addPiece(move.getEndPosition(), endPiece);
-
-                            if (!stillInCheck) {
-                                return true;
-                            }
-                        }
-                    }
-                }
+    private void countRepetitions() {
+        long key = positionKeys[positionCount - 1];
+        int earliest = Math.max(0, positionCount - 1 - board.getHalfmoveClock());
+        repetitions = 1;
+        for (int i = positionCount - 3; i >= earliest; i -= 2) {
+            if (positionKeys[i] == key) {
+                repetitions++;
             }
         }
-        return false;
+    }
+
+    /**
+     * @return the keys of the positions since the last capture or pawn move,
+     * oldest first and ending with the current one; the only ones that can
+     * still repeat
+     */
+    long[] getRepeatablePositions() {
+        if (positionCount == 0) {
+            return new long[]{getZobristKey()};
+        }
+        int earliest = Math.max(0, positionCount - 1 - board.getHalfmoveClock());
+        return Arrays.copyOfRange(positionKeys, earliest, positionCount);
+    }
+
+    /**
+     * Replaces the position history, e.g. with one read back from storage
+     *
+     * @param keys position keys as returned by {@link #getRepeatablePositions()}
+     */
+    void setRepeatablePositions(long[] keys) {
+        positionKeys = Arrays.copyOf(keys, Math.max(16, keys.length * 2));
+        positionCount = keys.length;
+        if (positionCount == 0) {
+            repetitions = 0;
+        } else {
+            countRepetitions();
+        }
+    }
+
+    private void clearHistory() {
+        positionCount = 0;
+        repetitions = 0;
+    }
+
+    private Collection<ChessMove> generateMoves(TeamColor teamColor, long from) {
+        moveBuffer.clear();
+        MoveGenerator.generate(board, teamColor, from, moveBuffer);
+        Collection<ChessMove> moves = new ArrayList<>(moveBuffer.size());
+        for (int i = 0; i < moveBuffer.size(); i++) {
+            moves.add(Move.toChessMove(moveBuffer.get(i)));
+        }
+        return moves;
     }
 }
@@ -9,6 +9,10 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessMove {
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+    };
 
     private final ChessPosition startPosition;
     private final ChessPosition endPosition;
@@ -45,6 +49,44 @@ public class ChessMove {
         return promotionPiece;
     }
 
+    /**
+     * @return the move in coordinate notation, e.g. {@code e2e4} or {@code e7e8q}
+     * for a promotion
+     */
+    public String toUci() {
+        StringBuilder text = new StringBuilder(5);
+        Fen.appendSquare(text, Bitboards.square(startPosition));
+        Fen.appendSquare(text, Bitboards.square(endPosition));
+        if (promotionPiece != null) {
+            text.append(Fen.PIECE_LETTERS.charAt(6 + promotionPiece.ordinal()));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Reads a move written by {@link #toUci()}
+     *
+     * @throws IllegalArgumentException if the text is not a move in coordinate notation
+     */
+    public static ChessMove fromUci(String text) {
+        int start = Fen.parseSquare(text, 0);
+        int end = Fen.parseSquare(text, 2);
+        ChessPiece.PieceType promotion = text.length() == 5 ? promotion(text.charAt(4)) : null;
+        if (start < 0 || end < 0 || text.length() > 5 || (text.length() == 5 && promotion == null)) {
+            throw new IllegalArgumentException("Bad chess move " + text);
+        }
+        return new ChessMove(Bitboards.position(start), Bitboards.position(end), promotion);
+    }
+
+    private static ChessPiece.PieceType promotion(char letter) {
+        for (ChessPiece.PieceType type : PROMOTIONS) {
+            if (Fen.PIECE_LETTERS.charAt(6 + type.ordinal()) == letter) {
+                return type;
+            }
+        }
+        return null;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,6 +1,5 @@
 package chess;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Objects;
 import chess.pieces.*;
@@ -8,27 +7,54 @@ import chess.pieces.*;
 /**
  * Represents a single chess piece
  * <p>
+ * Pieces are immutable, so the board hands out the twelve canonical
+ * instances from {@link #of}, and move generation is delegated to stateless
+ * generators shared by every piece of a type.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessPiece {
 
+    private static final BishopMove BISHOP_MOVE = new BishopMove();
+    private static final KingMove KING_MOVE = new KingMove();
+    private static final KnightMove KNIGHT_MOVE = new KnightMove();
+    private static final PawnMove PAWN_MOVE = new PawnMove();
+    private static final QueenMove QUEEN_MOVE = new QueenMove();
+    private static final RookMove ROOK_MOVE = new RookMove();
+
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor teamColor;
     private final ChessPiece.PieceType pieceType;
-    private final Collection<ChessMove> moves = new ArrayList<>();
-
-    private final BishopMove bishopMove = new BishopMove();
-    private final KingMove kingMove = new KingMove();
-    private final KnightMove knightMove = new KnightMove();
-    private final PawnMove pawnMove = new PawnMove();
-    private final QueenMove queenMove = new QueenMove();
-    private final RookMove rookMove = new RookMove();
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.teamColor = pieceColor;
         this.pieceType = type;
     }
 
+    /**
+     * @return the shared instance for the given team and piece type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[pieceColor.ordinal() * 6 + type.ordinal()];
+    }
+
+    /**
+     * @return the shared instance for a board index, color ordinal * 6 + type ordinal
+     */
+    static ChessPiece of(int index) {
+        return PIECES[index];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -48,12 +74,12 @@ public class ChessPiece {
         if (o == null || getClass() != o.getClass())
             return false;
         ChessPiece that = (ChessPiece) o;
-        return teamColor == that.teamColor && pieceType == that.pieceType && Objects.equals(moves, that.moves);
+        return teamColor == that.teamColor && pieceType == that.pieceType;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(teamColor, pieceType, moves);
+        return Objects.hash(teamColor, pieceType);
     }
 
 
@@ -79,16 +105,13 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        ArrayList<ChessMove> move = new ArrayList<>();
-
-        switch (pieceType) {
-            case BISHOP -> move.addAll(bishopMove.movePiece(board, myPosition));
-            case KING -> move.addAll(kingMove.movePiece(board, myPosition));
-            case KNIGHT -> move.addAll(knightMove.movePiece(board, myPosition));
-            case PAWN -> move.addAll(pawnMove.movePiece(board, myPosition));
-            case QUEEN -> move.addAll(queenMove.movePiece(board, myPosition));
-            case ROOK -> move.addAll(rookMove.movePiece(board, myPosition));
-        }
-        return move;
+        return switch (pieceType) {
+            case BISHOP -> BISHOP_MOVE.movePiece(board, myPosition);
+            case KING -> KING_MOVE.movePiece(board, myPosition);
+            case KNIGHT -> KNIGHT_MOVE.movePiece(board, myPosition);
+            case PAWN -> PAWN_MOVE.movePiece(board, myPosition);
+            case QUEEN -> QUEEN_MOVE.movePiece(board, myPosition);
+            case ROOK -> ROOK_MOVE.movePiece(board, myPosition);
+        };
     }
 }
@@ -0,0 +1,331 @@
+package chess;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Streaming Gson adapters that write the chess classes in a small fixed shape
+ * instead of reflecting over their internals:
+ * <ul>
+ *   <li>{@link ChessGame}: {@code {"fen":"...","history":[...],"over":true}}, where the
+ *   optional history holds the Zobrist keys of the positions since the last
+ *   capture or pawn move so repetitions still count after a reload, and
+ *   {@code over} is only written once the game has ended</li>
+ *   <li>{@link ChessBoard}: {@code {"pieces":"...","castling":"KQkq","enPassant":"-","halfmoveClock":0}},
+ *   using the matching FEN fields</li>
+ *   <li>{@link ChessPiece}: its FEN letter, e.g. {@code "K"} or {@code "n"}</li>
+ *   <li>{@link ChessMove}: coordinate notation, e.g. {@code "e2e4"} or {@code "e7e8q"}</li>
+ * </ul>
+ * Moves are also read in the reflective
+ * {@code {"startPosition":{"row":2,"col":5},...}} form so clients using a
+ * plain {@code Gson} can still send them, and games in the reflective
+ * {@code {"board":{"squares":[[...]]},"teamTurn":"WHITE"}} form so rows saved
+ * before these adapters still load.
+ */
+public final class ChessTypeAdapters {
+    private ChessTypeAdapters() {
+    }
+
+    /**
+     * Registers the chess adapters with a builder
+     *
+     * @return the same builder, for chaining
+     */
+    public static GsonBuilder register(GsonBuilder builder) {
+        return builder
+                .registerTypeAdapter(ChessGame.class, new GameAdapter().nullSafe())
+                .registerTypeAdapter(ChessBoard.class, new BoardAdapter().nullSafe())
+                .registerTypeAdapter(ChessPiece.class, new PieceAdapter().nullSafe())
+                .registerTypeAdapter(ChessMove.class, new MoveAdapter().nullSafe());
+    }
+
+    private static final class GameAdapter extends TypeAdapter<ChessGame> {
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            out.beginObject();
+            out.name("fen").value(game.toFen());
+            long[] history = game.getRepeatablePositions();
+            if (history.length > 1) {
+                out.name("history").beginArray();
+                for (long key : history) {
+                    out.value(key);
+                }
+                out.endArray();
+            }
+            if (game.isOver()) {
+                out.name("over").value(true);
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            String fen = null;
+            long[] history = null;
+            boolean over = false;
+            ChessBoard legacyBoard = null;
+            ChessGame.TeamColor legacyTurn = ChessGame.TeamColor.WHITE;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "fen" -> fen = in.nextString();
+                    case "history" -> history = readKeys(in);
+                    case "over" -> over = in.nextBoolean();
+                    case "board" -> legacyBoard = readLegacyBoard(in);
+                    case "teamTurn" -> legacyTurn = readLegacyEnum(ChessGame.TeamColor.class, in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            ChessGame game;
+            if (fen != null) {
+                game = parse(fen, in);
+            } else if (legacyBoard != null) {
+                game = new ChessGame(legacyBoard, legacyTurn);
+            } else {
+                throw new JsonParseException("Chess game is missing its fen at " + in.getPath());
+            }
+            if (history != null && history.length > 0 && history[history.length - 1] == game.getZobristKey()) {
+                game.setRepeatablePositions(history);
+            }
+            game.setGameOver(over);
+            return game;
+        }
+
+        /**
+         * Reads a board written by reflection, {@code {"squares":[[piece or null, ...], ...]}}
+         * with rank 1 first, where each piece is {@code {"teamColor":"WHITE","pieceType":"ROOK",...}}.
+         * Castling rights follow from the kings and rooks left on their home squares.
+         */
+        private static ChessBoard readLegacyBoard(JsonReader in) throws IOException {
+            ChessBoard board = new ChessBoard();
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!in.nextName().equals("squares")) {
+                    in.skipValue();
+                    continue;
+                }
+                in.beginArray();
+                for (int row = 1; in.hasNext(); row++) {
+                    in.beginArray();
+                    for (int column = 1; in.hasNext(); column++) {
+                        ChessPiece piece = readLegacyPiece(in);
+                        if (piece != null) {
+                            board.addPiece(position(row, column, in), piece);
+                        }
+                    }
+                    in.endArray();
+                }
+                in.endArray();
+            }
+            in.endObject();
+            return board;
+        }
+
+        private static ChessPiece readLegacyPiece(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ChessGame.TeamColor color = null;
+            ChessPiece.PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "teamColor" -> color = readLegacyEnum(ChessGame.TeamColor.class, in);
+                    case "pieceType" -> type = readLegacyEnum(ChessPiece.PieceType.class, in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (color == null || type == null) {
+                throw new JsonParseException("Chess piece is missing its color or type at " + in.getPath());
+            }
+            return ChessPiece.of(color, type);
+        }
+
+        private static <E extends Enum<E>> E readLegacyEnum(Class<E> type, JsonReader in) throws IOException {
+            String name = in.nextString();
+            try {
+                return Enum.valueOf(type, name);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException("Bad " + type.getSimpleName() + " " + name + " at " + in.getPath(), e);
+            }
+        }
+
+        private static ChessPosition position(int row, int column, JsonReader in) {
+            if (row > 8 || column > 8) {
+                throw new JsonParseException("Chess board is larger than 8x8 at " + in.getPath());
+            }
+            return ChessPosition.of(row, column);
+        }
+
+        private static long[] readKeys(JsonReader in) throws IOException {
+            long[] keys = new long[16];
+            int size = 0;
+            in.beginArray();
+            while (in.hasNext()) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                }
+                keys[size++] = in.nextLong();
+            }
+            in.endArray();
+            return Arrays.copyOf(keys, size);
+        }
+
+        private static ChessGame parse(String fen, JsonReader in) {
+            try {
+                return Fen.parse(fen);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage() + " at " + in.getPath(), e);
+            }
+        }
+    }
+
+    private static final class BoardAdapter extends TypeAdapter<ChessBoard> {
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            StringBuilder text = new StringBuilder(72);
+            Fen.appendPlacement(text, board);
+            out.beginObject();
+            out.name("pieces").value(text.toString());
+
+            text.setLength(0);
+            Fen.appendCastling(text, board.getCastlingRights());
+            out.name("castling").value(text.toString());
+
+            text.setLength(0);
+            Fen.appendEnPassant(text, board.getEnPassantSquare());
+            out.name("enPassant").value(text.toString());
+            out.name("halfmoveClock").value(board.getHalfmoveClock());
+            out.endObject();
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            String pieces = null;
+            String castling = "-";
+            String enPassant = "-";
+            int halfmoveClock = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "pieces" -> pieces = in.nextString();
+                    case "castling" -> castling = in.nextString();
+                    case "enPassant" -> enPassant = in.nextString();
+                    case "halfmoveClock" -> halfmoveClock = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (pieces == null) {
+                throw new JsonParseException("Chess board is missing its pieces at " + in.getPath());
+            }
+            try {
+                return Fen.parseBoard(pieces, castling, enPassant, halfmoveClock);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage() + " at " + in.getPath(), e);
+            }
+        }
+    }
+
+    private static final class PieceAdapter extends TypeAdapter<ChessPiece> {
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            int index = ChessBoard.index(piece.getTeamColor(), piece.getPieceType());
+            out.value(Fen.PIECE_LETTERS.substring(index, index + 1));
+        }
+
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            String letter = in.nextString();
+            int index = letter.length() == 1 ? Fen.PIECE_LETTERS.indexOf(letter.charAt(0)) : -1;
+            if (index < 0) {
+                throw new JsonParseException("Bad chess piece " + letter + " at " + in.getPath());
+            }
+            return ChessPiece.of(index);
+        }
+    }
+
+    private static final class MoveAdapter extends TypeAdapter<ChessMove> {
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            out.value(move.toUci());
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.BEGIN_OBJECT) {
+                return readObject(in);
+            }
+
+            String text = in.nextString();
+            try {
+                return ChessMove.fromUci(text);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage() + " at " + in.getPath(), e);
+            }
+        }
+
+        private static ChessMove readObject(JsonReader in) throws IOException {
+            ChessPosition start = null;
+            ChessPosition end = null;
+            ChessPiece.PieceType promotion = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "startPosition" -> start = readPosition(in);
+                    case "endPosition" -> end = readPosition(in);
+                    case "promotionPiece" -> {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            promotion = promotionType(in.nextString(), in);
+                        }
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (start == null || end == null) {
+                throw new JsonParseException("Chess move is missing a position at " + in.getPath());
+            }
+            return new ChessMove(start, end, promotion);
+        }
+
+        private static ChessPiece.PieceType promotionType(String name, JsonReader in) {
+            try {
+                return ChessPiece.PieceType.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException("Bad promotion piece " + name + " at " + in.getPath(), e);
+            }
+        }
+
+        private static ChessPosition readPosition(JsonReader in) throws IOException {
+            int row = 0;
+            int column = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "row" -> row = in.nextInt();
+                    case "col", "column" -> column = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return ChessPosition.of(row, column);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation, e.g. the starting
+ * position {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}.
+ * <p>
+ * The piece placement and side to move are required when reading; the
+ * castling, en passant, halfmove clock and full-move number fields default to
+ * none, none, 0 and 1 when left off. Writing always produces all six fields.
+ */
+final class Fen {
+    static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /** FEN letter of each piece index (see {@link ChessBoard}) */
+    static final String PIECE_LETTERS = "KQBNRPkqbnrp";
+
+    private Fen() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not a well-formed FEN string
+     */
+    static ChessGame parse(String fen) {
+        String[] fields = splitFields(fen);
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("FEN needs at least piece placement and side to move: " + fen);
+        }
+
+        ChessBoard board = parseBoard(fields[0], fields.length > 2 ? fields[2] : "-", fields.length > 3 ? fields[3] : "-",
+                fields.length > 4 ? parseCount(fields[4]) : 0);
+
+        ChessGame game = new ChessGame(board, switch (fields[1]) {
+            case "w" -> ChessGame.TeamColor.WHITE;
+            case "b" -> ChessGame.TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Bad side to move: " + fields[1]);
+        });
+        game.setFullmoveNumber(fields.length > 5 ? Math.max(1, parseCount(fields[5])) : 1);
+        return game;
+    }
+
+    /**
+     * Builds a board from the placement, castling and en passant fields of a FEN string
+     */
+    static ChessBoard parseBoard(String placement, String castling, String enPassant, int halfmoveClock) {
+        ChessBoard board = new ChessBoard();
+        placePieces(board, placement);
+        board.setCastlingRights(castlingRights(castling));
+        board.setEnPassantSquare(enPassantSquare(enPassant));
+        board.setHalfmoveClock(halfmoveClock);
+        return board;
+    }
+
+    /**
+     * @return all six FEN fields for the game's current position
+     */
+    static String format(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder fen = new StringBuilder(90);
+        appendPlacement(fen, board);
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+        appendCastling(fen, board.getCastlingRights());
+        fen.append(' ');
+        appendEnPassant(fen, board.getEnPassantSquare());
+        return fen.append(' ').append(board.getHalfmoveClock())
+                .append(' ').append(game.getFullmoveNumber())
+                .toString();
+    }
+
+    static void appendPlacement(StringBuilder fen, ChessBoard board) {
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int column = 1; column <= 8; column++) {
+                int index = board.pieceIndexAt(Bitboards.square(row, column));
+                if (index < 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(PIECE_LETTERS.charAt(index));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+    }
+
+    static void appendCastling(StringBuilder fen, int rights) {
+        if (rights == 0) {
+            fen.append('-');
+        }
+        if ((rights & ChessBoard.WHITE_KINGSIDE) != 0) {
+            fen.append('K');
+        }
+        if ((rights & ChessBoard.WHITE_QUEENSIDE) != 0) {
+            fen.append('Q');
+        }
+        if ((rights & ChessBoard.BLACK_KINGSIDE) != 0) {
+            fen.append('k');
+        }
+        if ((rights & ChessBoard.BLACK_QUEENSIDE) != 0) {
+            fen.append('q');
+        }
+    }
+
+    static void appendEnPassant(StringBuilder fen, int square) {
+        if (square < 0) {
+            fen.append('-');
+        } else {
+            appendSquare(fen, square);
+        }
+    }
+
+    static void appendSquare(StringBuilder fen, int square) {
+        fen.append((char) ('a' + Bitboards.column(square) - 1)).append(Bitboards.row(square));
+    }
+
+    /**
+     * @return the square named in algebraic notation, e.g. {@code e4}, or -1 if it is not one
+     */
+    static int parseSquare(String name, int offset) {
+        if (name.length() < offset + 2) {
+            return -1;
+        }
+        char column = name.charAt(offset);
+        char row = name.charAt(offset + 1);
+        if (column < 'a' || column > 'h' || row < '1' || row > '8') {
+            return -1;
+        }
+        return Bitboards.square(row - '0', column - 'a' + 1);
+    }
+
+    /**
+     * Splits on runs of whitespace without going through a regular expression,
+     * since games are read from FEN on every load
+     */
+    private static String[] splitFields(String fen) {
+        String[] fields = new String[6];
+        int count = 0;
+        int length = fen.length();
+        int i = 0;
+        while (i < length && count < fields.length) {
+            while (i < length && Character.isWhitespace(fen.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && !Character.isWhitespace(fen.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                fields[count++] = fen.substring(start, i);
+            }
+        }
+        return count == fields.length ? fields : Arrays.copyOf(fields, count);
+    }
+
+    private static void placePieces(ChessBoard board, String placement) {
+        int row = 8;
+        int column = 1;
+        for (int i = 0; i < placement.length(); i++) {
+            char c = placement.charAt(i);
+            if (c == '/') {
+                if (column != 9 || row == 1) {
+                    throw new IllegalArgumentException("Bad FEN placement: " + placement);
+                }
+                row--;
+                column = 1;
+            } else if (c >= '1' && c <= '8') {
+                column += c - '0';
+            } else {
+                int index = PIECE_LETTERS.indexOf(c);
+                if (index < 0 || column > 8) {
+                    throw new IllegalArgumentException("Bad FEN placement: " + placement);
+                }
+                board.placePiece(Bitboards.square(row, column++), index);
+            }
+        }
+        if (column != 9 || row != 1) {
+            throw new IllegalArgumentException("FEN placement needs 8 full rows: " + placement);
+        }
+    }
+
+    private static int castlingRights(String field) {
+        if (field.equals("-")) {
+            return 0;
+        }
+        int rights = 0;
+        for (char c : field.toCharArray()) {
+            rights |= switch (c) {
+                case 'K' -> ChessBoard.WHITE_KINGSIDE;
+                case 'Q' -> ChessBoard.WHITE_QUEENSIDE;
+                case 'k' -> ChessBoard.BLACK_KINGSIDE;
+                case 'q' -> ChessBoard.BLACK_QUEENSIDE;
+                default -> throw new IllegalArgumentException("Bad castling rights: " + field);
+            };
+        }
+        return rights;
+    }
+
+    private static int enPassantSquare(String field) {
+        if (field.equals("-")) {
+            return -1;
+        }
+        int square = field.length() == 2 ? parseSquare(field, 0) : -1;
+        if (square < 0 || (Bitboards.row(square) != 3 && Bitboards.row(square) != 6)) {
+            throw new IllegalArgumentException("Bad en passant square: " + field);
+        }
+        return square;
+    }
+
+    static int parseCount(String field) {
+        try {
+            return Integer.parseInt(field);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad move count: " + field);
+        }
+    }
+}
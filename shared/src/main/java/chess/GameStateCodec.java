@@ -0,0 +1,93 @@
+package chess;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packs a game's position into a fixed {@value #SIZE}-byte binary form, for
+ * peers that would rather not parse the JSON/FEN form on every update:
+ * <pre>
+ *   32 bytes  one nibble per square from a1 to h8, low nibble first;
+ *             0 for empty, otherwise the piece index + 1 (see {@link ChessBoard})
+ *   1 byte    bit 0 set when black is to move, bit 1 when the game is over,
+ *             bits 4-7 the castling rights
+ *   1 byte    en passant square, or -1
+ *   2 bytes   halfmove clock
+ *   2 bytes   full-move number
+ * </pre>
+ * The repetition history is not included, so a decoded game only counts
+ * repetitions from the point it was decoded.
+ */
+public final class GameStateCodec {
+    public static final int SIZE = 38;
+
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int GAME_OVER = 2;
+    private static final int CASTLING_SHIFT = 4;
+
+    private GameStateCodec() {
+    }
+
+    /**
+     * Writes the game's position at the buffer's current position
+     */
+    public static void write(ChessGame game, ByteBuffer out) {
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square += 2) {
+            out.put((byte) (nibble(board, square) | nibble(board, square + 1) << 4));
+        }
+        int flags = board.getCastlingRights() << CASTLING_SHIFT;
+        if (game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            flags |= BLACK_TO_MOVE;
+        }
+        if (game.isOver()) {
+            flags |= GAME_OVER;
+        }
+        out.put((byte) flags);
+        out.put((byte) board.getEnPassantSquare());
+        out.putShort((short) board.getHalfmoveClock());
+        out.putShort((short) game.getFullmoveNumber());
+    }
+
+    /**
+     * Reads a position written by {@link #write} from the buffer's current position
+     *
+     * @throws IllegalArgumentException if the bytes do not describe a position
+     */
+    public static ChessGame read(ByteBuffer in) {
+        if (in.remaining() < SIZE) {
+            throw new IllegalArgumentException("Game state needs " + SIZE + " bytes, got " + in.remaining());
+        }
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square += 2) {
+            int pair = in.get() & 0xFF;
+            place(board, square, pair & 0xF);
+            place(board, square + 1, pair >>> 4);
+        }
+        int flags = in.get() & 0xFF;
+        int enPassant = in.get();
+        if (enPassant < -1 || enPassant > 63) {
+            throw new IllegalArgumentException("Bad en passant square: " + enPassant);
+        }
+        board.setCastlingRights(flags >>> CASTLING_SHIFT);
+        board.setEnPassantSquare(enPassant);
+        board.setHalfmoveClock(in.getShort() & 0xFFFF);
+
+        ChessGame game = new ChessGame(board, (flags & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.setFullmoveNumber(Math.max(1, in.getShort() & 0xFFFF));
+        game.setGameOver((flags & GAME_OVER) != 0);
+        return game;
+    }
+
+    private static int nibble(ChessBoard board, int square) {
+        return board.pieceIndexAt(square) + 1;
+    }
+
+    private static void place(ChessBoard board, int square, int nibble) {
+        if (nibble > 12) {
+            throw new IllegalArgumentException("Bad piece " + nibble + " on square " + square);
+        }
+        if (nibble > 0) {
+            board.placePiece(square, nibble - 1);
+        }
+    }
+}
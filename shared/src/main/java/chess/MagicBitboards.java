@@ -0,0 +1,153 @@
+package chess;
+
+/**
+ * Magic-bitboard attack tables for the sliding pieces.
+ * <p>
+ * For every square the relevant blocker squares are masked out of the
+ * occupancy, multiplied by a per-square magic number and shifted down to an
+ * index into a precomputed table of attack sets. The magics are found once,
+ * when the class is loaded, by a random search reseeded per rank with seeds
+ * known to converge quickly, so the tables are identical on every run.
+ */
+final class MagicBitboards {
+    private static final int[][] BISHOP_DIRECTIONS = {{1, -1}, {1, 1}, {-1, -1}, {-1, 1}};
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, -1}, {0, 1}};
+
+    private static final long[] RANK_SEEDS = {728, 10316, 55013, 32803, 12281, 15100, 16645, 255};
+
+    private static final Table BISHOPS = new Table(BISHOP_DIRECTIONS);
+    private static final Table ROOKS = new Table(ROOK_DIRECTIONS);
+
+    private MagicBitboards() {
+    }
+
+    static long bishopAttacks(int square, long occupied) {
+        return BISHOPS.attacks(square, occupied);
+    }
+
+    static long rookAttacks(int square, long occupied) {
+        return ROOKS.attacks(square, occupied);
+    }
+
+    /**
+     * Walks each direction one square at a time, stopping at the first blocker.
+     * Only used to fill the tables.
+     */
+    private static long rayAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int row = Bitboards.row(square) + direction[0];
+            int column = Bitboards.column(square) + direction[1];
+            while (row >= 1 && row <= 8 && column >= 1 && column <= 8) {
+                long bit = 1L << Bitboards.square(row, column);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static final class Table {
+        private final long[] masks = new long[64];
+        private final long[] magics = new long[64];
+        private final int[] shifts = new int[64];
+        private final int[] offsets = new int[64];
+        private final long[] attacks;
+
+        private long seed;
+
+        private Table(int[][] directions) {
+            int size = 0;
+            for (int square = 0; square < 64; square++) {
+                masks[square] = relevantMask(square, directions);
+                shifts[square] = 64 - Long.bitCount(masks[square]);
+                offsets[square] = size;
+                size += 1 << Long.bitCount(masks[square]);
+            }
+            attacks = new long[size];
+
+            for (int square = 0; square < 64; square++) {
+                findMagic(square, directions);
+            }
+        }
+
+        private long attacks(int square, long occupied) {
+            int index = (int) (((occupied & masks[square]) * magics[square]) >>> shifts[square]);
+            return attacks[offsets[square] + index];
+        }
+
+        private void findMagic(int square, int[][] directions) {
+            long mask = masks[square];
+            int count = 1 << Long.bitCount(mask);
+            long[] occupancies = new long[count];
+            long[] reference = new long[count];
+
+            // Enumerate every subset of the mask (Carry-Rippler)
+            long subset = 0;
+            for (int i = 0; i < count; i++) {
+                occupancies[i] = subset;
+                reference[i] = rayAttacks(square, subset, directions);
+                subset = (subset - mask) & mask;
+            }
+
+            seed = RANK_SEEDS[square >>> 3];
+
+            // Stamp each slot with the attempt that filled it instead of clearing between attempts
+            long[] used = new long[count];
+            int[] filledBy = new int[count];
+            for (int attempt = 1; ; attempt++) {
+                long magic = nextRandom() & nextRandom() & nextRandom();
+                if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                    continue;
+                }
+
+                boolean collision = false;
+                for (int i = 0; i < count && !collision; i++) {
+                    int index = (int) ((occupancies[i] * magic) >>> shifts[square]);
+                    if (filledBy[index] != attempt) {
+                        filledBy[index] = attempt;
+                        used[index] = reference[i];
+                    } else if (used[index] != reference[i]) {
+                        collision = true;
+                    }
+                }
+
+                if (!collision) {
+                    magics[square] = magic;
+                    System.arraycopy(used, 0, attacks, offsets[square], count);
+                    return;
+                }
+            }
+        }
+
+        private long nextRandom() {
+            seed ^= seed >>> 12;
+            seed ^= seed << 25;
+            seed ^= seed >>> 27;
+            return seed * 0x2545F4914F6CDD1DL;
+        }
+
+        /**
+         * The squares whose occupancy can change the attack set, which excludes
+         * the last square of each ray since nothing lies beyond it.
+         */
+        private static long relevantMask(int square, int[][] directions) {
+            long mask = 0;
+            for (int[] direction : directions) {
+                int row = Bitboards.row(square) + direction[0];
+                int column = Bitboards.column(square) + direction[1];
+                while (row + direction[0] >= 1 && row + direction[0] <= 8
+                        && column + direction[1] >= 1 && column + direction[1] <= 8) {
+                    mask |= 1L << Bitboards.square(row, column);
+                    row += direction[0];
+                    column += direction[1];
+                }
+            }
+            return mask;
+        }
+    }
+}
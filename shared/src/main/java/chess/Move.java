@@ -0,0 +1,68 @@
+package chess;
+
+/**
+ * Packs a chess move into a single int so the move generator can work without
+ * allocating a {@link ChessMove} and two {@link ChessPosition}s per candidate.
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square (numbered as in
+ * {@link Bitboards}), bits 12-14 the promotion piece as its
+ * {@link ChessPiece.PieceType} ordinal plus one (0 for no promotion), and the
+ * remaining bits the flags below.
+ */
+public final class Move {
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+    public static final int CASTLING = 1 << 18;
+
+    private static final int SQUARES_AND_PROMOTION = (1 << 15) - 1;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    /**
+     * @param promotionType ordinal of the promotion piece type, or -1 for none
+     */
+    public static int encode(int start, int end, int promotionType, int flags) {
+        return start | end << 6 | (promotionType + 1) << 12 | flags;
+    }
+
+    public static int start(int move) {
+        return move & 63;
+    }
+
+    public static int end(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return ordinal of the promotion piece type, or -1 for none
+     */
+    public static int promotionType(int move) {
+        return ((move >>> 12) & 7) - 1;
+    }
+
+    public static boolean hasFlag(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+    /**
+     * @return true if both moves have the same squares and promotion, ignoring flags
+     */
+    public static boolean sameMove(int first, int second) {
+        return ((first ^ second) & SQUARES_AND_PROMOTION) == 0;
+    }
+
+    public static int of(ChessMove move) {
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        return encode(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                promotion == null ? -1 : promotion.ordinal(), 0);
+    }
+
+    public static ChessMove toChessMove(int move) {
+        int promotion = promotionType(move);
+        return new ChessMove(Bitboards.position(start(move)), Bitboards.position(end(move)),
+                promotion < 0 ? null : TYPES[promotion]);
+    }
+}
@@ -0,0 +1,205 @@
+package chess;
+
+/**
+ * Generates strictly legal moves, including castling and en passant, as
+ * {@link Move}-encoded ints.
+ * <p>
+ * Checks and pins are worked out once per call from the king's square: while
+ * in check a non-king move must capture the checker or block its line, and a
+ * pinned piece may only move along the line through its king. King moves are
+ * tested with the king lifted off the board so it cannot hide behind itself.
+ * En passant, which removes two pawns from a row at once, is the only move
+ * still confirmed by making it and taking it back.
+ */
+final class MoveGenerator {
+    private static final int[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN.ordinal(),
+            ChessPiece.PieceType.ROOK.ordinal(),
+            ChessPiece.PieceType.BISHOP.ordinal(),
+            ChessPiece.PieceType.KNIGHT.ordinal()
+    };
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds the legal moves of the given team's pieces that stand on a square in {@code from}
+     */
+    static void generate(ChessBoard board, ChessGame.TeamColor color, long from, MoveList moves) {
+        ChessGame.TeamColor opponent = color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long own = board.getOccupancy(color);
+        long enemy = board.getOccupancy(opponent);
+        long occupied = board.getOccupancy();
+        long king = board.getPieces(color, ChessPiece.PieceType.KING);
+
+        // Boards without a king (allowed when testing single pieces) have no checks or pins
+        int kingSquare = -1;
+        long checkers = 0;
+        long pinned = 0;
+        if (king != 0) {
+            kingSquare = Long.numberOfTrailingZeros(king);
+            checkers = Bitboards.attackersOf(board, kingSquare, opponent, occupied);
+            pinned = pinnedPieces(board, opponent, kingSquare, own, occupied);
+            if ((king & from) != 0) {
+                kingMoves(board, color, opponent, kingSquare, own, enemy, occupied, checkers, moves);
+            }
+            if (Long.bitCount(checkers) > 1) {
+                return;
+            }
+        }
+
+        // A non-king move in check has to take the checker or step onto the line between it and the king
+        long allowed = checkers == 0 ? ~own
+                : checkers | Bitboards.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+
+        for (long pawns = board.getPieces(color, ChessPiece.PieceType.PAWN) & from; pawns != 0; pawns &= pawns - 1) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            pawnMoves(board, color, square, kingSquare, enemy, occupied, allowed & pinRay(square, kingSquare, pinned), moves);
+        }
+        // A pinned knight can never stay on its pin line
+        for (long knights = board.getPieces(color, ChessPiece.PieceType.KNIGHT) & from & ~pinned; knights != 0; knights &= knights - 1) {
+            int square = Long.numberOfTrailingZeros(knights);
+            addMoves(square, Bitboards.knightAttacks(square) & ~own & allowed, enemy, moves);
+        }
+        for (long bishops = board.getPieces(color, ChessPiece.PieceType.BISHOP) & from; bishops != 0; bishops &= bishops - 1) {
+            int square = Long.numberOfTrailingZeros(bishops);
+            long targets = Bitboards.bishopAttacks(square, occupied) & ~own & allowed;
+            addMoves(square, targets & pinRay(square, kingSquare, pinned), enemy, moves);
+        }
+        for (long rooks = board.getPieces(color, ChessPiece.PieceType.ROOK) & from; rooks != 0; rooks &= rooks - 1) {
+            int square = Long.numberOfTrailingZeros(rooks);
+            long targets = Bitboards.rookAttacks(square, occupied) & ~own & allowed;
+            addMoves(square, targets & pinRay(square, kingSquare, pinned), enemy, moves);
+        }
+        for (long queens = board.getPieces(color, ChessPiece.PieceType.QUEEN) & from; queens != 0; queens &= queens - 1) {
+            int square = Long.numberOfTrailingZeros(queens);
+            long targets = Bitboards.queenAttacks(square, occupied) & ~own & allowed;
+            addMoves(square, targets & pinRay(square, kingSquare, pinned), enemy, moves);
+        }
+    }
+
+    /**
+     * Finds the team's pieces that are the only piece between their king and an
+     * enemy bishop, rook or queen lined up with it
+     */
+    private static long pinnedPieces(ChessBoard board, ChessGame.TeamColor opponent, int kingSquare, long own,
+                                     long occupied) {
+        long queens = board.getPieces(opponent, ChessPiece.PieceType.QUEEN);
+        long snipers = (Bitboards.rookAttacks(kingSquare, 0) & (board.getPieces(opponent, ChessPiece.PieceType.ROOK) | queens))
+                | (Bitboards.bishopAttacks(kingSquare, 0) & (board.getPieces(opponent, ChessPiece.PieceType.BISHOP) | queens));
+
+        long pinned = 0;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Bitboards.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & own;
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * @return the squares a piece on {@code square} may move to without exposing its king
+     */
+    private static long pinRay(int square, int kingSquare, long pinned) {
+        return (pinned & (1L << square)) == 0 ? -1L : Bitboards.line(kingSquare, square);
+    }
+
+    private static void addMoves(int start, long targets, long enemy, MoveList moves) {
+        for (; targets != 0; targets &= targets - 1) {
+            int end = Long.numberOfTrailingZeros(targets);
+            moves.add(Move.encode(start, end, -1, (enemy & (1L << end)) != 0 ? Move.CAPTURE : 0));
+        }
+    }
+
+    private static void kingMoves(ChessBoard board, ChessGame.TeamColor color, ChessGame.TeamColor opponent,
+                                  int square, long own, long enemy, long occupied, long checkers, MoveList moves) {
+        // Without the king in the way, a slider's attack continues past it onto the square it would retreat to
+        long withoutKing = occupied & ~(1L << square);
+        for (long targets = Bitboards.kingAttacks(square) & ~own; targets != 0; targets &= targets - 1) {
+            int end = Long.numberOfTrailingZeros(targets);
+            if (Bitboards.attackersOf(board, end, opponent, withoutKing) == 0) {
+                moves.add(Move.encode(square, end, -1, (enemy & (1L << end)) != 0 ? Move.CAPTURE : 0));
+            }
+        }
+        if (checkers == 0) {
+            castlingMoves(board, color, opponent, square, occupied, moves);
+        }
+    }
+
+    private static void pawnMoves(ChessBoard board, ChessGame.TeamColor color, int square, int kingSquare, long enemy,
+                                  long occupied, long allowed, MoveList moves) {
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int forward = white ? 8 : -8;
+        int startRow = white ? 2 : 7;
+        int promotionRow = white ? 8 : 1;
+
+        int advance = square + forward;
+        if (advance >= 0 && advance < 64 && (occupied & (1L << advance)) == 0) {
+            if ((allowed & (1L << advance)) != 0) {
+                addPawnMove(square, advance, promotionRow, 0, moves);
+            }
+            int advanceTwo = advance + forward;
+            if (Bitboards.row(square) == startRow && (occupied & (1L << advanceTwo)) == 0
+                    && (allowed & (1L << advanceTwo)) != 0) {
+                moves.add(Move.encode(square, advanceTwo, -1, Move.DOUBLE_PUSH));
+            }
+        }
+
+        long attacks = Bitboards.pawnAttacks(color, square);
+        for (long captures = attacks & enemy & allowed; captures != 0; captures &= captures - 1) {
+            addPawnMove(square, Long.numberOfTrailingZeros(captures), promotionRow, Move.CAPTURE, moves);
+        }
+
+        // En passant is only available to a pawn of the side that did not just push
+        int enPassant = board.getEnPassantSquare();
+        int captureRow = white ? 6 : 3;
+        if (enPassant >= 0 && Bitboards.row(enPassant) == captureRow && (attacks & (1L << enPassant)) != 0) {
+            int move = Move.encode(square, enPassant, -1, Move.CAPTURE | Move.EN_PASSANT);
+            if (kingSquare < 0 || leavesKingSafe(board, color, move, kingSquare)) {
+                moves.add(move);
+            }
+        }
+    }
+
+    private static boolean leavesKingSafe(ChessBoard board, ChessGame.TeamColor color, int move, int kingSquare) {
+        ChessGame.TeamColor opponent = color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        board.doMove(move);
+        boolean safe = !board.isSquareAttacked(kingSquare, opponent);
+        board.undoMove();
+        return safe;
+    }
+
+    private static void addPawnMove(int start, int end, int promotionRow, int flags, MoveList moves) {
+        if (Bitboards.row(end) == promotionRow) {
+            for (int promotion : PROMOTIONS) {
+                moves.add(Move.encode(start, end, promotion, flags));
+            }
+        } else {
+            moves.add(Move.encode(start, end, -1, flags));
+        }
+    }
+
+    private static void castlingMoves(ChessBoard board, ChessGame.TeamColor color, ChessGame.TeamColor opponent,
+                                      int square, long occupied, MoveList moves) {
+        int row = color == ChessGame.TeamColor.WHITE ? 1 : 8;
+        int rights = board.getCastlingRights();
+        int kingside = color == ChessGame.TeamColor.WHITE ? ChessBoard.WHITE_KINGSIDE : ChessBoard.BLACK_KINGSIDE;
+        int queenside = color == ChessGame.TeamColor.WHITE ? ChessBoard.WHITE_QUEENSIDE : ChessBoard.BLACK_QUEENSIDE;
+        if (square != Bitboards.square(row, 5) || (rights & (kingside | queenside)) == 0) {
+            return;
+        }
+
+        // The squares between king and rook must be empty, and the king may not pass through or land in check
+        if ((rights & kingside) != 0 && (occupied & (0x60L << (square & ~7))) == 0
+                && Bitboards.attackersOf(board, square + 1, opponent, occupied) == 0
+                && Bitboards.attackersOf(board, square + 2, opponent, occupied) == 0) {
+            moves.add(Move.encode(square, square + 2, -1, Move.CASTLING));
+        }
+        if ((rights & queenside) != 0 && (occupied & (0x0EL << (square & ~7))) == 0
+                && Bitboards.attackersOf(board, square - 1, opponent, occupied) == 0
+                && Bitboards.attackersOf(board, square - 2, opponent, occupied) == 0) {
+            moves.add(Move.encode(square, square - 2, -1, Move.CASTLING));
+        }
+    }
+}
@@ -17,61 +17,35 @@ public class MovesCalculator {
         };
     }
 
-    private static Collection<ChessMove> linearMoves(Boolean iterative, ChessBoard board, ChessPosition myPosition,
-                                                     int[][] directions) {
+    private static Collection<ChessMove> targetMoves(ChessBoard board, ChessPosition myPosition, long attacks) {
         Collection<ChessMove> moves = new ArrayList<>();
+        long targets = attacks & ~board.getOccupancy(board.getPiece(myPosition).getTeamColor());
 
-        for (int[] direction : directions) {
-            int dy = direction[0];
-            int dx = direction[1];
-            int depth = 1;
-            do {
-                ChessPosition endPosition = new ChessPosition(myPosition.getRow() + dy * depth,
-                        myPosition.getColumn() + dx * depth);
-                if (endPosition.outsideBounds()) {
-                    break;
-                }
-
-                if (board.getPiece(endPosition) == null) {
-                    moves.add(new ChessMove(myPosition, endPosition, null));
-                } else if (board.getPiece(endPosition).getTeamColor() != board.getPiece(myPosition).getTeamColor()) {
-                    moves.add(new ChessMove(myPosition, endPosition, null));
-                    break;
-                } else {
-                    break;
-                }
-
-                depth++;
-            } while (iterative);
+        for (; targets != 0; targets &= targets - 1) {
+            moves.add(new ChessMove(myPosition, Bitboards.position(Long.numberOfTrailingZeros(targets)), null));
         }
 
         return moves;
     }
 
     private static Collection<ChessMove> bishopMoves(ChessBoard board, ChessPosition myPosition) {
-        int[][] directions = {{1, 1}, {-1, 1}, {1, -1}, {-1, -1}};
-        return linearMoves(true, board, myPosition, directions);
+        return targetMoves(board, myPosition, Bitboards.bishopAttacks(Bitboards.square(myPosition), board.getOccupancy()));
     }
 
     private static Collection<ChessMove> rookMoves(ChessBoard board, ChessPosition myPosition) {
-        int[][] directions = {{1, 0}, {-1, 0}, {0, -1}, {0, 1}};
-        return linearMoves(true, board, myPosition, directions);
+        return targetMoves(board, myPosition, Bitboards.rookAttacks(Bitboards.square(myPosition), board.getOccupancy()));
     }
 
     private static Collection<ChessMove> kingMoves(ChessBoard board, ChessPosition myPosition) {
-        int[][] directions = {{1, 1}, {-1, 1}, {1, -1}, {-1, -1}, {1, 0}, {-1, 0}, {0, -1}, {0, 1}};
-        Collection<ChessMove> moves = linearMoves(false, board, myPosition, directions);
-        return moves;
+        return targetMoves(board, myPosition, Bitboards.kingAttacks(Bitboards.square(myPosition)));
     }
 
     private static Collection<ChessMove> queenMoves(ChessBoard board, ChessPosition myPosition) {
-        int[][] directions = {{1, 1}, {-1, 1}, {1, -1}, {-1, -1}, {1, 0}, {-1, 0}, {0, -1}, {0, 1}};
-        return linearMoves(true, board, myPosition, directions);
+        return targetMoves(board, myPosition, Bitboards.queenAttacks(Bitboards.square(myPosition), board.getOccupancy()));
     }
 
     private static Collection<ChessMove> knightMoves(ChessBoard board, ChessPosition myPosition) {
-        int[][] directions = {{2, 1}, {-2, 1}, {2, -1}, {-2, -1}, {1, -2}, {-1, -2}, {1, 2}, {-1, 2}};
-        return linearMoves(false, board, myPosition, directions);
+        return targetMoves(board, myPosition, Bitboards.knightAttacks(Bitboards.square(myPosition)));
     }
 
     private static Collection<ChessMove> pawnMoves(ChessBoard board, ChessPosition myPosition) {
@@ -79,7 +53,7 @@ public class MovesCalculator {
         int direction = (board.getPiece(myPosition).getTeamColor() == ChessGame.TeamColor.BLACK) ? -1 : 1;
 
         ChessPosition one = new ChessPosition(myPosition.getRow() + direction, myPosition.getColumn());
-        if (!one.outsideBounds() && board.getPiece(one) == null) {
+        if (!outsideBounds(one) && board.getPiece(one) == null) {
             if (one.getRow() == 1 || one.getRow() == 8) {
                 moves.add(new ChessMove(myPosition, one, ChessPiece.PieceType.BISHOP));
                 moves.add(new ChessMove(myPosition, one, ChessPiece.PieceType.ROOK));
@@ -97,7 +71,7 @@ public class MovesCalculator {
         }
 
         ChessPosition left = new ChessPosition(myPosition.getRow() + direction, myPosition.getColumn() + 1);
-        if (!left.outsideBounds() && board.getPiece(left) != null && board.getPiece(left)
+        if (!outsideBounds(left) && board.getPiece(left) != null && board.getPiece(left)
                 .getTeamColor() != board.getPiece(myPosition).getTeamColor()) {
             if (left.getRow() == 1 || left.getRow() == 8) {
                 moves.add(new ChessMove(myPosition, left, ChessPiece.PieceType.BISHOP));
@@ -110,7 +84,7 @@ public class MovesCalculator {
         }
 
         ChessPosition right = new ChessPosition(myPosition.getRow() + direction, myPosition.getColumn() - 1);
-        if (!right.outsideBounds() && board.getPiece(right) != null && board.getPiece(right)
+        if (!outsideBounds(right) && board.getPiece(right) != null && board.getPiece(right)
                 .getTeamColor() != board.getPiece(myPosition).getTeamColor()) {
             if (right.getRow() == 1 || right.getRow() == 8) {
                 moves.add(new ChessMove(myPosition, right, ChessPiece.PieceType.BISHOP));
@@ -124,4 +98,8 @@ public class MovesCalculator {
 
         return moves;
     }
+
+    private static boolean outsideBounds(ChessPosition position) {
+        return position.getRow() < 1 || position.getRow() > 8 || position.getColumn() < 1 || position.getColumn() > 8;
+    }
 }
@@ -0,0 +1,175 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft"), to
+ * prove the move generator correct against published node counts and to
+ * measure its speed.
+ * <p>
+ * Run from the command line as
+ * <pre>
+ *   java chess.Perft &lt;depth&gt; [fen]     node count per root move, then the total
+ *   java chess.Perft --suite [depth]  every reference position up to depth (default 4)
+ * </pre>
+ */
+public final class Perft {
+    /**
+     * A well-known position with its node counts, where {@code nodes[d - 1]} is
+     * the count at depth d
+     */
+    public record Reference(String name, String fen, long... nodes) {
+    }
+
+    public static final List<Reference> REFERENCE_POSITIONS = List.of(
+            new Reference("start", Fen.START,
+                    20L, 400L, 8_902L, 197_281L, 4_865_609L, 119_060_324L),
+            new Reference("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    48L, 2_039L, 97_862L, 4_085_603L, 193_690_690L, 8_031_647_685L),
+            new Reference("endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    14L, 191L, 2_812L, 43_238L, 674_624L, 11_030_083L),
+            new Reference("promotions", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    6L, 264L, 9_467L, 422_333L, 15_833_292L, 706_045_033L),
+            new Reference("discovered checks", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    44L, 1_486L, 62_379L, 2_103_487L, 89_941_194L),
+            new Reference("middlegame", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    46L, 2_079L, 89_890L, 3_894_594L, 164_075_551L, 6_923_051_137L));
+
+    private final ChessBoard board;
+    private final MoveList[] plies;
+
+    private Perft(ChessBoard board, int depth) {
+        this.board = board;
+        this.plies = new MoveList[Math.max(depth, 1)];
+        for (int i = 0; i < plies.length; i++) {
+            plies[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Counts the positions reachable in exactly {@code depth} moves. The game is
+     * left as it was found.
+     */
+    public static long perft(ChessGame game, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        return new Perft(game.getBoard(), depth).count(game.getTeamTurn(), depth, 0);
+    }
+
+    /**
+     * Counts the positions reachable in exactly {@code depth} moves below each
+     * legal move of the side to move, keyed by the move in coordinate notation
+     * (e.g. {@code e2e4} or {@code e7e8q})
+     */
+    public static List<String> divide(ChessGame game, int depth) {
+        Perft perft = new Perft(game.getBoard(), depth);
+        ChessGame.TeamColor color = game.getTeamTurn();
+        MoveList moves = perft.plies[0];
+        moves.clear();
+        MoveGenerator.generate(perft.board, color, perft.board.getOccupancy(color), moves);
+
+        List<String> lines = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            perft.board.doMove(move);
+            long nodes = depth <= 1 ? 1 : perft.count(opponent(color), depth - 1, 1);
+            perft.board.undoMove();
+            lines.add(notation(move) + ": " + nodes);
+        }
+        return lines;
+    }
+
+    /**
+     * @return the move in coordinate notation, e.g. {@code e2e4} or {@code e7e8q}
+     */
+    static String notation(int move) {
+        StringBuilder text = new StringBuilder(5);
+        Fen.appendSquare(text, Move.start(move));
+        Fen.appendSquare(text, Move.end(move));
+        int promotion = Move.promotionType(move);
+        if (promotion >= 0) {
+            text.append(Fen.PIECE_LETTERS.charAt(6 + promotion));
+        }
+        return text.toString();
+    }
+
+    private long count(ChessGame.TeamColor color, int depth, int ply) {
+        MoveList moves = plies[ply];
+        moves.clear();
+        MoveGenerator.generate(board, color, board.getOccupancy(color), moves);
+        // Every generated move is legal, so the last ply only needs counting
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        ChessGame.TeamColor next = opponent(color);
+        for (int i = 0; i < moves.size(); i++) {
+            board.doMove(moves.get(i));
+            nodes += count(next, depth - 1, ply + 1);
+            board.undoMove();
+        }
+        return nodes;
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: Perft <depth> [fen] | Perft --suite [depth]");
+            return;
+        }
+        if (args[0].equals("--suite")) {
+            runSuite(args.length > 1 ? Integer.parseInt(args[1]) : 4);
+            return;
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        String fen = args.length > 1 ? String.join(" ", List.of(args).subList(1, args.length)) : Fen.START;
+        ChessGame game = Fen.parse(fen);
+
+        long start = System.nanoTime();
+        List<String> lines = divide(game, depth);
+        long elapsed = System.nanoTime() - start;
+
+        long total = 0;
+        for (String line : lines) {
+            System.out.println(line);
+            total += Long.parseLong(line.substring(line.indexOf(':') + 2));
+        }
+        System.out.println();
+        System.out.println("Moves: " + lines.size());
+        System.out.println("Nodes: " + total);
+        printSpeed(total, elapsed);
+    }
+
+    private static void runSuite(int maxDepth) {
+        boolean passed = true;
+        for (Reference reference : REFERENCE_POSITIONS) {
+            System.out.println(reference.name() + ": " + reference.fen());
+            for (int depth = 1; depth <= Math.min(maxDepth, reference.nodes().length); depth++) {
+                long start = System.nanoTime();
+                long nodes = perft(Fen.parse(reference.fen()), depth);
+                long elapsed = System.nanoTime() - start;
+
+                long expected = reference.nodes()[depth - 1];
+                passed &= nodes == expected;
+                System.out.printf("  depth %d: %d %s  ", depth, nodes, nodes == expected ? "ok" : "FAILED, expected " + expected);
+                printSpeed(nodes, elapsed);
+            }
+        }
+        System.out.println(passed ? "All positions match" : "Some positions FAILED");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    private static void printSpeed(long nodes, long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        System.out.printf("(%.3f s, %,.0f nodes/s)%n", seconds, nodes / seconds);
+    }
+}
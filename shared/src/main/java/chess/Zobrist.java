@@ -0,0 +1,58 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. A position's key is the XOR of the
+ * key of every piece on its square, the castling rights, the en passant column
+ * and the side to move, so a move updates it with a handful of XORs.
+ * <p>
+ * The keys come from a fixed seed, so a position has the same key in every
+ * run and keys may be stored.
+ */
+final class Zobrist {
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+
+    /** Indexed by piece index (see {@link ChessBoard}) and square */
+    private static final long[][] PIECES = new long[12][64];
+    /** Indexed by the castling rights bit set */
+    private static final long[] CASTLING = new long[16];
+    /** Indexed by column - 1 of the en passant square */
+    private static final long[] EN_PASSANT = new long[8];
+    static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] squares : PIECES) {
+            for (int square = 0; square < 64; square++) {
+                squares[square] = random.nextLong();
+            }
+        }
+        // No castling rights and no en passant square leave the key unchanged
+        for (int rights = 1; rights < CASTLING.length; rights++) {
+            CASTLING[rights] = random.nextLong();
+        }
+        for (int column = 0; column < EN_PASSANT.length; column++) {
+            EN_PASSANT[column] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    static long piece(int index, int square) {
+        return PIECES[index][square];
+    }
+
+    static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @param square the en passant square, or -1 for none
+     */
+    static long enPassant(int square) {
+        return square < 0 ? 0 : EN_PASSANT[square & 7];
+    }
+}
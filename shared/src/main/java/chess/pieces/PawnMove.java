@@ -6,9 +6,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 
 public class PawnMove extends PieceMove {
-    private int LEFT = -1;
-    private int RIGHT = 1;
-
     @Override
     public Collection<ChessMove> movePiece(ChessBoard board, ChessPosition startPos) {
         ArrayList<ChessMove> moves = new ArrayList<>();
@@ -19,60 +16,46 @@ public class PawnMove extends PieceMove {
         int forward;
         int startRow;
         int promRow;
+        ChessGame.TeamColor enemyColor;
 
         if (teamColor == ChessGame.TeamColor.BLACK) {
-            forward = -1;
+            forward = -8;
             startRow = 7;
             promRow = 1;
+            enemyColor = ChessGame.TeamColor.WHITE;
         }
         else {
-            forward = 1;
+            forward = 8;
             startRow = 2;
             promRow = 8;
+            enemyColor = ChessGame.TeamColor.BLACK;
         }
 
-        int currRow = startPos.getRow();
-        int currCol = startPos.getColumn();
-        int nextRow = startPos.getRow() + forward;
-
-        ChessPosition advancePos = new ChessPosition(nextRow, currCol);
-        ChessMove moveForward = new ChessMove(startPos, advancePos, null);
+        int square = Bitboards.square(startPos);
+        int advance = square + forward;
+        long empty = ~board.getOccupancy();
 
-        if (!isOutOfBounds(moveForward) && !isCollision(board, moveForward)) {
-            if (nextRow == promRow) {
+        if (advance >= 0 && advance < 64 && (empty & (1L << advance)) != 0) {
+            ChessPosition advancePos = Bitboards.position(advance);
+            if (advancePos.getRow() == promRow) {
                 moves.addAll(createPromotion(startPos, advancePos));
             }
             else {
-                if (currRow == startRow) {
-                    ChessPosition advancePosTwo = new ChessPosition(nextRow + forward, currCol);
-                    ChessMove moveForwardTwo = new ChessMove(startPos, advancePosTwo, null);
-                    if (!isOutOfBounds(moveForwardTwo) && !isCollision(board, moveForwardTwo)) {
-                        moves.add(moveForwardTwo);
-                    }
+                int advanceTwo = advance + forward;
+                if (startPos.getRow() == startRow && (empty & (1L << advanceTwo)) != 0) {
+                    moves.add(new ChessMove(startPos, Bitboards.position(advanceTwo), null));
                 }
-                moves.add(moveForward);
+                moves.add(new ChessMove(startPos, advancePos, null));
             }
         }
 
-        ArrayList<ChessMove> attackMove = new ArrayList<>();
-
-        ChessPosition attackLeftPos = new ChessPosition(nextRow, currCol + LEFT);
-        ChessPosition attackRightPos = new ChessPosition(nextRow, currCol + RIGHT);
-
-        ChessMove attackLeft = new ChessMove(startPos, attackLeftPos, null);
-        ChessMove attackRight = new ChessMove(startPos, attackRightPos, null);
-
-        attackMove.add(attackRight);
-        attackMove.add(attackLeft);
-
-        for (ChessMove move : attackMove) {
-            ChessPosition endPos = move.getEndPosition();
-            if (!isOutOfBounds(move) && isAttack(board, move)) {
-                if (endPos.getRow() == promRow) {
-                    moves.addAll(createPromotion(startPos, endPos));
-                } else {
-                    moves.add(move);
-                }
+        long attacks = Bitboards.pawnAttacks(teamColor, square) & board.getOccupancy(enemyColor);
+        for (; attacks != 0; attacks &= attacks - 1) {
+            ChessPosition endPos = Bitboards.position(Long.numberOfTrailingZeros(attacks));
+            if (endPos.getRow() == promRow) {
+                moves.addAll(createPromotion(startPos, endPos));
+            } else {
+                moves.add(new ChessMove(startPos, endPos, null));
             }
         }
 
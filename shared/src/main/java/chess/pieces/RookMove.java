@@ -1,5 +1,6 @@
 package chess.pieces;
 
+import chess.Bitboards;
 import chess.ChessBoard;
 import chess.ChessMove;
 import chess.ChessPosition;
@@ -12,9 +13,8 @@ public class RookMove extends PieceMove {
     public Collection<ChessMove> movePiece(ChessBoard board, ChessPosition startPos) {
         ArrayList<ChessMove> moves = new ArrayList<>();
 
-        for (int[] move : VERTICAL_MOVES) {
-            moves.addAll(findValidMoves(board, startPos, null, move, true));
-        }
+        long own = board.getOccupancy(board.getPiece(startPos).getTeamColor());
+        addMoves(moves, startPos, Bitboards.rookAttacks(Bitboards.square(startPos), board.getOccupancy()) & ~own);
 
         return moves;
     }
@@ -2,5 +2,12 @@ package model;
 
 import java.util.Collection;
 
-public record GameList(Collection<GameData> games) {
+/**
+ * @param next the cursor for the following page, passed back as {@code after},
+ *             or null if this is the last page
+ */
+public record GameList(Collection<GameSummary> games, String next) {
+    public GameList(Collection<GameSummary> games) {
+        this(games, null);
+    }
 }
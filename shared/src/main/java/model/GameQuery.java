@@ -0,0 +1,195 @@
+package model;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One page of the game list, as asked for by {@code GET /game?after=&limit=&filter=&player=&sort=}.
+ * <p>
+ * Pages are found by cursor rather than by offset: {@code after} is the
+ * {@link GameList#next()} of the page before, naming the last game on it, and
+ * the next page starts with whatever sorts after that game. Games created or
+ * changed in between never make a page repeat or skip a game that was already
+ * there, and each page is a range of an index however far in it starts.
+ *
+ * @param after  the {@code next} cursor of the previous page, or null for the first page
+ * @param limit  the most games to return, from 1 to {@link #MAX_LIMIT}
+ * @param filter which games to include
+ * @param player only games this user has a seat in, or null for anyone's
+ * @param sort   the order of the games
+ */
+public record GameQuery(String after, int limit, Filter filter, String player, Sort sort) {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+    public static final GameQuery DEFAULT = new GameQuery(null, DEFAULT_LIMIT, Filter.ALL, null, Sort.OLDEST);
+
+    public enum Filter {
+        ALL,
+        /** Games with a seat free that have not ended */
+        OPEN,
+        IN_PROGRESS,
+        FINISHED
+    }
+
+    public enum Sort {
+        /** By game ID, first created first */
+        OLDEST,
+        /** By game ID, last created first */
+        NEWEST,
+        /** Most recently played or joined first */
+        RECENT,
+        /** By game name, then game ID */
+        NAME
+    }
+
+    /**
+     * Where a page starts: the sort key of the last game on the page before
+     *
+     * @param lastActivity only used by {@link Sort#RECENT}
+     * @param gameName     only used by {@link Sort#NAME}
+     */
+    public record Cursor(int gameID, long lastActivity, String gameName) {
+    }
+
+    public GameQuery {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        filter = filter == null ? Filter.ALL : filter;
+        sort = sort == null ? Sort.OLDEST : sort;
+        after = after == null || after.isEmpty() ? null : after;
+        player = player == null || player.isEmpty() ? null : player;
+        if (after != null) {
+            parseCursor(after, sort);
+        }
+    }
+
+    /**
+     * @return the same query for the page after the one that ended with {@code next}
+     */
+    public GameQuery after(String next) {
+        return new GameQuery(next, limit, filter, player, sort);
+    }
+
+    /**
+     * @return the decoded {@link #after} cursor, or null for the first page
+     */
+    public Cursor cursor() {
+        return after == null ? null : parseCursor(after, sort);
+    }
+
+    /**
+     * @return the cursor for the page that follows this game
+     */
+    public String cursorAfter(GameSummary game) {
+        return switch (sort) {
+            case OLDEST, NEWEST -> String.valueOf(game.gameID());
+            case RECENT -> game.lastActivity() + "." + game.gameID();
+            case NAME -> Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(game.gameName().getBytes(StandardCharsets.UTF_8)) + "." + game.gameID();
+        };
+    }
+
+    /**
+     * @return the query as URL parameters, starting with {@code ?}, leaving out
+     * those that are the default, or an empty string if all of them are
+     */
+    public String toQueryString() {
+        List<String> params = new ArrayList<>();
+        if (after != null) {
+            params.add("after=" + encode(after));
+        }
+        if (limit != DEFAULT_LIMIT) {
+            params.add("limit=" + limit);
+        }
+        if (filter != Filter.ALL) {
+            params.add("filter=" + filter.name());
+        }
+        if (player != null) {
+            params.add("player=" + encode(player));
+        }
+        if (sort != Sort.OLDEST) {
+            params.add("sort=" + sort.name());
+        }
+        return params.isEmpty() ? "" : "?" + String.join("&", params);
+    }
+
+    public boolean matches(GameSummary game) {
+        boolean filtered = switch (filter) {
+            case ALL -> true;
+            case OPEN -> (game.whiteUsername() == null || game.blackUsername() == null)
+                    && game.status() != GameSummary.Status.FINISHED;
+            case IN_PROGRESS -> game.status() == GameSummary.Status.IN_PROGRESS;
+            case FINISHED -> game.status() == GameSummary.Status.FINISHED;
+        };
+        return filtered && (player == null || player.equals(game.whiteUsername()) || player.equals(game.blackUsername()));
+    }
+
+    public Comparator<GameSummary> order() {
+        return switch (sort) {
+            case OLDEST -> Comparator.comparingInt(GameSummary::gameID);
+            case NEWEST -> Comparator.comparingInt(GameSummary::gameID).reversed();
+            case RECENT -> Comparator.comparingLong(GameSummary::lastActivity)
+                    .thenComparingInt(GameSummary::gameID).reversed();
+            case NAME -> Comparator.comparing(GameSummary::gameName).thenComparingInt(GameSummary::gameID);
+        };
+    }
+
+    /**
+     * Picks this page out of every game, for stores that cannot query for it directly
+     */
+    public GameList apply(Collection<GameSummary> games) {
+        Cursor cursor = cursor();
+        GameSummary last = cursor == null ? null
+                : new GameSummary(cursor.gameID(), cursor.gameName(), null, null, null, 0, cursor.lastActivity());
+        Comparator<GameSummary> order = order();
+        List<GameSummary> page = games.stream()
+                .filter(this::matches)
+                .filter(game -> last == null || order.compare(game, last) > 0)
+                .sorted(order)
+                .limit(limit + 1L)
+                .toList();
+        return page(page);
+    }
+
+    /**
+     * @param games the games after the cursor in order, fetching one more than
+     *              {@link #limit} to tell whether there is another page
+     */
+    public GameList page(List<GameSummary> games) {
+        if (games.size() <= limit) {
+            return new GameList(games, null);
+        }
+        List<GameSummary> page = games.subList(0, limit);
+        return new GameList(List.copyOf(page), cursorAfter(page.get(limit - 1)));
+    }
+
+    private static Cursor parseCursor(String after, Sort sort) {
+        try {
+            if (sort == Sort.OLDEST || sort == Sort.NEWEST) {
+                return new Cursor(Integer.parseInt(after), 0, null);
+            }
+            int dot = after.lastIndexOf('.');
+            if (dot < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+            int gameID = Integer.parseInt(after.substring(dot + 1));
+            String key = after.substring(0, dot);
+            if (sort == Sort.RECENT) {
+                return new Cursor(gameID, Long.parseLong(key), null);
+            }
+            return new Cursor(gameID, 0, new String(Base64.getUrlDecoder().decode(key), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + after);
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,37 @@
+package model;
+
+import chess.ChessGame;
+
+/**
+ * What the lobby shows about a game, without the board itself
+ *
+ * @param moveCount    moves made by either player
+ * @param lastActivity when the game last changed, in milliseconds since the epoch
+ */
+public record GameSummary(
+        int gameID,
+        String gameName,
+        String whiteUsername,
+        String blackUsername,
+        Status status,
+        int moveCount,
+        long lastActivity
+) {
+    public enum Status {
+        NEW,
+        IN_PROGRESS,
+        FINISHED;
+
+        /**
+         * @return FINISHED once the game is over, the side to move has no legal move
+         * or the game is drawn, otherwise NEW or IN_PROGRESS depending on whether a
+         * move has been made
+         */
+        public static Status of(ChessGame game) {
+            if (game.isOver() || game.legalMoves(game.getTeamTurn()).isEmpty() || game.isDrawByRepetition() || game.isDrawByFiftyMoves()) {
+                return FINISHED;
+            }
+            return game.getPlyCount() == 0 ? NEW : IN_PROGRESS;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package serialization;
+
+import chess.ChessGame;
+import chess.GameStateCodec;
+import websocket.commands.UserGameCommand;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.Loading;
+import websocket.messages.ServerMessage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes server messages for the wire format a client picked at CONNECT (see
+ * {@link UserGameCommand.WireFormat}). Every message has a JSON text form;
+ * LOAD_GAME also has a binary form, used for clients that asked for it:
+ * <pre>
+ *   1 byte    frame type, {@link #LOAD_GAME}
+ *   1 byte    the receiving player's color: 0 white, 1 black, -1 none
+ *   38 bytes  the game state, see {@link GameStateCodec}
+ * </pre>
+ */
+public final class MessageCodec {
+    public static final byte LOAD_GAME = 1;
+
+    private static final int LOAD_GAME_SIZE = 2 + GameStateCodec.SIZE;
+
+    private MessageCodec() {
+    }
+
+    /**
+     * @return whether the message can be sent as a binary frame
+     */
+    public static boolean hasBinaryForm(ServerMessage message) {
+        return message instanceof Loading || message instanceof LoadGameMessage;
+    }
+
+    public static String encodeText(ServerMessage message) {
+        return Serializer.toJson(message);
+    }
+
+    /**
+     * @return a read-only frame positioned at its start
+     * @throws IllegalArgumentException if the message has no binary form
+     */
+    public static ByteBuffer encodeBinary(ServerMessage message) {
+        ChessGame game;
+        ChessGame.TeamColor color = null;
+        if (message instanceof Loading loading) {
+            game = loading.getGame();
+            color = loading.getColor();
+        } else if (message instanceof LoadGameMessage load) {
+            game = load.getGame();
+        } else {
+            throw new IllegalArgumentException("No binary form for " + message.getServerMessageType());
+        }
+
+        ByteBuffer frame = ByteBuffer.allocate(LOAD_GAME_SIZE);
+        frame.put(LOAD_GAME);
+        frame.put((byte) (color == null ? -1 : color.ordinal()));
+        GameStateCodec.write(game, frame);
+        return frame.flip().asReadOnlyBuffer();
+    }
+
+    /**
+     * Reads a frame written by {@link #encodeBinary}
+     *
+     * @throws IllegalArgumentException if the frame is not a LOAD_GAME frame
+     */
+    public static Loading decodeBinary(ByteBuffer frame) {
+        if (frame.remaining() < LOAD_GAME_SIZE || frame.get() != LOAD_GAME) {
+            throw new IllegalArgumentException("Not a LOAD_GAME frame");
+        }
+        int color = frame.get();
+        if (color < -1 || color > 1) {
+            throw new IllegalArgumentException("Bad player color: " + color);
+        }
+        ChessGame game = GameStateCodec.read(frame);
+        return new Loading(ServerMessage.ServerMessageType.LOAD_GAME, game,
+                color < 0 ? null : ChessGame.TeamColor.values()[color]);
+    }
+}
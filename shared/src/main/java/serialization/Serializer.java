@@ -0,0 +1,151 @@
+package serialization;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessTypeAdapters;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import model.AuthData;
+import model.GameData;
+import model.GameList;
+import model.GameSummary;
+import model.JoinGameRequest;
+import model.UserData;
+import websocket.commands.MakeMove;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.Erroring;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.LobbyEventMessage;
+import websocket.messages.Loading;
+import websocket.messages.MoveAppliedMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.Notifying;
+import websocket.messages.ServerMessage;
+
+import java.io.Reader;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The Gson instances shared by the client and server. They are built once with
+ * the compact chess adapters from {@link ChessTypeAdapters}, and Gson instances
+ * are immutable and thread safe, so everything that reads or writes JSON should
+ * go through here rather than its own {@code new Gson()}.
+ * <p>
+ * The static {@code toJson}/{@code fromJson} methods also count calls and time
+ * spent, readable through {@link #metrics()}. Adapters for the shared model,
+ * command and message types are created when this class loads, so the first
+ * request does not pay for building them.
+ */
+public final class Serializer {
+    public static final Gson GSON = ChessTypeAdapters.register(new GsonBuilder()).create();
+
+    /**
+     * Like {@link #GSON}, but writes null fields instead of leaving them out
+     */
+    public static final Gson GSON_WITH_NULLS = ChessTypeAdapters.register(new GsonBuilder()).serializeNulls().create();
+
+    /**
+     * Running totals of the calls made through this class
+     *
+     * @param writes     number of values written
+     * @param writeNanos total time spent writing them
+     * @param reads      number of values read
+     * @param readNanos  total time spent reading them
+     */
+    public record Metrics(long writes, long writeNanos, long reads, long readNanos) {
+        public double averageWriteMicros() {
+            return writes == 0 ? 0 : writeNanos / 1_000.0 / writes;
+        }
+
+        public double averageReadMicros() {
+            return reads == 0 ? 0 : readNanos / 1_000.0 / reads;
+        }
+    }
+
+    private static final LongAdder WRITES = new LongAdder();
+    private static final LongAdder WRITE_NANOS = new LongAdder();
+    private static final LongAdder READS = new LongAdder();
+    private static final LongAdder READ_NANOS = new LongAdder();
+
+    static {
+        warmUp(ChessGame.class, ChessBoard.class, ChessMove.class, ChessPiece.class,
+                AuthData.class, UserData.class, GameData.class, GameList.class, GameSummary.class, JoinGameRequest.class,
+                UserGameCommand.class, MakeMoveCommand.class, MakeMove.class,
+                ServerMessage.class, LoadGameMessage.class, NotificationMessage.class, ErrorMessage.class,
+                MoveAppliedMessage.class, LobbyEventMessage.class, Loading.class, Notifying.class, Erroring.class);
+    }
+
+    private Serializer() {
+    }
+
+    /**
+     * Builds the adapters for the given types ahead of their first use
+     */
+    public static void warmUp(Class<?>... types) {
+        for (Class<?> type : types) {
+            GSON.getAdapter(type);
+            GSON_WITH_NULLS.getAdapter(type);
+        }
+    }
+
+    public static String toJson(Object value) {
+        return write(GSON, value);
+    }
+
+    /**
+     * Like {@link #toJson(Object)}, but writes null fields instead of leaving them out
+     */
+    public static String toJsonWithNulls(Object value) {
+        return write(GSON_WITH_NULLS, value);
+    }
+
+    public static <T> T fromJson(String json, Class<T> type) {
+        long start = System.nanoTime();
+        try {
+            return GSON.fromJson(json, type);
+        } finally {
+            record(READS, READ_NANOS, start);
+        }
+    }
+
+    public static <T> T fromJson(Reader json, Class<T> type) {
+        long start = System.nanoTime();
+        try {
+            return GSON.fromJson(json, type);
+        } finally {
+            record(READS, READ_NANOS, start);
+        }
+    }
+
+    /**
+     * @return the totals since startup or the last {@link #resetMetrics()}
+     */
+    public static Metrics metrics() {
+        return new Metrics(WRITES.sum(), WRITE_NANOS.sum(), READS.sum(), READ_NANOS.sum());
+    }
+
+    public static void resetMetrics() {
+        WRITES.reset();
+        WRITE_NANOS.reset();
+        READS.reset();
+        READ_NANOS.reset();
+    }
+
+    private static String write(Gson gson, Object value) {
+        long start = System.nanoTime();
+        try {
+            return gson.toJson(value);
+        } finally {
+            record(WRITES, WRITE_NANOS, start);
+        }
+    }
+
+    private static void record(LongAdder count, LongAdder nanos, long start) {
+        nanos.add(System.nanoTime() - start);
+        count.increment();
+    }
+}
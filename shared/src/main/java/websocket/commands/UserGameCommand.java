@@ -16,17 +16,55 @@ public class UserGameCommand {
 
     private final Integer gameID;
 
+    private final WireFormat format;
+
+    private final boolean moveUpdates;
+
     public UserGameCommand(CommandType commandType, String authToken, Integer gameID) {
+        this(commandType, authToken, gameID, null);
+    }
+
+    /**
+     * @param format how the client wants LOAD_GAME messages sent; only read on CONNECT
+     */
+    public UserGameCommand(CommandType commandType, String authToken, Integer gameID, WireFormat format) {
+        this(commandType, authToken, gameID, format, false);
+    }
+
+    /**
+     * @param format      how the client wants LOAD_GAME messages sent; only read on CONNECT
+     * @param moveUpdates whether the client applies MOVE_APPLIED messages itself instead
+     *                    of getting a LOAD_GAME after every move; only read on CONNECT
+     */
+    public UserGameCommand(CommandType commandType, String authToken, Integer gameID, WireFormat format,
+                           boolean moveUpdates) {
         this.commandType = commandType;
         this.authToken = authToken;
         this.gameID = gameID;
+        this.format = format;
+        this.moveUpdates = moveUpdates;
     }
 
     public enum CommandType {
         CONNECT,
         MAKE_MOVE,
         LEAVE,
-        RESIGN
+        RESIGN,
+        // Asks for a LOAD_GAME, e.g. after a client misses a MOVE_APPLIED
+        RESYNC,
+        // Starts or stops LOBBY_EVENT messages about every game; no gameID needed
+        SUBSCRIBE_LOBBY,
+        UNSUBSCRIBE_LOBBY
+    }
+
+    /**
+     * Encodings a client can ask for at CONNECT. JSON text frames are used
+     * unless BINARY is requested, which sends game state as the
+     * {@link serialization.MessageCodec} binary frame.
+     */
+    public enum WireFormat {
+        JSON,
+        BINARY
     }
 
     public CommandType getCommandType() {
@@ -41,6 +79,14 @@ public class UserGameCommand {
         return gameID;
     }
 
+    public WireFormat getFormat() {
+        return format == null ? WireFormat.JSON : format;
+    }
+
+    public boolean acceptsMoveUpdates() {
+        return moveUpdates;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -51,12 +97,14 @@ public class UserGameCommand {
         }
         UserGameCommand that = (UserGameCommand) o;
         return getCommandType() == that.getCommandType() &&
-                Objects.equals(getAuthString(), that.getAuthString()) &&
-                Objects.equals(getGameID(), that.getGameID());
+                Objects.equals(getAuthToken(), that.getAuthToken()) &&
+                Objects.equals(getGameID(), that.getGameID()) &&
+                getFormat() == that.getFormat() &&
+                acceptsMoveUpdates() == that.acceptsMoveUpdates();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getCommandType(), getAuthString(), getGameID());
+        return Objects.hash(getCommandType(), getAuthToken(), getGameID(), getFormat(), acceptsMoveUpdates());
     }
 }
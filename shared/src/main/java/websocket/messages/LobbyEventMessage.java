@@ -0,0 +1,54 @@
+package websocket.messages;
+
+import model.GameSummary;
+
+import java.util.Map;
+
+/**
+ * Tells a client subscribed to the lobby that one game changed, so it can
+ * keep its own index of the game list instead of fetching the list again.
+ * Events are numbered one after another, so if {@link #getSequence()} is not
+ * one past the last one the client saw it has missed something and should
+ * fetch the list once to catch up.
+ */
+public class LobbyEventMessage extends ServerMessage {
+    public enum Kind {
+        GAME_CREATED,
+        SEAT_TAKEN,
+        SEAT_LEFT,
+        GAME_FINISHED
+    }
+
+    private final Kind kind;
+    private final GameSummary game;
+    private final long sequence;
+
+    /**
+     * @param game the game after the change
+     */
+    public LobbyEventMessage(Kind kind, GameSummary game, long sequence) {
+        super(ServerMessageType.LOBBY_EVENT);
+        this.kind = kind;
+        this.game = game;
+        this.sequence = sequence;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public GameSummary getGame() {
+        return game;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Records the change in a client's index of games by ID
+     */
+    public void applyTo(Map<Integer, GameSummary> games) {
+        games.put(game.gameID(), game);
+    }
+}
@@ -0,0 +1,86 @@
+package websocket.messages;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+
+/**
+ * Tells a client which move was just made instead of resending the whole game.
+ * The client plays the move on its own copy, then checks the result: if
+ * {@link #getSequence()} is not one past its own ply count, or its Zobrist key
+ * differs from {@link #getHash()}, it has missed something and should send a
+ * RESYNC command for a full LOAD_GAME.
+ */
+public class MoveAppliedMessage extends ServerMessage {
+    public enum Status {
+        ONGOING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        DRAW
+    }
+
+    private final ChessMove move;
+    private final int sequence;
+    private final long hash;
+    private final Status status;
+
+    /**
+     * @param game the game after the move was made
+     */
+    public MoveAppliedMessage(ChessMove move, ChessGame game, Status status) {
+        super(ServerMessageType.MOVE_APPLIED);
+        this.move = move;
+        this.sequence = game.getPlyCount();
+        this.hash = game.getZobristKey();
+        this.status = status;
+    }
+
+    public ChessMove getMove() {
+        return move;
+    }
+
+    /**
+     * @return the ply count of the game after the move
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the Zobrist key of the game after the move
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return whether the game ended with this move
+     */
+    public boolean isGameOver() {
+        return status == Status.CHECKMATE || status == Status.STALEMATE || status == Status.DRAW;
+    }
+
+    /**
+     * Plays the move on a client's copy of the game, if that copy is exactly one
+     * move behind the server
+     *
+     * @return whether the copy now matches the server; if not it should be
+     * replaced by a fresh LOAD_GAME
+     */
+    public boolean applyTo(ChessGame game) {
+        if (game == null || game.getPlyCount() + 1 != sequence) {
+            return false;
+        }
+        try {
+            game.makeMove(move);
+        } catch (InvalidMoveException e) {
+            return false;
+        }
+        return game.getZobristKey() == hash;
+    }
+}
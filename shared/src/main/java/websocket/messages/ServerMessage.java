@@ -14,7 +14,9 @@ public class ServerMessage {
     public enum ServerMessageType {
         LOAD_GAME,
         ERROR,
-        NOTIFICATION
+        NOTIFICATION,
+        MOVE_APPLIED,
+        LOBBY_EVENT
     }
 
     public ServerMessage(ServerMessageType type) {
@@ -0,0 +1,95 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.*;
+import serialization.Serializer;
+
+public class ChessTypeAdaptersTests {
+    private static final Gson GSON = Serializer.GSON;
+
+    @Test
+    @DisplayName("Game is written as FEN")
+    public void gameWrittenAsFen() {
+        Assertions.assertEquals("{\"fen\":\"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1\"}",
+                GSON.toJson(new ChessGame()));
+    }
+
+    @Test
+    @DisplayName("Game saved by reflective Gson still loads")
+    public void legacyGameRead() {
+        // White king and rook on their home squares, black king on e8, black to move
+        String rook = "{\"teamColor\":\"WHITE\",\"pieceType\":\"ROOK\",\"moves\":[],\"bishopMove\":{},\"kingMove\":{}}";
+        String whiteKing = "{\"teamColor\":\"WHITE\",\"pieceType\":\"KING\",\"moves\":[]}";
+        String blackKing = "{\"teamColor\":\"BLACK\",\"pieceType\":\"KING\",\"moves\":[]}";
+        String empty = "[null,null,null,null,null,null,null,null]";
+        String json = "{\"board\":{\"squares\":["
+                + "[null,null,null,null," + whiteKing + ",null,null," + rook + "],"
+                + empty + "," + empty + "," + empty + "," + empty + "," + empty + "," + empty + ","
+                + "[null,null,null,null," + blackKing + ",null,null,null]"
+                + "]},\"teamTurn\":\"BLACK\"}";
+
+        var game = GSON.fromJson(json, ChessGame.class);
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K2R b K - 0 1", game.toFen());
+        Assertions.assertFalse(game.isOver());
+    }
+
+    @Test
+    @DisplayName("Game round trips with its history")
+    public void gameRoundTrip() throws InvalidMoveException {
+        var game = new ChessGame();
+        var out = new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null);
+        var back = new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null);
+        var blackOut = new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null);
+        var blackBack = new ChessMove(ChessPosition.of(6, 6), ChessPosition.of(8, 7), null);
+        game.makeMove(out);
+        game.makeMove(blackOut);
+        game.makeMove(back);
+        game.makeMove(blackBack);
+
+        var copy = GSON.fromJson(GSON.toJson(game), ChessGame.class);
+        Assertions.assertEquals(game.toFen(), copy.toFen());
+        Assertions.assertEquals(game.getBoard(), copy.getBoard());
+
+        copy.makeMove(out);
+        copy.makeMove(blackOut);
+        copy.makeMove(back);
+        copy.makeMove(blackBack);
+        Assertions.assertTrue(copy.isDrawByRepetition(), "Repetitions before the reload still count");
+    }
+
+    @Test
+    @DisplayName("Board, piece and move round trip")
+    public void partsRoundTrip() {
+        var board = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w Kq - 3 1").getBoard();
+        var boardCopy = GSON.fromJson(GSON.toJson(board), ChessBoard.class);
+        Assertions.assertEquals(board, boardCopy);
+        Assertions.assertEquals(board.getCastlingRights(), boardCopy.getCastlingRights());
+        Assertions.assertEquals(3, boardCopy.getHalfmoveClock());
+
+        var piece = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals("\"n\"", GSON.toJson(piece));
+        Assertions.assertSame(piece, GSON.fromJson("\"n\"", ChessPiece.class));
+
+        var move = new ChessMove(ChessPosition.of(7, 2), ChessPosition.of(8, 1), ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals("\"b7a8n\"", GSON.toJson(move));
+        Assertions.assertEquals(move, GSON.fromJson("\"b7a8n\"", ChessMove.class));
+    }
+
+    @Test
+    @DisplayName("Reflective move form is still read")
+    public void reflectiveMoveRead() {
+        var move = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+
+        Assertions.assertEquals(move, GSON.fromJson(new Gson().toJson(move), ChessMove.class));
+    }
+
+    @Test
+    @DisplayName("Malformed values are rejected")
+    public void malformedRejected() {
+        Assertions.assertThrows(JsonParseException.class, () -> GSON.fromJson("\"e2e9\"", ChessMove.class));
+        Assertions.assertThrows(JsonParseException.class, () -> GSON.fromJson("\"e7e8k\"", ChessMove.class));
+        Assertions.assertThrows(JsonParseException.class, () -> GSON.fromJson("\"x\"", ChessPiece.class));
+        Assertions.assertThrows(JsonParseException.class, () -> GSON.fromJson("{\"fen\":\"8/8 w\"}", ChessGame.class));
+    }
+}
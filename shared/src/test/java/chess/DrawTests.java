@@ -0,0 +1,118 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+import serialization.Serializer;
+
+public class DrawTests {
+    private static final ChessMove WHITE_OUT = new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null);
+    private static final ChessMove BLACK_OUT = new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null);
+    private static final ChessMove WHITE_BACK = new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null);
+    private static final ChessMove BLACK_BACK = new ChessMove(ChessPosition.of(6, 6), ChessPosition.of(8, 7), null);
+
+    @Test
+    @DisplayName("Third occurrence of a position is a draw")
+    public void threefoldRepetition() throws InvalidMoveException {
+        var game = new ChessGame();
+
+        shuffleKnights(game);
+        Assertions.assertFalse(game.isDrawByRepetition(), "Second occurrence is not yet a draw");
+
+        shuffleKnights(game);
+        Assertions.assertTrue(game.isDrawByRepetition(), "Starting position occurred three times");
+    }
+
+    @Test
+    @DisplayName("Pawn move breaks the repetition count")
+    public void pawnMoveResetsRepetition() throws InvalidMoveException {
+        var game = new ChessGame();
+        shuffleKnights(game);
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        shuffleKnights(game);
+
+        Assertions.assertFalse(game.isDrawByRepetition());
+        shuffleKnights(game);
+        Assertions.assertTrue(game.isDrawByRepetition());
+    }
+
+    @Test
+    @DisplayName("No move is taken once the game is drawn")
+    public void moveAfterRepetitionRefused() throws InvalidMoveException {
+        var game = new ChessGame();
+        shuffleKnights(game);
+        shuffleKnights(game);
+        Assertions.assertTrue(game.isOver(), "Threefold repetition ends the game");
+
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(WHITE_OUT));
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        Assertions.assertNotNull(game.getBoard().getPiece(ChessPosition.of(1, 7)), "The knight did not move");
+    }
+
+    @Test
+    @DisplayName("Copy keeps the history and moves on its own")
+    public void copyIsIndependent() throws InvalidMoveException {
+        var game = new ChessGame();
+        shuffleKnights(game);
+        game.makeMove(WHITE_OUT);
+        game.makeMove(BLACK_OUT);
+        game.makeMove(WHITE_BACK);
+        var copy = game.copy();
+
+        copy.makeMove(BLACK_BACK);
+        Assertions.assertTrue(copy.isDrawByRepetition(), "Copy counts the positions before it was made");
+        Assertions.assertEquals(7, game.getPlyCount(), "Original is untouched");
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertNotEquals(game.getZobristKey(), copy.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Resigned game stays over through serialization")
+    public void resignationSerialized() {
+        var game = new ChessGame();
+        game.setGameOver(true);
+        var copy = Serializer.GSON.fromJson(Serializer.GSON.toJson(game), ChessGame.class);
+
+        Assertions.assertTrue(copy.isOver());
+        Assertions.assertThrows(InvalidMoveException.class, () -> copy.makeMove(WHITE_OUT));
+    }
+
+    @Test
+    @DisplayName("Hundred quiet halfmoves is a draw")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        var game = Fen.parse("4k3/8/8/8/8/8/4P3/R3K3 w - - 98 80");
+        game.makeMove(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(1, 2), null));
+        Assertions.assertFalse(game.isDrawByFiftyMoves());
+
+        game.makeMove(new ChessMove(ChessPosition.of(8, 5), ChessPosition.of(8, 4), null));
+        Assertions.assertTrue(game.isDrawByFiftyMoves());
+    }
+
+    @Test
+    @DisplayName("Pawn move resets the fifty-move count")
+    public void pawnMoveResetsFiftyMoves() throws InvalidMoveException {
+        var game = Fen.parse("4k3/8/8/8/8/8/4P3/R3K3 w - - 99 80");
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(3, 5), null));
+
+        Assertions.assertFalse(game.isDrawByFiftyMoves());
+        Assertions.assertEquals(0, game.getBoard().getHalfmoveClock());
+    }
+
+    @Test
+    @DisplayName("History survives serialization")
+    public void historySerialized() throws InvalidMoveException {
+        var game = new ChessGame();
+        shuffleKnights(game);
+        game = new Gson().fromJson(new Gson().toJson(game), ChessGame.class);
+
+        shuffleKnights(game);
+        Assertions.assertTrue(game.isDrawByRepetition());
+    }
+
+    private static void shuffleKnights(ChessGame game) throws InvalidMoveException {
+        game.makeMove(WHITE_OUT);
+        game.makeMove(BLACK_OUT);
+        game.makeMove(WHITE_BACK);
+        game.makeMove(BLACK_BACK);
+    }
+}
@@ -0,0 +1,54 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+public class FenTests {
+
+    @Test
+    @DisplayName("New game writes the starting position")
+    public void newGameFen() {
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", new ChessGame().toFen());
+    }
+
+    @Test
+    @DisplayName("Reference positions round trip")
+    public void referencePositionsRoundTrip() {
+        for (Perft.Reference reference : Perft.REFERENCE_POSITIONS) {
+            var game = ChessGame.fromFen(reference.fen());
+
+            Assertions.assertEquals(reference.fen(), game.toFen());
+            Assertions.assertEquals(reference.nodes()[1], Perft.perft(ChessGame.fromFen(game.toFen()), 2));
+        }
+    }
+
+    @Test
+    @DisplayName("Moves update turn, rights, en passant and counters")
+    public void movesUpdateFen() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+
+        game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(2, 5), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Read game keeps playing from the position")
+    public void readGamePlays() throws InvalidMoveException {
+        var game = ChessGame.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        game.makeMove(new ChessMove(ChessPosition.of(5, 5), ChessPosition.of(6, 6), null));
+
+        Assertions.assertNull(game.getBoard().getPiece(ChessPosition.of(5, 6)), "En passant capture removes the pawn");
+        Assertions.assertEquals("rnbqkbnr/ppp1p1pp/5P2/3p4/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 3", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Optional fields default")
+    public void optionalFieldsDefault() {
+        var game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R b");
+
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K2R b - - 0 1", game.toFen());
+    }
+}
@@ -0,0 +1,81 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Checks the move generator against the published node counts of the reference
+ * positions in {@link Perft}. Depths whose count is above {@code perft.maxNodes}
+ * (10 million by default) are skipped so the regular build stays quick; run with
+ * {@code -Dperft.maxNodes=10000000000} for the full depth 1-6 suite.
+ */
+public class PerftTests {
+    private static final long MAX_NODES = Long.getLong("perft.maxNodes", 10_000_000L);
+
+    static Stream<Arguments> referenceCounts() {
+        List<Arguments> cases = new ArrayList<>();
+        for (Perft.Reference reference : Perft.REFERENCE_POSITIONS) {
+            for (int depth = 1; depth <= reference.nodes().length; depth++) {
+                if (reference.nodes()[depth - 1] <= MAX_NODES) {
+                    cases.add(Arguments.of(reference.name(), reference.fen(), depth, reference.nodes()[depth - 1]));
+                }
+            }
+        }
+        return cases.stream();
+    }
+
+    @ParameterizedTest(name = "{0} depth {2}")
+    @MethodSource("referenceCounts")
+    @DisplayName("Reference position node counts")
+    public void referenceNodeCounts(String name, String fen, int depth, long expected) {
+        Assertions.assertEquals(expected, Perft.perft(Fen.parse(fen), depth),
+                "Wrong node count for " + name + " at depth " + depth);
+    }
+
+    @Test
+    @DisplayName("Perft leaves the game unchanged")
+    public void perftRestoresGame() {
+        var game = Fen.parse(Perft.REFERENCE_POSITIONS.get(1).fen());
+        var before = Fen.parse(Perft.REFERENCE_POSITIONS.get(1).fen());
+
+        Perft.perft(game, 3);
+
+        Assertions.assertEquals(before.getBoard(), game.getBoard());
+        Assertions.assertEquals(before.getBoard().getCastlingRights(), game.getBoard().getCastlingRights());
+        Assertions.assertEquals(before.getTeamTurn(), game.getTeamTurn());
+    }
+
+    @Test
+    @DisplayName("Divide splits the count by root move")
+    public void divideSplitsCount() {
+        var lines = Perft.divide(new ChessGame(), 3);
+
+        Assertions.assertEquals(20, lines.size());
+        Assertions.assertTrue(lines.contains("e2e4: 600"), "Missing e2e4 in " + lines);
+        Assertions.assertTrue(lines.contains("g1f3: 440"), "Missing g1f3 in " + lines);
+        long total = lines.stream().mapToLong(line -> Long.parseLong(line.substring(line.indexOf(':') + 2))).sum();
+        Assertions.assertEquals(8_902, total);
+    }
+
+    @Test
+    @DisplayName("Divide names promotions")
+    public void divideNamesPromotions() {
+        var lines = Perft.divide(Fen.parse("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1"), 1);
+
+        Assertions.assertTrue(lines.containsAll(List.of("b7b8q: 1", "b7b8r: 1", "b7b8b: 1", "b7b8n: 1")),
+                "Missing promotions in " + lines);
+    }
+
+    @Test
+    @DisplayName("Malformed FEN is rejected")
+    public void malformedFen() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8 w - - 0 1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse(Fen.START.replace(" w ", " x ")));
+    }
+}
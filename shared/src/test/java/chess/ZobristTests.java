@@ -0,0 +1,97 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+public class ZobristTests {
+
+    @Test
+    @DisplayName("Incremental key matches a board built from scratch")
+    public void incrementalKeyMatchesRebuild() {
+        var random = new Random(240);
+        for (int game = 0; game < 20; game++) {
+            var chessGame = new ChessGame();
+            for (int ply = 0; ply < 80; ply++) {
+                var moves = chessGame.legalMoves(chessGame.getTeamTurn()).toArray(new ChessMove[0]);
+                if (moves.length == 0) {
+                    break;
+                }
+                try {
+                    chessGame.makeMove(moves[random.nextInt(moves.length)]);
+                } catch (InvalidMoveException e) {
+                    Assertions.fail(e);
+                }
+                Assertions.assertEquals(rebuild(chessGame.getBoard()).getZobristKey(), chessGame.getBoard().getZobristKey());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Undo restores the key")
+    public void undoRestoresKey() {
+        var board = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1").getBoard();
+        long before = board.getZobristKey();
+
+        board.doMove(new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(1, 7), null));
+        Assertions.assertNotEquals(before, board.getZobristKey());
+        board.undoMove();
+
+        Assertions.assertEquals(before, board.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Transpositions share a key")
+    public void transpositionsShareKey() throws InvalidMoveException {
+        var first = new ChessGame();
+        first.makeMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        first.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        first.makeMove(new ChessMove(ChessPosition.of(1, 2), ChessPosition.of(3, 3), null));
+
+        var second = new ChessGame();
+        second.makeMove(new ChessMove(ChessPosition.of(1, 2), ChessPosition.of(3, 3), null));
+        second.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        second.makeMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+
+        Assertions.assertEquals(first.getZobristKey(), second.getZobristKey());
+        Assertions.assertEquals(first.getBoard(), second.getBoard());
+        Assertions.assertEquals(first.getBoard().hashCode(), second.getBoard().hashCode());
+    }
+
+    @Test
+    @DisplayName("Side to move, castling and en passant change the key")
+    public void stateChangesKey() {
+        long start = Fen.parse(Fen.START).getZobristKey();
+
+        Assertions.assertNotEquals(start, Fen.parse(Fen.START.replace(" w ", " b ")).getZobristKey());
+        Assertions.assertNotEquals(start, Fen.parse(Fen.START.replace("KQkq", "Kkq")).getZobristKey());
+
+        // An en passant square only counts when a pawn could capture there
+        String pushed = "rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq ";
+        Assertions.assertNotEquals(Fen.parse(pushed + "e3 0 3").getZobristKey(), Fen.parse(pushed + "- 0 3").getZobristKey());
+        Assertions.assertEquals(Fen.parse(Fen.START.replace("KQkq -", "KQkq e3")).getZobristKey(), start);
+    }
+
+    @Test
+    @DisplayName("Deserialized board has the same key")
+    public void deserializedBoardKeyed() {
+        var game = Fen.parse("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+        var copy = new Gson().fromJson(new Gson().toJson(game), ChessGame.class);
+
+        Assertions.assertEquals(game.getZobristKey(), copy.getZobristKey());
+        Assertions.assertEquals(game.getBoard(), copy.getBoard());
+    }
+
+    private static ChessBoard rebuild(ChessBoard board) {
+        var copy = new ChessBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int column = 1; column <= 8; column++) {
+                copy.addPiece(ChessPosition.of(row, column), board.getPiece(ChessPosition.of(row, column)));
+            }
+        }
+        copy.setCastlingRights(board.getCastlingRights());
+        copy.setEnPassantSquare(board.getEnPassantSquare());
+        return copy;
+    }
+}
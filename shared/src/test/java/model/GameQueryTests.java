@@ -0,0 +1,74 @@
+package model;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GameQueryTests {
+    private static final List<GameSummary> GAMES = List.of(
+            new GameSummary(1, "bravo", "white", null, GameSummary.Status.NEW, 0, 100),
+            new GameSummary(2, "alpha", "white", "black", GameSummary.Status.IN_PROGRESS, 12, 300),
+            new GameSummary(3, "charlie", "other", "black", GameSummary.Status.FINISHED, 40, 200),
+            new GameSummary(4, "alpha", null, null, GameSummary.Status.NEW, 0, 300)
+    );
+
+    private static List<Integer> ids(GameList list) {
+        return list.games().stream().map(GameSummary::gameID).toList();
+    }
+
+    private static List<Integer> allPages(GameQuery query) {
+        List<Integer> ids = new ArrayList<>();
+        GameList page = query.apply(GAMES);
+        ids.addAll(ids(page));
+        while (page.next() != null) {
+            page = query.after(page.next()).apply(GAMES);
+            ids.addAll(ids(page));
+        }
+        return ids;
+    }
+
+    @Test
+    @DisplayName("Each sort pages through every game once")
+    public void pagesThroughEverySort() {
+        Assertions.assertEquals(List.of(1, 2, 3, 4), allPages(new GameQuery(null, 3, null, null, GameQuery.Sort.OLDEST)));
+        Assertions.assertEquals(List.of(4, 3, 2, 1), allPages(new GameQuery(null, 1, null, null, GameQuery.Sort.NEWEST)));
+        Assertions.assertEquals(List.of(4, 2, 3, 1), allPages(new GameQuery(null, 1, null, null, GameQuery.Sort.RECENT)));
+        Assertions.assertEquals(List.of(2, 4, 1, 3), allPages(new GameQuery(null, 1, null, null, GameQuery.Sort.NAME)));
+    }
+
+    @Test
+    @DisplayName("The last page has no next cursor")
+    public void lastPageHasNoCursor() {
+        Assertions.assertNull(new GameQuery(null, 4, null, null, null).apply(GAMES).next());
+        Assertions.assertEquals("3", new GameQuery(null, 3, null, null, null).apply(GAMES).next());
+    }
+
+    @Test
+    @DisplayName("Filters and player narrow the list")
+    public void filters() {
+        Assertions.assertEquals(List.of(1, 4), ids(new GameQuery(null, 10, GameQuery.Filter.OPEN, null, null).apply(GAMES)));
+        Assertions.assertEquals(List.of(2), ids(new GameQuery(null, 10, GameQuery.Filter.IN_PROGRESS, null, null).apply(GAMES)));
+        Assertions.assertEquals(List.of(3), ids(new GameQuery(null, 10, GameQuery.Filter.FINISHED, null, null).apply(GAMES)));
+        Assertions.assertEquals(List.of(2, 3), ids(new GameQuery(null, 10, null, "black", null).apply(GAMES)));
+    }
+
+    @Test
+    @DisplayName("Bad limits and cursors are rejected")
+    public void rejectsBadInput() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GameQuery(null, 0, null, null, null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GameQuery(null, GameQuery.MAX_LIMIT + 1, null, null, null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GameQuery("x", 10, null, null, null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GameQuery("12", 10, null, null, GameQuery.Sort.RECENT));
+    }
+
+    @Test
+    @DisplayName("Only parameters that differ from the defaults are sent")
+    public void queryString() {
+        Assertions.assertEquals("", GameQuery.DEFAULT.toQueryString());
+        var query = new GameQuery(null, 10, GameQuery.Filter.OPEN, "a b", GameQuery.Sort.NAME);
+        query = query.after(query.cursorAfter(GAMES.get(0)));
+        Assertions.assertEquals("?after=YnJhdm8.1&limit=10&filter=OPEN&player=a+b&sort=NAME", query.toQueryString());
+        Assertions.assertEquals("bravo", query.cursor().gameName());
+    }
+}
@@ -0,0 +1,57 @@
+package serialization;
+
+import chess.ChessGame;
+import chess.Perft;
+import org.junit.jupiter.api.*;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.Loading;
+import websocket.messages.Notifying;
+import websocket.messages.ServerMessage;
+
+import java.nio.ByteBuffer;
+
+public class MessageCodecTests {
+    @Test
+    @DisplayName("Binary game state round trips")
+    public void binaryRoundTrip() {
+        for (Perft.Reference reference : Perft.REFERENCE_POSITIONS) {
+            ChessGame game = ChessGame.fromFen(reference.fen());
+            var message = new Loading(ServerMessage.ServerMessageType.LOAD_GAME, game, ChessGame.TeamColor.BLACK);
+
+            ByteBuffer frame = MessageCodec.encodeBinary(message);
+            Assertions.assertEquals(40, frame.remaining());
+
+            Loading copy = MessageCodec.decodeBinary(frame);
+            Assertions.assertEquals(reference.fen(), copy.getGame().toFen(), reference.name());
+            Assertions.assertEquals(ChessGame.TeamColor.BLACK, copy.getColor());
+            Assertions.assertEquals(game.getZobristKey(), copy.getGame().getZobristKey(), reference.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Binary frame is much smaller than JSON")
+    public void binarySmallerThanJson() {
+        var message = new LoadGameMessage(ServerMessage.ServerMessageType.LOAD_GAME, new ChessGame());
+        Assertions.assertTrue(MessageCodec.encodeBinary(message).remaining() * 2 < MessageCodec.encodeText(message).length());
+        Assertions.assertNull(MessageCodec.decodeBinary(MessageCodec.encodeBinary(message)).getColor());
+    }
+
+    @Test
+    @DisplayName("Only LOAD_GAME has a binary form")
+    public void onlyLoadGameBinary() {
+        var notification = new Notifying(ServerMessage.ServerMessageType.NOTIFICATION, "hello");
+        Assertions.assertFalse(MessageCodec.hasBinaryForm(notification));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MessageCodec.encodeBinary(notification));
+    }
+
+    @Test
+    @DisplayName("Bad frames are rejected")
+    public void badFramesRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MessageCodec.decodeBinary(ByteBuffer.allocate(3)));
+
+        ByteBuffer frame = ByteBuffer.allocate(40);
+        frame.put(0, MessageCodec.LOAD_GAME);
+        frame.put(2, (byte) 0xDD);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MessageCodec.decodeBinary(frame));
+    }
+}
@@ -0,0 +1,46 @@
+package serialization;
+
+import chess.ChessGame;
+import model.GameList;
+import model.GameSummary;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+public class SerializerTests {
+    @BeforeEach
+    public void reset() {
+        Serializer.resetMetrics();
+    }
+
+    @Test
+    @DisplayName("Calls are counted and timed")
+    public void metricsCountCalls() {
+        String json = Serializer.toJson(new ChessGame());
+        Serializer.fromJson(json, ChessGame.class);
+        Serializer.fromJson(json, ChessGame.class);
+
+        Serializer.Metrics metrics = Serializer.metrics();
+        Assertions.assertEquals(1, metrics.writes());
+        Assertions.assertEquals(2, metrics.reads());
+        Assertions.assertTrue(metrics.writeNanos() > 0 && metrics.readNanos() > 0);
+    }
+
+    @Test
+    @DisplayName("Failed reads are still counted")
+    public void failedReadCounted() {
+        Assertions.assertThrows(RuntimeException.class, () -> Serializer.fromJson("{\"fen\":\"nonsense\"}", ChessGame.class));
+        Assertions.assertEquals(1, Serializer.metrics().reads());
+    }
+
+    @Test
+    @DisplayName("Nulls are written only when asked for")
+    public void nullsWrittenWhenAsked() {
+        var list = new GameList(List.of(new GameSummary(1, "game", null, "black", GameSummary.Status.NEW, 0, 5)));
+        Assertions.assertEquals("{\"games\":[{\"gameID\":1,\"gameName\":\"game\",\"blackUsername\":\"black\","
+                + "\"status\":\"NEW\",\"moveCount\":0,\"lastActivity\":5}]}", Serializer.toJson(list));
+        Assertions.assertEquals("{\"games\":[{\"gameID\":1,\"gameName\":\"game\",\"whiteUsername\":null,"
+                + "\"blackUsername\":\"black\",\"status\":\"NEW\",\"moveCount\":0,\"lastActivity\":5}],\"next\":null}",
+                Serializer.toJsonWithNulls(list));
+    }
+}
@@ -0,0 +1,28 @@
+package websocket.messages;
+
+import model.GameSummary;
+import org.junit.jupiter.api.*;
+import serialization.Serializer;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+public class LobbyEventMessageTests {
+    @Test
+    @DisplayName("Events keep a client's index of games up to date")
+    public void indexFollowsEvents() {
+        Map<Integer, GameSummary> games = new TreeMap<>();
+        var created = new GameSummary(7, "game", null, null, GameSummary.Status.NEW, 0, 10);
+        var joined = new GameSummary(7, "game", "white", null, GameSummary.Status.NEW, 0, 20);
+        long sequence = 0;
+        for (var event : new LobbyEventMessage[]{
+                new LobbyEventMessage(LobbyEventMessage.Kind.GAME_CREATED, created, 1),
+                new LobbyEventMessage(LobbyEventMessage.Kind.SEAT_TAKEN, joined, 2)}) {
+            var message = Serializer.fromJson(Serializer.toJson(event), LobbyEventMessage.class);
+            Assertions.assertEquals(ServerMessage.ServerMessageType.LOBBY_EVENT, message.getServerMessageType());
+            Assertions.assertEquals(++sequence, message.getSequence());
+            message.applyTo(games);
+        }
+        Assertions.assertEquals(Map.of(7, joined), games);
+    }
+}
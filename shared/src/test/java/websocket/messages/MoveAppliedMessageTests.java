@@ -0,0 +1,61 @@
+package websocket.messages;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.*;
+import serialization.Serializer;
+
+public class MoveAppliedMessageTests {
+    private static final ChessMove E4 = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+    private static final ChessMove E5 = new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null);
+
+    private static MoveAppliedMessage play(ChessGame server, ChessMove move) throws InvalidMoveException {
+        server.makeMove(move);
+        return new MoveAppliedMessage(move, server, MoveAppliedMessage.Status.ONGOING);
+    }
+
+    @Test
+    @DisplayName("Client copy follows the server")
+    public void clientFollowsServer() throws InvalidMoveException {
+        var server = new ChessGame();
+        var client = new ChessGame();
+        for (ChessMove move : new ChessMove[]{E4, E5}) {
+            String json = Serializer.toJson(play(server, move));
+            Assertions.assertTrue(json.length() < 120, json);
+
+            var message = Serializer.fromJson(json, MoveAppliedMessage.class);
+            Assertions.assertEquals(ServerMessage.ServerMessageType.MOVE_APPLIED, message.getServerMessageType());
+            Assertions.assertTrue(message.applyTo(client));
+        }
+        Assertions.assertEquals(server.toFen(), client.toFen());
+    }
+
+    @Test
+    @DisplayName("Missed move is detected")
+    public void gapDetected() throws InvalidMoveException {
+        var server = new ChessGame();
+        var client = new ChessGame();
+        play(server, E4);
+        Assertions.assertFalse(play(server, E5).applyTo(client));
+        Assertions.assertEquals(new ChessGame().toFen(), client.toFen(), "A copy out of step is left alone");
+    }
+
+    @Test
+    @DisplayName("Diverged copy is detected")
+    public void divergenceDetected() throws InvalidMoveException {
+        var server = new ChessGame();
+        var client = ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBN1 w Qkq - 0 1");
+        Assertions.assertFalse(play(server, E4).applyTo(client));
+    }
+
+    @Test
+    @DisplayName("Game over statuses")
+    public void gameOverStatuses() {
+        var game = new ChessGame();
+        Assertions.assertFalse(new MoveAppliedMessage(E4, game, MoveAppliedMessage.Status.CHECK).isGameOver());
+        Assertions.assertTrue(new MoveAppliedMessage(E4, game, MoveAppliedMessage.Status.CHECKMATE).isGameOver());
+        Assertions.assertTrue(new MoveAppliedMessage(E4, game, MoveAppliedMessage.Status.DRAW).isGameOver());
+    }
+}